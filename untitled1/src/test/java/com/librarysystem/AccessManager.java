@@ -9,12 +9,17 @@ import java.io.*;
 public class AccessManager {
     private Map<String, com.librarysystem.User> users;
     private String usersFilePath = "users.csv";
+    private int nextUserId;
+    private File notificationDirectory;
+    private File historyDirectory;
+    private com.librarysystem.FinesLedger finesLedger;
 
     public AccessManager() { this("users.csv"); }
     public AccessManager(String usersFilePath) {
         this.users = new HashMap<>();
         this.usersFilePath = usersFilePath;
         loadUsers();
+        this.nextUserId = users.values().stream().mapToInt(com.librarysystem.User::getId).max().orElse(0) + 1;
     }
 
     public void createUser(String name, String surname, String email, String role, String password, int bookLimit, com.librarysystem.Date cardExpiryDate) {
@@ -24,13 +29,123 @@ public class AccessManager {
         if (users.containsKey(email.toLowerCase())) {
             throw new IllegalArgumentException("User with email " + email + " already exists.");
         }
-        int newId = users.values().stream().mapToInt(com.librarysystem.User::getId).max().orElse(0) + 1;
+        int newId = nextUserId++;
         com.librarysystem.User newUser = new com.librarysystem.User(newId, name, surname, email, role, password, bookLimit, cardExpiryDate);
+        attachInbox(newUser);
+        attachHistory(newUser);
         users.put(email.toLowerCase(), newUser);
         saveUsers();
         System.out.println(role + " user created: " + name + " (ID: " + newId + ", Email: " + email + ")");
     }
 
+    public com.librarysystem.BatchResult<Integer> enrollUsers(Reader roster) throws IOException {
+        com.librarysystem.BatchResult<Integer> result = new com.librarysystem.BatchResult<>();
+        try (BufferedReader br = new BufferedReader(roster, 1 << 16)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.toLowerCase().startsWith("name;"))) {
+                    continue;
+                }
+                String[] parts = line.split(";", -1);
+                if (parts.length != 7) {
+                    result.addFailure(lineNumber, lineNumber, "Expected 7 fields (Name;Surname;Email;Role;Password;BookLimit;CardExpiry) but found " + parts.length + ".");
+                    continue;
+                }
+                String name = parts[0].trim();
+                String email = parts[2].trim();
+                String role = parts[3].trim().toUpperCase();
+                String password = parts[4];
+                if (name.isEmpty() || email.isEmpty() || password.isEmpty()) {
+                    result.addFailure(lineNumber, lineNumber, "Name, email and password are required.");
+                    continue;
+                }
+                if (email.indexOf('@') <= 0 || email.indexOf('@') != email.lastIndexOf('@')) {
+                    result.addFailure(lineNumber, lineNumber, "Invalid email address: " + email);
+                    continue;
+                }
+                if (users.containsKey(email.toLowerCase())) {
+                    result.addFailure(lineNumber, lineNumber, "User with email " + email + " already exists.");
+                    continue;
+                }
+                if (!role.equals("READER") && !role.equals("LIBRARIAN")) {
+                    result.addFailure(lineNumber, lineNumber, "Unknown role: " + parts[3]);
+                    continue;
+                }
+                int bookLimit;
+                com.librarysystem.Date cardExpiry;
+                try {
+                    bookLimit = Integer.parseInt(parts[5].trim());
+                    cardExpiry = com.librarysystem.Date.fromString(parts[6].trim());
+                } catch (RuntimeException e) {
+                    result.addFailure(lineNumber, lineNumber, "Invalid book limit or card expiry: " + e.getMessage());
+                    continue;
+                }
+                if (bookLimit < 0) {
+                    result.addFailure(lineNumber, lineNumber, "Book limit cannot be negative.");
+                    continue;
+                }
+                com.librarysystem.User newUser = new com.librarysystem.User(nextUserId++, name, parts[1].trim(), email, role, password, bookLimit, cardExpiry);
+                attachInbox(newUser);
+                attachHistory(newUser);
+                users.put(email.toLowerCase(), newUser);
+                result.addSuccess(lineNumber);
+            }
+        }
+        if (!result.getSucceeded().isEmpty()) {
+            saveUsers();
+        }
+        System.out.println("Enrollment from roster: " + result + ".");
+        return result;
+    }
+
+    public void attachNotificationInboxes(File directory) {
+        this.notificationDirectory = directory;
+        for (com.librarysystem.User user : users.values()) {
+            attachInbox(user);
+        }
+    }
+
+    public void attachCommandHistories(File directory) {
+        this.historyDirectory = directory;
+        for (com.librarysystem.User user : users.values()) {
+            attachHistory(user);
+        }
+    }
+
+    public void attachFinesLedger(com.librarysystem.FinesLedger finesLedger) {
+        this.finesLedger = finesLedger;
+    }
+
+    public void close() {
+        for (com.librarysystem.User user : users.values()) {
+            user.getInbox().close();
+            if (user.getLibraryCard() != null) {
+                user.getLibraryCard().closeHistory();
+            }
+        }
+    }
+
+    private void attachInbox(com.librarysystem.User user) {
+        if (notificationDirectory == null) return;
+        try {
+            user.attachInbox(notificationDirectory);
+        } catch (IOException e) {
+            System.err.println("AccessManager: Could not open notification inbox for user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void attachHistory(com.librarysystem.User user) {
+        if (historyDirectory != null && user.getLibraryCard() != null) {
+            try {
+                user.getLibraryCard().attachHistory(historyDirectory);
+            } catch (IOException e) {
+                System.err.println("AccessManager: Could not open command history for card " + user.getLibraryCard().getCardId() + ": " + e.getMessage());
+            }
+        }
+    }
+
     public com.librarysystem.User login(String email, String password) {
         if (email == null) return null;
         com.librarysystem.User user = users.get(email.toLowerCase());
@@ -66,8 +181,16 @@ public class AccessManager {
             System.out.println("Email for removal cannot be null.");
             return;
         }
-        if (users.containsKey(email.toLowerCase())) {
-            users.remove(email.toLowerCase());
+        com.librarysystem.User removed = users.remove(email.toLowerCase());
+        if (removed != null) {
+            // User IDs are reused after a restart, so the next user with this ID must not inherit these files.
+            removed.discardInbox();
+            if (removed.getLibraryCard() != null) {
+                removed.getLibraryCard().discardHistory();
+            }
+            if (finesLedger != null) {
+                finesLedger.removeAccount(removed.getId());
+            }
             saveUsers();
             System.out.println("User " + email + " removed.");
         } else {
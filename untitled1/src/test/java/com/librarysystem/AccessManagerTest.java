@@ -122,4 +122,103 @@ class AccessManagerTest {
         assertNull(userAfterRemoveFromFile, "User should not be found in a new AccessManager instance after removal");
         System.out.println("Finished testRemoveUser.");
     }
+
+    @Test
+    void testEnrollUsersFromRosterReportsRowFailures() throws IOException {
+        System.out.println("Running testEnrollUsersFromRosterReportsRowFailures...");
+        accessManager.createUser("Existing", "Reader", "existing@example.com", "READER", "pass", 5, new Date(2026, 6, 30));
+        StringBuilder roster = new StringBuilder("Name;Surname;Email;Role;Password;BookLimit;CardExpiry\n");
+        for (int i = 1; i <= 50; i++) {
+            roster.append("Student").append(i).append(";Freshman;student").append(i).append("@example.com;READER;pw").append(i).append(";3;2026-06-30\n");
+        }
+        roster.append("Again;Dup;EXISTING@example.com;READER;pw;3;2026-06-30\n");
+        roster.append("Twice;Dup;student7@example.com;READER;pw;3;2026-06-30\n");
+        roster.append("Bad;Email;not-an-email;READER;pw;3;2026-06-30\n");
+        roster.append("Bad;Date;baddate@example.com;READER;pw;3;30/06/2026\n");
+        roster.append("Too;Short;short@example.com\n");
+
+        BatchResult<Integer> result = accessManager.enrollUsers(new java.io.StringReader(roster.toString()));
+        System.out.println("Enrollment: " + result + " " + result.getFailures());
+
+        assertEquals(50, result.getSucceeded().size());
+        assertEquals(5, result.getFailures().size(), "Bad rows must be reported without aborting the batch.");
+        assertTrue(result.getFailures().stream().anyMatch(f -> f.getItem() == 53 && f.getReason().contains("already exists")),
+                "Duplicates within the roster are caught too.");
+        assertEquals(51, accessManager.getAllUsers().size());
+
+        java.util.Set<Integer> ids = new java.util.HashSet<>();
+        for (User user : accessManager.getAllUsers()) {
+            assertTrue(ids.add(user.getId()), "Enrolled users must get unique IDs.");
+        }
+        AccessManager reloaded = new AccessManager(TEST_USERS_FILE_PATH);
+        assertNotNull(reloaded.login("student50@example.com", "pw50"), "The roster should be persisted.");
+        System.out.println("Finished testEnrollUsersFromRosterReportsRowFailures.");
+    }
+
+    @Test
+    void testRemovedUserFilesAreNotInheritedByReusedId() {
+        System.out.println("Running testRemovedUserFilesAreNotInheritedByReusedId...");
+        File inboxDir = new File("test_removed_inbox");
+        File historyDir = new File("test_removed_history");
+        try {
+            accessManager.attachNotificationInboxes(inboxDir);
+            accessManager.attachCommandHistories(historyDir);
+            accessManager.createUser("Leaving", "Reader", "leaving@example.com", "READER", "pass", 5, new Date(2030, 1, 1));
+            User leaving = accessManager.findUserByEmail("leaving@example.com");
+            leaving.recieveMessage("Overdue fine for Dune.");
+            Date day = new Date(2025, 1, 1);
+            Book book = new Book(1, "Dune", "Herbert", "SF", "Desc", "ISBN_D", true);
+            for (int i = 0; i < LibraryCard.RECENT_COMMANDS + 5; i++) {
+                leaving.getLibraryCard().addCommand(new Borrow(book, day, day.addMonths(1), leaving));
+            }
+            accessManager.removeUser("leaving@example.com");
+
+            AccessManager restarted = new AccessManager(TEST_USERS_FILE_PATH);
+            restarted.attachNotificationInboxes(inboxDir);
+            restarted.attachCommandHistories(historyDir);
+            restarted.createUser("New", "Reader", "new@example.com", "READER", "pass", 5, new Date(2030, 1, 1));
+            User newcomer = restarted.findUserByEmail("new@example.com");
+            assertEquals(leaving.getId(), newcomer.getId(), "The freed ID is handed out again after a restart.");
+            assertEquals(0, newcomer.getInbox().getTotalCount(), "The new user must not see the old notifications.");
+            assertEquals(0, newcomer.getLibraryCard().getCommandCount(), "The new card must not inherit the old history.");
+        } finally {
+            TestFixtures.deleteDirectory(inboxDir);
+            TestFixtures.deleteDirectory(historyDir);
+        }
+        System.out.println("Finished testRemovedUserFilesAreNotInheritedByReusedId.");
+    }
+
+    @Test
+    void testRemovedUserFinesAreNotInheritedByReusedId() {
+        System.out.println("Running testRemovedUserFinesAreNotInheritedByReusedId...");
+        File finesFile = new File("test_removed_fines.csv");
+        finesFile.delete();
+        try {
+            FinesLedger ledger = new FinesLedger(finesFile, 25, 1000);
+            accessManager.attachFinesLedger(ledger);
+            accessManager.createUser("Leaving", "Reader", "leaving@example.com", "READER", "pass", 5, new Date(2030, 1, 1));
+            User leaving = accessManager.findUserByEmail("leaving@example.com");
+            Date due = new Date(2025, 1, 1);
+            Book returnedLate = new Book(1, "Dune", "Herbert", "SF", "Desc", "ISBN_D", true);
+            Book stillOut = new Book(2, "Emma", "Austen", "Classic", "Desc", "ISBN_E", true);
+            ledger.loanReturned(new Borrow(returnedLate, due.minusDays(14), due, leaving), due.plusDays(4));
+            ledger.loanOverdue(new Borrow(stillOut, due.minusDays(14), due, leaving));
+            assertEquals(200, ledger.getBalance(leaving, due.plusDays(4)));
+            accessManager.removeUser("leaving@example.com");
+
+            assertEquals(0, ledger.getAccruingLoanCount(), "The removed user's loans stop accruing.");
+            AccessManager restarted = new AccessManager(TEST_USERS_FILE_PATH);
+            FinesLedger reloaded = new FinesLedger(finesFile, 25, 1000);
+            restarted.attachFinesLedger(reloaded);
+            restarted.createUser("New", "Reader", "new@example.com", "READER", "pass", 5, new Date(2030, 1, 1));
+            User newcomer = restarted.findUserByEmail("new@example.com");
+            assertEquals(leaving.getId(), newcomer.getId(), "The freed ID is handed out again after a restart.");
+            assertEquals(0, reloaded.getBalance(newcomer, due.plusDays(30)), "The new user must not owe the old fines.");
+            assertTrue(reloaded.advanceTo(due.plusDays(60)).isEmpty());
+            assertFalse(newcomer.getLibraryCard().isBlocked());
+        } finally {
+            finesFile.delete();
+        }
+        System.out.println("Finished testRemovedUserFinesAreNotInheritedByReusedId.");
+    }
 }
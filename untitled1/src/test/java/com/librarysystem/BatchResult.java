@@ -0,0 +1,60 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResult<T> {
+    private final List<T> succeeded;
+    private final List<Failure<T>> failures;
+
+    public BatchResult() {
+        this.succeeded = new ArrayList<>();
+        this.failures = new ArrayList<>();
+    }
+
+    void addSuccess(T item) {
+        succeeded.add(item);
+    }
+
+    void addFailure(int index, T item, String reason) {
+        failures.add(new Failure<>(index, item, reason));
+    }
+
+    public List<T> getSucceeded() { return new ArrayList<>(succeeded); }
+    public List<Failure<T>> getFailures() { return new ArrayList<>(failures); }
+    public boolean hasFailures() { return !failures.isEmpty(); }
+    public int size() { return succeeded.size() + failures.size(); }
+
+    public String getFailureReason(int index) {
+        for (Failure<T> failure : failures) {
+            if (failure.getIndex() == index) return failure.getReason();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return succeeded.size() + " succeeded, " + failures.size() + " failed";
+    }
+
+    public static class Failure<T> {
+        private final int index;
+        private final T item;
+        private final String reason;
+
+        Failure(int index, T item, String reason) {
+            this.index = index;
+            this.item = item;
+            this.reason = reason;
+        }
+
+        public int getIndex() { return index; }
+        public T getItem() { return item; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + item + ": " + reason;
+        }
+    }
+}
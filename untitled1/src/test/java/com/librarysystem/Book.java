@@ -1,5 +1,7 @@
 package com.librarysystem;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class Book {
     private String title;
     private String author;
@@ -7,7 +9,7 @@ public class Book {
     private String description;
     private String isbn;
 
-    private boolean available;
+    private final AtomicBoolean available;
     private int id;
 
     public Book(int id, String title, String author, String genre, String description, String isbn, boolean available) {
@@ -17,7 +19,7 @@ public class Book {
         this.genre = genre;
         this.description = description;
         this.isbn = isbn;
-        this.available = available;
+        this.available = new AtomicBoolean(available);
     }
 
     public Book(String title, String author, String genre, String description, String isbn) {
@@ -40,12 +42,13 @@ public class Book {
     public int getId() { return id; }
     public void setId(int id) { this.id = id;}
 
-    public boolean isAvailable() { return available; }
-    public void setAvailable(boolean available) { this.available = available; }
+    public boolean isAvailable() { return available.get(); }
+    public void setAvailable(boolean available) { this.available.set(available); }
+    public boolean compareAndSetAvailable(boolean expected, boolean available) { return this.available.compareAndSet(expected, available); }
 
     @Override
     public String toString() {
         return "Book [id=" + id + ", title=" + title + ", author=" + author + ", genre=" + genre
-                + ", isbn=" + isbn + ", available=" + available + "]";
+                + ", isbn=" + isbn + ", available=" + available.get() + "]";
     }
 }
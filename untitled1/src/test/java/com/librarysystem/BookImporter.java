@@ -0,0 +1,159 @@
+package com.librarysystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BookImporter {
+    public static final int DEFAULT_BATCH_SIZE = 5_000;
+    private static final int MAX_REJECTION_DETAILS = 100;
+
+    private final IReadWrite readWrite;
+    private final IPresent present;
+    private final int batchSize;
+    private final AtomicLong linesRead;
+    private final AtomicLong imported;
+    private final AtomicLong duplicates;
+    private final AtomicLong rejected;
+    private final Map<Long, String> rejectionDetails;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+
+    public BookImporter(IReadWrite readWrite, IPresent present) {
+        this(readWrite, present, DEFAULT_BATCH_SIZE);
+    }
+
+    public BookImporter(IReadWrite readWrite, IPresent present, int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Import batch size must be positive.");
+        this.readWrite = readWrite;
+        this.present = present;
+        this.batchSize = batchSize;
+        this.linesRead = new AtomicLong();
+        this.imported = new AtomicLong();
+        this.duplicates = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.rejectionDetails = new LinkedHashMap<>();
+    }
+
+    public ImportReport importFrom(Reader source) throws IOException {
+        startNanos = System.nanoTime();
+        finishNanos = 0;
+        List<Book> batch = new ArrayList<>(batchSize);
+        Set<String> batchKeys = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(source, 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineNumber = linesRead.incrementAndGet();
+                if (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("title;")) {
+                    continue;
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(";", -1);
+                if (parts.length != 5) {
+                    reject(lineNumber, "Expected 5 fields (Title;Author;Genre;Description;ISBN) but found " + parts.length + ".");
+                    continue;
+                }
+                String title = parts[0].trim();
+                String author = parts[1].trim();
+                if (title.isEmpty() || author.isEmpty()) {
+                    reject(lineNumber, "Title and author are required.");
+                    continue;
+                }
+                String key = title.toLowerCase() + "#" + author.toLowerCase();
+                if (present.isPresent(title, author) || !batchKeys.add(key)) {
+                    duplicates.incrementAndGet();
+                    continue;
+                }
+                batch.add(new Book(-1, title, author, parts[2].trim(), parts[3].trim(), parts[4].trim(), true));
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                    batchKeys.clear();
+                }
+            }
+        }
+        flush(batch);
+        finishNanos = System.nanoTime();
+        ImportReport report = getProgress();
+        System.out.println("BookImporter: " + report);
+        return report;
+    }
+
+    public ImportReport getProgress() {
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        long elapsedNanos = startNanos == 0 ? 0 : end - startNanos;
+        Map<Long, String> details;
+        synchronized (rejectionDetails) {
+            details = new LinkedHashMap<>(rejectionDetails);
+        }
+        return new ImportReport(linesRead.get(), imported.get(), duplicates.get(), rejected.get(),
+                elapsedNanos / 1_000_000, finishNanos != 0, details);
+    }
+
+    private void flush(List<Book> batch) {
+        if (batch.isEmpty()) return;
+        readWrite.registerBooks(batch);
+        present.registerBooks(batch);
+        imported.addAndGet(batch.size());
+        batch.clear();
+        System.out.println("BookImporter: " + getProgress());
+    }
+
+    private void reject(long lineNumber, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejectionDetails) {
+            if (rejectionDetails.size() < MAX_REJECTION_DETAILS) {
+                rejectionDetails.put(lineNumber, reason);
+            }
+        }
+    }
+
+    public static class ImportReport {
+        private final long linesRead;
+        private final long imported;
+        private final long duplicates;
+        private final long rejected;
+        private final long elapsedMillis;
+        private final boolean finished;
+        private final Map<Long, String> rejectionDetails;
+
+        ImportReport(long linesRead, long imported, long duplicates, long rejected, long elapsedMillis,
+                     boolean finished, Map<Long, String> rejectionDetails) {
+            this.linesRead = linesRead;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+            this.finished = finished;
+            this.rejectionDetails = rejectionDetails;
+        }
+
+        public long getLinesRead() { return linesRead; }
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public long getRejected() { return rejected; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isFinished() { return finished; }
+        public Map<Long, String> getRejectionDetails() { return new LinkedHashMap<>(rejectionDetails); }
+
+        public double getRecordsPerSecond() {
+            return linesRead * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return (finished ? "Imported " : "Importing: ") + imported + " books from " + linesRead + " lines ("
+                    + duplicates + " duplicates, " + rejected + " rejected) in " + elapsedMillis + " ms, "
+                    + String.format("%.0f", getRecordsPerSecond()) + " records/s";
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.librarysystem;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CatalogIndex {
+    private final Set<Integer> availableIds;
+    private final Map<String, Set<Integer>> genreFacet;
+    private final Map<String, Set<Integer>> authorTokens;
+    private final Map<String, Set<Integer>> textTokens;
+    private final Map<Integer, IndexedEntry> entriesById;
+
+    public CatalogIndex() {
+        this.availableIds = ConcurrentHashMap.newKeySet();
+        this.genreFacet = new HashMap<>();
+        this.authorTokens = new HashMap<>();
+        this.textTokens = new HashMap<>();
+        this.entriesById = new ConcurrentHashMap<>();
+    }
+
+    public static Set<String> tokenize(String value) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (value == null) return tokens;
+        for (String token : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static String normalizeGenre(String genre) {
+        return genre == null ? "" : genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized void add(Book book) {
+        if (book == null || book.getId() < 0) return;
+        remove(book.getId());
+        IndexedEntry entry = new IndexedEntry(normalizeGenre(book.getGenre()),
+                tokenize(book.getAuthor()), textTokensOf(book));
+        entriesById.put(book.getId(), entry);
+        if (book.isAvailable()) availableIds.add(book.getId());
+        genreFacet.computeIfAbsent(entry.genre, k -> new HashSet<>()).add(book.getId());
+        for (String token : entry.authorTokens) {
+            authorTokens.computeIfAbsent(token, k -> new HashSet<>()).add(book.getId());
+        }
+        for (String token : entry.textTokens) {
+            textTokens.computeIfAbsent(token, k -> new HashSet<>()).add(book.getId());
+        }
+    }
+
+    public synchronized void remove(int bookId) {
+        IndexedEntry entry = entriesById.remove(bookId);
+        if (entry == null) return;
+        availableIds.remove(bookId);
+        removePosting(genreFacet, entry.genre, bookId);
+        for (String token : entry.authorTokens) {
+            removePosting(authorTokens, token, bookId);
+        }
+        for (String token : entry.textTokens) {
+            removePosting(textTokens, token, bookId);
+        }
+    }
+
+    public void setAvailable(int bookId, boolean available) {
+        if (!available) {
+            availableIds.remove(bookId);
+        } else if (entriesById.containsKey(bookId)) {
+            availableIds.add(bookId);
+        }
+    }
+
+    public int size() {
+        return entriesById.size();
+    }
+
+    public int countAvailable() {
+        return availableIds.size();
+    }
+
+    public Set<Integer> getAvailableIds() {
+        return new HashSet<>(availableIds);
+    }
+
+    public boolean isAvailable(int bookId) {
+        return availableIds.contains(bookId);
+    }
+
+    public synchronized Set<Integer> getGenreIds(String genre) {
+        return copyOf(genreFacet.get(normalizeGenre(genre)));
+    }
+
+    public synchronized int countGenre(String genre) {
+        return sizeOf(genreFacet.get(normalizeGenre(genre)));
+    }
+
+    public synchronized Set<Integer> getAuthorTokenIds(String token) {
+        return copyOf(authorTokens.get(token));
+    }
+
+    public synchronized int countAuthorToken(String token) {
+        return sizeOf(authorTokens.get(token));
+    }
+
+    public synchronized Set<Integer> getTextTokenIds(String token) {
+        return copyOf(textTokens.get(token));
+    }
+
+    public synchronized int countTextToken(String token) {
+        return sizeOf(textTokens.get(token));
+    }
+
+    static Set<String> textTokensOf(Book book) {
+        Set<String> tokens = tokenize(book.getTitle());
+        tokens.addAll(tokenize(book.getDescription()));
+        return tokens;
+    }
+
+    private static void removePosting(Map<String, Set<Integer>> postings, String key, int bookId) {
+        Set<Integer> ids = postings.get(key);
+        if (ids != null) {
+            ids.remove(bookId);
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static Set<Integer> copyOf(Set<Integer> ids) {
+        return ids == null ? Collections.<Integer>emptySet() : new HashSet<>(ids);
+    }
+
+    private static int sizeOf(Set<Integer> ids) {
+        return ids == null ? 0 : ids.size();
+    }
+
+    private static final class IndexedEntry {
+        private final String genre;
+        private final Set<String> authorTokens;
+        private final Set<String> textTokens;
+
+        IndexedEntry(String genre, Set<String> authorTokens, Set<String> textTokens) {
+            this.genre = genre;
+            this.authorTokens = authorTokens;
+            this.textTokens = textTokens;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.librarysystem;
+
+import java.util.Set;
+
+public class CatalogQuery {
+    private boolean availableOnly;
+    private String genre;
+    private String author;
+    private String text;
+
+    public static CatalogQuery create() {
+        return new CatalogQuery();
+    }
+
+    public CatalogQuery availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    public CatalogQuery genre(String genre) {
+        this.genre = genre;
+        return this;
+    }
+
+    public CatalogQuery author(String author) {
+        this.author = author;
+        return this;
+    }
+
+    public CatalogQuery containing(String text) {
+        this.text = text;
+        return this;
+    }
+
+    public boolean isAvailableOnly() { return availableOnly; }
+    public String getGenre() { return genre; }
+    public String getAuthor() { return author; }
+    public String getText() { return text; }
+
+    public boolean matches(Book book) {
+        if (book == null) return false;
+        if (availableOnly && !book.isAvailable()) return false;
+        if (genre != null && !CatalogIndex.normalizeGenre(genre).equals(CatalogIndex.normalizeGenre(book.getGenre()))) {
+            return false;
+        }
+        if (author != null && !CatalogIndex.tokenize(book.getAuthor()).containsAll(CatalogIndex.tokenize(author))) {
+            return false;
+        }
+        if (text != null) {
+            Set<String> bookTokens = CatalogIndex.textTokensOf(book);
+            if (!bookTokens.containsAll(CatalogIndex.tokenize(text))) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogQuery [availableOnly=" + availableOnly + ", genre=" + genre + ", author=" + author
+                + ", text=" + text + "]";
+    }
+}
@@ -0,0 +1,172 @@
+package com.librarysystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CoBorrowIndex {
+    public static final int DEFAULT_HISTORY_PER_USER = 20;
+    public static final int DEFAULT_NEIGHBOURS_PER_BOOK = 50;
+
+    private final int historyPerUser;
+    private final int neighboursPerBook;
+    private final Map<Integer, Deque<Integer>> recentByUser;
+    private final Map<Integer, Neighbours> neighbours;
+    private final Map<Integer, Integer> borrowCounts;
+    private long observed;
+
+    public CoBorrowIndex() {
+        this(DEFAULT_HISTORY_PER_USER, DEFAULT_NEIGHBOURS_PER_BOOK);
+    }
+
+    public CoBorrowIndex(int historyPerUser, int neighboursPerBook) {
+        if (historyPerUser <= 0 || neighboursPerBook <= 0) {
+            throw new IllegalArgumentException("History and neighbour limits must be positive.");
+        }
+        this.historyPerUser = historyPerUser;
+        this.neighboursPerBook = neighboursPerBook;
+        this.recentByUser = new HashMap<>();
+        this.neighbours = new HashMap<>();
+        this.borrowCounts = new HashMap<>();
+    }
+
+    public synchronized void observe(int userId, int bookId) {
+        observed++;
+        Deque<Integer> recent = recentByUser.computeIfAbsent(userId, k -> new ArrayDeque<>());
+        if (recent.remove(bookId)) {
+            recent.addLast(bookId);
+            return;
+        }
+        borrowCounts.merge(bookId, 1, Integer::sum);
+        for (int other : recent) {
+            increment(bookId, other);
+            increment(other, bookId);
+        }
+        recent.addLast(bookId);
+        if (recent.size() > historyPerUser) {
+            recent.removeFirst();
+        }
+    }
+
+    public synchronized void rebuild(Iterable<LibraryEvent> history) {
+        recentByUser.clear();
+        neighbours.clear();
+        borrowCounts.clear();
+        observed = 0;
+        long start = System.nanoTime();
+        for (LibraryEvent event : history) {
+            if (event.getType() == LibraryEvent.Type.BORROW) {
+                observe(event.getUserId(), event.getBookId());
+            }
+        }
+        System.out.println("CoBorrowIndex: Rebuilt from " + observed + " borrows in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms (" + neighbours.size() + " books with neighbours).");
+    }
+
+    public synchronized List<Recommendation> recommend(int bookId, int limit) {
+        List<Recommendation> recommendations = new ArrayList<>();
+        Neighbours related = neighbours.get(bookId);
+        if (related == null || limit <= 0) return recommendations;
+        int borrows = borrowCounts.getOrDefault(bookId, 0);
+        for (int i = 0; i < related.size; i++) {
+            int otherBorrows = borrowCounts.getOrDefault(related.ids[i], 0);
+            double score = related.counts[i] / Math.sqrt((double) Math.max(1, borrows) * Math.max(1, otherBorrows));
+            recommendations.add(new Recommendation(related.ids[i], related.counts[i], score));
+        }
+        recommendations.sort((a, b) -> a.getScore() != b.getScore()
+                ? Double.compare(b.getScore(), a.getScore()) : Integer.compare(a.getBookId(), b.getBookId()));
+        return recommendations.size() > limit ? new ArrayList<>(recommendations.subList(0, limit)) : recommendations;
+    }
+
+    public synchronized int getNeighbourCount(int bookId) {
+        Neighbours related = neighbours.get(bookId);
+        return related == null ? 0 : related.size;
+    }
+
+    public synchronized long getObservedBorrows() {
+        return observed;
+    }
+
+    private void increment(int bookId, int other) {
+        neighbours.computeIfAbsent(bookId, k -> new Neighbours(neighboursPerBook)).increment(other);
+    }
+
+    private static class Neighbours {
+        // Parallel arrays scanned linearly: at most 2N entries, far cheaper than a boxed map per title.
+        private final int keep;
+        private int[] ids;
+        private int[] counts;
+        private int size;
+
+        Neighbours(int keep) {
+            this.keep = keep;
+            this.ids = new int[4];
+            this.counts = new int[4];
+        }
+
+        void increment(int other) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == other) {
+                    counts[i]++;
+                    return;
+                }
+            }
+            if (size == 2 * keep) {
+                prune();
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(2 * keep, size * 2));
+                counts = Arrays.copyOf(counts, ids.length);
+            }
+            ids[size] = other;
+            counts[size] = 1;
+            size++;
+        }
+
+        private void prune() {
+            // Keep the strongest neighbours; pruning only when the list doubles keeps the cost amortised.
+            int[] sorted = Arrays.copyOf(counts, size);
+            Arrays.sort(sorted);
+            int threshold = sorted[size - keep];
+            int kept = 0;
+            int tiesAllowed = keep;
+            for (int i = 0; i < size; i++) {
+                if (counts[i] > threshold) tiesAllowed--;
+            }
+            for (int i = 0; i < size; i++) {
+                if (counts[i] > threshold || (counts[i] == threshold && tiesAllowed-- > 0)) {
+                    ids[kept] = ids[i];
+                    counts[kept] = counts[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+
+    public static class Recommendation {
+        private final int bookId;
+        private final int coBorrows;
+        private final double score;
+
+        Recommendation(int bookId, int coBorrows, double score) {
+            this.bookId = bookId;
+            this.coBorrows = coBorrows;
+            this.score = score;
+        }
+
+        public int getBookId() { return bookId; }
+        public int getCoBorrows() { return coBorrows; }
+        public double getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return "Book ID " + bookId + " (borrowed together " + coBorrows + " times, score "
+                    + String.format("%.3f", score) + ")";
+        }
+    }
+}
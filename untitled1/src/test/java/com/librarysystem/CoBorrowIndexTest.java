@@ -0,0 +1,116 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoBorrowIndexTest {
+
+    private static final String TEST_BOOKS_FILE = "coborrow_test_books.csv";
+    private static final File HISTORY_DIR = new File("test_coborrow_history");
+
+    private final Date today = new Date(2025, 5, 9);
+    private TestFixtures fixtures;
+    private Executor executor;
+    private Book book1;
+    private Book book2;
+    private Book book3;
+    private User reader;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(TEST_BOOKS_FILE, today, HISTORY_DIR);
+        executor = fixtures.executor;
+        book1 = fixtures.addBook("CoBorrow Book 1", "Author C1", "ISBN_C1");
+        book2 = fixtures.addBook("CoBorrow Book 2", "Author C2", "ISBN_C2");
+        book3 = fixtures.addBook("CoBorrow Book 3", "Author C3", "ISBN_C3");
+        reader = newUser(1);
+        other = newUser(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void testRecommendationsAreIncrementalAndRebuildable() {
+        System.out.println("Running testRecommendationsAreIncrementalAndRebuildable...");
+        executor.attachRecommendations(new CoBorrowIndex());
+        borrowAndReturn(reader, today, book1, book2, book3);
+        borrowAndReturn(other, today.plusDays(1), book1, book2);
+
+        List<CoBorrowIndex.Recommendation> alsoBorrowed = executor.getAlsoBorrowed(book1.getId(), 5);
+        assertEquals(2, alsoBorrowed.size());
+        assertEquals(book2.getId(), alsoBorrowed.get(0).getBookId(), "Book2 was borrowed alongside Book1 by both readers.");
+        assertEquals(2, alsoBorrowed.get(0).getCoBorrows());
+        assertEquals(book3.getId(), alsoBorrowed.get(1).getBookId());
+        assertTrue(executor.getAlsoBorrowed(9999, 5).isEmpty());
+
+        CoBorrowIndex rebuilt = executor.rebuildRecommendations(Arrays.asList(reader, other));
+        assertEquals(5, rebuilt.getObservedBorrows(), "Rebuild should replay every borrow on the cards.");
+        assertSameRecommendations(alsoBorrowed, executor.getAlsoBorrowed(book1.getId(), 5));
+        System.out.println("Finished testRecommendationsAreIncrementalAndRebuildable.");
+    }
+
+    @Test
+    void testRebuildMergesPersistedCardHistories() throws IOException {
+        System.out.println("Running testRebuildMergesPersistedCardHistories...");
+        reader.getLibraryCard().attachHistory(HISTORY_DIR);
+        other.getLibraryCard().attachHistory(HISTORY_DIR);
+        executor.attachRecommendations(new CoBorrowIndex());
+        for (int round = 0; round < 70; round++) {
+            Date day = today.plusDays(round);
+            borrowAndReturn(round % 2 == 0 ? reader : other, day, book1, round % 3 == 0 ? book3 : book2);
+        }
+        List<CoBorrowIndex.Recommendation> incremental = executor.getAlsoBorrowed(book1.getId(), 5);
+
+        User restartedReader = newUser(1);
+        User restartedOther = newUser(2);
+        restartedReader.getLibraryCard().attachHistory(HISTORY_DIR);
+        restartedOther.getLibraryCard().attachHistory(HISTORY_DIR);
+        User neverBorrowed = newUser(3);
+        neverBorrowed.getLibraryCard().attachHistory(HISTORY_DIR);
+        CoBorrowIndex rebuilt = executor.rebuildRecommendations(Arrays.asList(restartedReader, neverBorrowed, restartedOther));
+
+        assertEquals(140, rebuilt.getObservedBorrows(), "Histories spanning several index blocks are read in full.");
+        assertSameRecommendations(incremental, executor.getAlsoBorrowed(book1.getId(), 5));
+        System.out.println("Finished testRebuildMergesPersistedCardHistories.");
+    }
+
+    @Test
+    void testNeighbourListsArePruned() {
+        System.out.println("Running testNeighbourListsArePruned...");
+        CoBorrowIndex pruned = new CoBorrowIndex(100, 2);
+        for (int book = 1; book <= 10; book++) {
+            pruned.observe(1, book);
+        }
+        pruned.observe(2, 1);
+        pruned.observe(2, 10);
+        assertTrue(pruned.getNeighbourCount(1) <= 4, "Neighbour lists are pruned to bound memory.");
+        assertEquals(10, pruned.recommend(1, 1).get(0).getBookId());
+        System.out.println("Finished testNeighbourListsArePruned.");
+    }
+
+    private void borrowAndReturn(User user, Date day, Book... books) {
+        fixtures.borrowAndReturn(user, day, books);
+    }
+
+    private static void assertSameRecommendations(List<CoBorrowIndex.Recommendation> expected, List<CoBorrowIndex.Recommendation> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertEquals(expected.get(i).getBookId(), actual.get(i).getBookId());
+            assertEquals(expected.get(i).getCoBorrows(), actual.get(i).getCoBorrows());
+        }
+    }
+
+    private User newUser(int id) {
+        return fixtures.newReader(id, "CoBorrow");
+    }
+}
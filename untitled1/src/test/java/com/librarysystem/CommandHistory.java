@@ -0,0 +1,315 @@
+package com.librarysystem;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+public class CommandHistory {
+    private static final int BLOCK_RECORDS = 64;
+    private static final int INDEX_ENTRY_BYTES = 20;
+    private static final FileHandleCache HANDLES = new FileHandleCache(FileHandleCache.DEFAULT_CAPACITY);
+
+    private final File logFile;
+    private final File indexFile;
+    private boolean closed;
+    private long logLength;
+    private long archived;
+    private int blockCount;
+    private int blockMinDay;
+    private int blockMaxDay;
+
+    public CommandHistory(File directory, int cardId) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create command history directory " + directory);
+        }
+        this.logFile = new File(directory, cardId + ".log");
+        this.indexFile = new File(directory, cardId + ".tidx");
+        try (RandomAccessFile log = new RandomAccessFile(logFile, "rw");
+             RandomAccessFile index = new RandomAccessFile(indexFile, "rw")) {
+            load(log, index);
+        }
+    }
+
+    public synchronized void append(Entry entry) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            writeEntry(out, entry);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode command history entry: " + e.getMessage(), e);
+        }
+        if (closed) {
+            throw new IllegalStateException("Could not archive command for card: history is closed.");
+        }
+        try (FileHandleCache.Handle logHandle = HANDLES.acquire(logFile);
+             FileHandleCache.Handle indexHandle = HANDLES.acquire(indexFile)) {
+            RandomAccessFile log = logHandle.file();
+            RandomAccessFile index = indexHandle.file();
+            long offset = logLength;
+            log.seek(offset);
+            log.write(buffer.toByteArray());
+            logLength += buffer.size();
+            int day = (int) entry.getDate().toEpochDay();
+            if (blockCount == 0 || blockCount == BLOCK_RECORDS) {
+                index.seek(index.length());
+                index.writeInt(day);
+                index.writeInt(day);
+                index.writeLong(offset);
+                index.writeInt(1);
+                blockCount = 1;
+                blockMinDay = day;
+                blockMaxDay = day;
+            } else {
+                blockCount++;
+                blockMinDay = Math.min(blockMinDay, day);
+                blockMaxDay = Math.max(blockMaxDay, day);
+                index.seek(index.length() - INDEX_ENTRY_BYTES);
+                index.writeInt(blockMinDay);
+                index.writeInt(blockMaxDay);
+                index.skipBytes(8);
+                index.writeInt(blockCount);
+            }
+            archived++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not archive command for card: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized long size() {
+        return archived;
+    }
+
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        HANDLES.forget(logFile);
+        HANDLES.forget(indexFile);
+    }
+
+    public synchronized void delete() {
+        close();
+        for (File file : new File[] { logFile, indexFile }) {
+            if (file.exists() && !file.delete()) {
+                System.err.println("CommandHistory: Could not delete " + file);
+            }
+        }
+        archived = 0;
+        blockCount = 0;
+    }
+
+    public synchronized List<Entry> find(Date from, Date to, int skip, int limit) {
+        List<Entry> found = new ArrayList<>();
+        if (archived == 0 || limit <= 0) return found;
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        int toSkip = skip;
+        try (RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+             RandomAccessFile log = new RandomAccessFile(logFile, "r")) {
+            byte[] entries = new byte[(int) (index.length() / INDEX_ENTRY_BYTES * INDEX_ENTRY_BYTES)];
+            index.readFully(entries);
+            ByteBuffer blocks = ByteBuffer.wrap(entries);
+            while (blocks.hasRemaining() && found.size() < limit) {
+                int minDay = blocks.getInt();
+                int maxDay = blocks.getInt();
+                long offset = blocks.getLong();
+                int count = blocks.getInt();
+                if (maxDay < fromDay || minDay > toDay) continue;
+                log.seek(offset);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.getChannel()), 8192));
+                for (int i = 0; i < count && found.size() < limit; i++) {
+                    Entry entry = readEntry(in);
+                    long day = entry.getDate().toEpochDay();
+                    if (day < fromDay || day > toDay) continue;
+                    if (toSkip > 0) {
+                        toSkip--;
+                        continue;
+                    }
+                    found.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read command history: " + e.getMessage(), e);
+        }
+        return found;
+    }
+
+    public synchronized Iterator<Entry> iterator() {
+        long blocks = (archived + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        return new Iterator<Entry>() {
+            private long nextBlock;
+            private List<Entry> block = Collections.emptyList();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (position == block.size() && nextBlock < blocks) {
+                    block = readBlock(nextBlock++);
+                    position = 0;
+                }
+                return position < block.size();
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return block.get(position++);
+            }
+        };
+    }
+
+    // Reads one index block through the cached handles, so a cursor holds at most BLOCK_RECORDS entries and no file.
+    private synchronized List<Entry> readBlock(long block) {
+        if (closed) {
+            throw new IllegalStateException("Could not read command history: history is closed.");
+        }
+        try (FileHandleCache.Handle logHandle = HANDLES.acquire(logFile);
+             FileHandleCache.Handle indexHandle = HANDLES.acquire(indexFile)) {
+            RandomAccessFile log = logHandle.file();
+            RandomAccessFile index = indexHandle.file();
+            index.seek(block * INDEX_ENTRY_BYTES + 8);
+            long offset = index.readLong();
+            int count = index.readInt();
+            log.seek(offset);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.getChannel()), 8192));
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(readEntry(in));
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read command history: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized void forEach(Consumer<Entry> action) {
+        if (archived == 0) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile), 1 << 16))) {
+            for (long i = 0; i < archived; i++) {
+                action.accept(readEntry(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read command history: " + e.getMessage(), e);
+        }
+    }
+
+    private void load(RandomAccessFile log, RandomAccessFile index) throws IOException {
+        long blocks = index.length() / INDEX_ENTRY_BYTES;
+        index.setLength(blocks * INDEX_ENTRY_BYTES);
+        if (blocks == 0) {
+            log.setLength(0);
+            return;
+        }
+        index.seek((blocks - 1) * INDEX_ENTRY_BYTES);
+        blockMinDay = index.readInt();
+        blockMaxDay = index.readInt();
+        long offset = index.readLong();
+        int counted = index.readInt();
+        log.seek(offset);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.getChannel()), 8192));
+        long end = offset;
+        blockCount = 0;
+        try {
+            while (blockCount < counted) {
+                end += encodedLength(readEntry(in));
+                blockCount++;
+            }
+        } catch (EOFException e) {
+            // The log write of the last entries never reached disk, so the block only holds what could be read back.
+            if (blockCount == 0) {
+                index.setLength((blocks - 1) * INDEX_ENTRY_BYTES);
+                log.setLength(offset);
+                load(log, index);
+                return;
+            }
+            index.seek((blocks - 1) * INDEX_ENTRY_BYTES + INDEX_ENTRY_BYTES - 4);
+            index.writeInt(blockCount);
+        }
+        log.setLength(end);
+        logLength = end;
+        archived = (blocks - 1) * BLOCK_RECORDS + blockCount;
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        out.writeInt((int) entry.getDate().toEpochDay());
+        out.writeUTF(entry.getKind());
+        out.writeInt(entry.getBookId());
+        out.writeUTF(entry.getBookTitle());
+        out.writeUTF(entry.getDetail());
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        Date date = Date.ofEpochDay(in.readInt());
+        String kind = in.readUTF();
+        int bookId = in.readInt();
+        String title = in.readUTF();
+        String detail = in.readUTF();
+        return new Entry(kind, date, bookId, title, detail);
+    }
+
+    private static int encodedLength(Entry entry) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            writeEntry(out, entry);
+        }
+        return buffer.size();
+    }
+
+    public static Entry outcome(Reservation reservation, Date date) {
+        return new Entry("RESERVATION", date, reservation.getBook().getId(), reservation.getBook().getTitle(),
+                reservation.getStatus());
+    }
+
+    public static Entry describe(IAction action) {
+        if (action instanceof Borrow) {
+            Borrow borrow = (Borrow) action;
+            return new Entry("BORROW", borrow.getBorrowDate(), borrow.getBook().getId(), borrow.getBook().getTitle(),
+                    "due " + borrow.getReturnDate());
+        }
+        if (action instanceof Reservation) {
+            Reservation reservation = (Reservation) action;
+            return new Entry("RESERVATION", reservation.getReservationDate(), reservation.getBook().getId(),
+                    reservation.getBook().getTitle(), reservation.getStatus());
+        }
+        throw new IllegalArgumentException("Unsupported card command: " + action);
+    }
+
+    public static class Entry {
+        private final String kind;
+        private final Date date;
+        private final int bookId;
+        private final String bookTitle;
+        private final String detail;
+
+        Entry(String kind, Date date, int bookId, String bookTitle, String detail) {
+            this.kind = kind;
+            this.date = date;
+            this.bookId = bookId;
+            this.bookTitle = bookTitle;
+            this.detail = detail;
+        }
+
+        public String getKind() { return kind; }
+        public Date getDate() { return date; }
+        public int getBookId() { return bookId; }
+        public String getBookTitle() { return bookTitle; }
+        public String getDetail() { return detail; }
+
+        @Override
+        public String toString() {
+            return date + " " + kind + " '" + bookTitle + "' (ID: " + bookId + ", " + detail + ")";
+        }
+    }
+}
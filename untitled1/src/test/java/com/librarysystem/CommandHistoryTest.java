@@ -0,0 +1,127 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandHistoryTest {
+
+    private static final String TEST_BOOKS_FILE = "command_history_test_books.csv";
+    private static final File HISTORY_DIR = new File("test_card_history");
+    private static final File JOURNAL_DIR = new File("test_card_history_journal");
+
+    private final Date today = new Date(2025, 5, 9);
+    private TestFixtures fixtures;
+    private Book book;
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(TEST_BOOKS_FILE, today, HISTORY_DIR, JOURNAL_DIR);
+        book = fixtures.addBook("History Book", "Author H", "ISBN_H");
+        reader = fixtures.newReader(1, "History");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void testEveryCommandIsArchivedAndTheDequeIsOnlyACache() throws IOException {
+        System.out.println("Running testEveryCommandIsArchivedAndTheDequeIsOnlyACache...");
+        LibraryCard card = reader.getLibraryCard();
+        card.attachHistory(HISTORY_DIR);
+        for (int i = 0; i < 300; i++) {
+            Date day = today.plusDays(i);
+            card.addCommand(new Borrow(book, day, day.addMonths(1), reader));
+        }
+        assertEquals(LibraryCard.RECENT_COMMANDS, card.getCommands().size(), "Only recent commands stay on the heap.");
+        assertEquals(300, card.getCommandCount());
+
+        List<CommandHistory.Entry> newest = card.getHistory(today.plusDays(295), today.plusDays(299), 0, 50);
+        assertEquals(5, newest.size(), "Commands still in the cache are on disk too.");
+        List<CommandHistory.Entry> secondPage = card.getHistory(today, today.plusDays(299), 190, 20);
+        assertEquals(20, secondPage.size());
+        assertEquals(today.plusDays(190), secondPage.get(0).getDate());
+        assertEquals(today.plusDays(209), secondPage.get(19).getDate());
+        assertEquals("BORROW", secondPage.get(0).getKind());
+
+        CommandHistory reopened = new CommandHistory(HISTORY_DIR, card.getCardId());
+        assertEquals(300, reopened.size(), "The newest commands must survive a restart as well.");
+        List<CommandHistory.Entry> early = reopened.find(today.plusDays(10), today.plusDays(12), 0, 10);
+        assertEquals(3, early.size());
+        assertEquals(book.getTitle(), early.get(0).getBookTitle());
+        reopened.close();
+        System.out.println("Finished testEveryCommandIsArchivedAndTheDequeIsOnlyACache.");
+    }
+
+    @Test
+    void testHistoriesDoNotHoldFileHandlesBetweenOperations() throws IOException {
+        System.out.println("Running testHistoriesDoNotHoldFileHandlesBetweenOperations...");
+        File openHandles = new File("/proc/self/fd");
+        int before = openHandles.isDirectory() ? openHandles.list().length : 0;
+        List<User> readers = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            User user = fixtures.newReader(id, "Card");
+            user.getLibraryCard().attachHistory(HISTORY_DIR);
+            user.getLibraryCard().addCommand(new Borrow(book, today, today.addMonths(1), user));
+            readers.add(user);
+        }
+        if (openHandles.isDirectory()) {
+            assertTrue(openHandles.list().length - before <= FileHandleCache.DEFAULT_CAPACITY + 10,
+                    "Only the most recently used history files stay open.");
+        }
+        assertEquals(Arrays.asList("BORROW"), describe(readers.get(0).getLibraryCard()));
+        assertTrue(readers.get(0).getLibraryCard().historyIterator().hasNext(), "An evicted history reopens its files.");
+        for (User user : readers) {
+            user.getLibraryCard().closeHistory();
+        }
+        if (openHandles.isDirectory()) {
+            assertTrue(openHandles.list().length - before < 10, "Closed histories must not keep file descriptors.");
+        }
+        System.out.println("Finished testHistoriesDoNotHoldFileHandlesBetweenOperations.");
+    }
+
+    @Test
+    void testJournalReplayDoesNotArchiveCommandsAgain() throws IOException {
+        System.out.println("Running testJournalReplayDoesNotArchiveCommandsAgain...");
+        reader.getLibraryCard().attachHistory(HISTORY_DIR);
+        User other = fixtures.newReader(2, "Other");
+        Executor executor = fixtures.executor;
+        EventJournal journal = new EventJournal(JOURNAL_DIR, 1000, false);
+        executor.attachJournal(journal);
+        executor.createBorrow(book, other, today, today.plusDays(7));
+        executor.createReservation(book, reader, today);
+        executor.returnBook(book, other, today.plusDays(2));
+        executor.createBorrow(book, reader, today.plusDays(3), today.plusDays(10));
+        journal.close();
+
+        List<String> recorded = describe(reader.getLibraryCard());
+        assertEquals(Arrays.asList("RESERVATION PENDING", "BORROW", "RESERVATION FULFILLED"), recorded,
+                "The reservation's final status is recorded alongside its creation.");
+
+        Storage reloaded = fixtures.reopenStorage();
+        User restarted = fixtures.newReader(1, "History");
+        restarted.getLibraryCard().attachHistory(HISTORY_DIR);
+        EventJournal reopened = new EventJournal(JOURNAL_DIR, 1000, false);
+        new Executor(new LookupArray(reloaded), reloaded).recoverFrom(reopened, Arrays.asList(restarted, other));
+        reopened.close();
+
+        assertEquals(recorded, describe(restarted.getLibraryCard()), "Replay must not append the same commands twice.");
+        assertEquals(3, restarted.getLibraryCard().getCommandCount());
+        System.out.println("Finished testJournalReplayDoesNotArchiveCommandsAgain.");
+    }
+
+    private static List<String> describe(LibraryCard card) {
+        List<String> kinds = new ArrayList<>();
+        card.forEachHistoryEntry(entry -> kinds.add("BORROW".equals(entry.getKind()) ? entry.getKind() : entry.getKind() + " " + entry.getDetail()));
+        return kinds;
+    }
+}
@@ -1,75 +1,197 @@
 package com.librarysystem;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class Date {
-    private LocalDate localDate;
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_CYCLE = 146097;
+    private static final int CACHE_FIRST_DAY = (int) daysFromCivil(2000, 1, 1);
+    private static final int CACHE_SIZE = (int) daysFromCivil(2060, 1, 1) - CACHE_FIRST_DAY;
+    private static final Date[] CACHE = new Date[CACHE_SIZE];
+
+    private final int epochDay;
 
     public Date(int year, int month, int day) {
-        this.localDate = LocalDate.of(year, month, day);
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Invalid month " + month + " in date " + year + "-" + month + "-" + day);
+        }
+        if (day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid day " + day + " in date " + year + "-" + month + "-" + day);
+        }
+        this.epochDay = toIntDay(daysFromCivil(year, month, day));
     }
 
-    private Date(LocalDate localDate) {
-        this.localDate = localDate;
+    private Date(int epochDay) {
+        this.epochDay = epochDay;
     }
 
     public int getDay() {
-        return localDate.getDayOfMonth();
+        return civil(epochDay)[2];
     }
 
     public int getMonth() {
-        return localDate.getMonthValue();
+        return civil(epochDay)[1];
     }
 
     public int getYear() {
-        return localDate.getYear();
+        return civil(epochDay)[0];
     }
 
     public Date addMonths(int months) {
-        LocalDate newLocalDate = this.localDate.plusMonths(months);
-        return new Date(newLocalDate);
+        int[] ymd = civil(epochDay);
+        long totalMonths = ymd[0] * 12L + (ymd[1] - 1) + months;
+        int year = (int) Math.floorDiv(totalMonths, 12);
+        int month = (int) Math.floorMod(totalMonths, 12) + 1;
+        int day = Math.min(ymd[2], lengthOfMonth(year, month));
+        return ofEpochDay(daysFromCivil(year, month, day));
     }
 
     @Override
     public String toString() {
-        return localDate.format(FORMATTER);
+        int[] ymd = civil(epochDay);
+        if (ymd[0] < 0 || ymd[0] > 9999) {
+            return LocalDate.ofEpochDay(epochDay).toString();
+        }
+        char[] text = new char[10];
+        writeDigits(text, 0, ymd[0], 4);
+        text[4] = '-';
+        writeDigits(text, 5, ymd[1], 2);
+        text[7] = '-';
+        writeDigits(text, 8, ymd[2], 2);
+        return new String(text);
     }
 
     public static Date fromString(String str) {
-        return new Date(LocalDate.parse(str, FORMATTER));
+        if (str == null || str.length() != 10 || str.charAt(4) != '-' || str.charAt(7) != '-') {
+            throw new IllegalArgumentException("Date '" + str + "' is not in yyyy-MM-dd format.");
+        }
+        int year = readDigits(str, 0, 4);
+        int month = readDigits(str, 5, 2);
+        int day = readDigits(str, 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new IllegalArgumentException("Date '" + str + "' does not exist.");
+        }
+        return ofEpochDay(daysFromCivil(year, month, day));
     }
 
     public static Date getCurrentDate() {
-        return new Date(LocalDate.now());
+        return ofEpochDay(LocalDate.now().toEpochDay());
     }
 
     public boolean isAfter(Date other) {
-        if (other == null || other.localDate == null) return false;
-        return this.localDate.isAfter(other.localDate);
+        if (other == null) return false;
+        return this.epochDay > other.epochDay;
     }
 
     public boolean isBefore(Date other) {
-        if (other == null || other.localDate == null) return false;
-        return this.localDate.isBefore(other.localDate);
+        if (other == null) return false;
+        return this.epochDay < other.epochDay;
     }
 
     public boolean isEqual(Date other) {
-        if (other == null || other.localDate == null) return false;
-        return this.localDate.isEqual(other.localDate);
+        if (other == null) return false;
+        return this.epochDay == other.epochDay;
     }
 
     public boolean isSameDayOrAfter(Date other) {
-        if (other == null || other.localDate == null) return false;
-        return !this.localDate.isBefore(other.localDate);
+        if (other == null) return false;
+        return this.epochDay >= other.epochDay;
     }
 
     public Date plusDays(long days) {
-        return new Date(this.localDate.plusDays(days));
+        return days == 0 ? this : ofEpochDay(epochDay + days);
     }
 
     public Date minusDays(long days) {
-        return new Date(this.localDate.minusDays(days));
+        return days == 0 ? this : ofEpochDay(epochDay - days);
+    }
+
+    public long toEpochDay() {
+        return epochDay;
+    }
+
+    public static Date ofEpochDay(long epochDay) {
+        long index = epochDay - CACHE_FIRST_DAY;
+        if (index >= 0 && index < CACHE_SIZE) {
+            Date cached = CACHE[(int) index];
+            if (cached == null) {
+                cached = new Date((int) epochDay);
+                CACHE[(int) index] = cached;
+            }
+            return cached;
+        }
+        return new Date(toIntDay(epochDay));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Date && ((Date) other).epochDay == epochDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return epochDay;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int[] civil(int epochDay) {
+        long z = (long) epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, DAYS_PER_CYCLE);
+        long dayOfEra = z - era * DAYS_PER_CYCLE;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        return new int[]{year, month, day};
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int toIntDay(long epochDay) {
+        if (epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Date is out of range: epoch day " + epochDay);
+        }
+        return (int) epochDay;
+    }
+
+    private static int readDigits(String text, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Date '" + text + "' is not in yyyy-MM-dd format.");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] text, int offset, int value, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
@@ -84,4 +84,46 @@ class DateTest {
         assertNotNull(currentDate);
         assertTrue(currentDate.getYear() >= 2023);
     }
+
+    @Test
+    void testEpochDayMatchesCalendarAcrossCenturies() {
+        for (long day = java.time.LocalDate.of(1600, 1, 1).toEpochDay(); day <= java.time.LocalDate.of(2400, 12, 31).toEpochDay(); day += 13) {
+            java.time.LocalDate expected = java.time.LocalDate.ofEpochDay(day);
+            Date date = Date.ofEpochDay(day);
+            assertEquals(expected.getYear(), date.getYear());
+            assertEquals(expected.getMonthValue(), date.getMonth());
+            assertEquals(expected.getDayOfMonth(), date.getDay());
+            assertEquals(expected.toString(), date.toString());
+            assertEquals(day, Date.fromString(expected.toString()).toEpochDay());
+            assertEquals(day, new Date(expected.getYear(), expected.getMonthValue(), expected.getDayOfMonth()).toEpochDay());
+        }
+    }
+
+    @Test
+    void testAddMonthsClampsToMonthEnd() {
+        Date endOfJanuary = new Date(2024, 1, 31);
+        assertEquals("2024-02-29", endOfJanuary.addMonths(1).toString());
+        assertEquals("2023-02-28", endOfJanuary.addMonths(-11).toString());
+        assertEquals("2023-12-31", endOfJanuary.addMonths(-1).toString());
+    }
+
+    @Test
+    void testInvalidDatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Date(2023, 2, 29));
+        assertThrows(IllegalArgumentException.class, () -> new Date(2023, 13, 1));
+        assertThrows(IllegalArgumentException.class, () -> Date.fromString("2023-02-30"));
+        assertThrows(IllegalArgumentException.class, () -> Date.fromString("2023/02/10"));
+        assertThrows(IllegalArgumentException.class, () -> Date.fromString("23-02-10"));
+        assertThrows(IllegalArgumentException.class, () -> Date.fromString("2023-0a-10"));
+    }
+
+    @Test
+    void testCommonDatesAreCached() {
+        Date date = new Date(2025, 5, 10);
+        assertSame(date.plusDays(3), date.plusDays(3), "Dates in the cached window should be shared instances.");
+        assertSame(Date.fromString("2025-05-13"), date.plusDays(3));
+        assertEquals(date, new Date(2025, 5, 10));
+        assertEquals(date.hashCode(), new Date(2025, 5, 10).hashCode());
+        assertTrue(Date.ofEpochDay(date.toEpochDay() + 100_000).isAfter(date), "Dates outside the cache still work.");
+    }
 }
\ No newline at end of file
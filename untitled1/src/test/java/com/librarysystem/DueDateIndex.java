@@ -0,0 +1,79 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DueDateIndex {
+    private final ConcurrentSkipListMap<Long, Map<Integer, Borrow>> borrowsByDueDay;
+    private final AtomicInteger size;
+
+    public DueDateIndex() {
+        this.borrowsByDueDay = new ConcurrentSkipListMap<>();
+        this.size = new AtomicInteger();
+    }
+
+    public void add(Borrow borrow) {
+        long dueDay = borrow.getReturnDate().toEpochDay();
+        int bookId = borrow.getBook().getId();
+        while (true) {
+            Map<Integer, Borrow> bucket = borrowsByDueDay.computeIfAbsent(dueDay, k -> new ConcurrentHashMap<>());
+            Borrow previous = bucket.put(bookId, borrow);
+            if (borrowsByDueDay.get(dueDay) == bucket) {
+                if (previous == null) size.incrementAndGet();
+                return;
+            }
+            // The bucket was retired by a concurrent drain after we looked it up; move the entry to a live one.
+            bucket.remove(bookId, borrow);
+        }
+    }
+
+    public boolean remove(Borrow borrow) {
+        long dueDay = borrow.getReturnDate().toEpochDay();
+        Map<Integer, Borrow> bucket = borrowsByDueDay.get(dueDay);
+        if (bucket == null || !bucket.remove(borrow.getBook().getId(), borrow)) return false;
+        size.decrementAndGet();
+        retireIfEmpty(dueDay, bucket);
+        return true;
+    }
+
+    public List<Borrow> pollDueBetween(Date fromInclusive, Date toInclusive) {
+        return drain(borrowsByDueDay.subMap(fromInclusive.toEpochDay(), true, toInclusive.toEpochDay(), true));
+    }
+
+    public List<Borrow> pollDueBefore(Date exclusive) {
+        return drain(borrowsByDueDay.headMap(exclusive.toEpochDay(), false));
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public void clear() {
+        borrowsByDueDay.clear();
+        size.set(0);
+    }
+
+    private List<Borrow> drain(ConcurrentNavigableMap<Long, Map<Integer, Borrow>> window) {
+        List<Borrow> due = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, Borrow>> entry : window.entrySet()) {
+            Map<Integer, Borrow> bucket = entry.getValue();
+            for (Map.Entry<Integer, Borrow> loan : bucket.entrySet()) {
+                if (bucket.remove(loan.getKey(), loan.getValue())) {
+                    due.add(loan.getValue());
+                    size.decrementAndGet();
+                }
+            }
+            retireIfEmpty(entry.getKey(), bucket);
+        }
+        return due;
+    }
+
+    private void retireIfEmpty(long dueDay, Map<Integer, Borrow> bucket) {
+        borrowsByDueDay.computeIfPresent(dueDay, (day, current) -> current == bucket && current.isEmpty() ? null : current);
+    }
+}
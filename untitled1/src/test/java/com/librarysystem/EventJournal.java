@@ -0,0 +1,216 @@
+package com.librarysystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class EventJournal implements AutoCloseable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+    private static final int JOURNAL_MAGIC = 0x4C4A524E;
+    private static final int SNAPSHOT_MAGIC = 0x4C534E50;
+    private static final int JOURNAL_HEADER_SIZE = 12;
+
+    private final File journalFile;
+    private final File snapshotFile;
+    private final int snapshotInterval;
+    private final boolean syncOnAppend;
+    private FileOutputStream journalStream;
+    private DataOutputStream journalOut;
+    private long generation;
+    private long eventsSinceSnapshot;
+
+    public EventJournal(File directory) throws IOException {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL, true);
+    }
+
+    public EventJournal(File directory, int snapshotInterval, boolean syncOnAppend) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory " + directory);
+        }
+        this.journalFile = new File(directory, "journal.log");
+        this.snapshotFile = new File(directory, "snapshot.bin");
+        this.snapshotInterval = snapshotInterval;
+        this.syncOnAppend = syncOnAppend;
+        this.generation = readSnapshotGeneration();
+        prepareJournal();
+    }
+
+    public synchronized void append(LibraryEvent event) {
+        appendAll(java.util.Collections.singletonList(event));
+    }
+
+    public synchronized void appendAll(List<LibraryEvent> events) {
+        if (events.isEmpty()) return;
+        if (journalOut == null) {
+            throw new IllegalStateException("Could not append " + events.size() + " event(s): journal is closed.");
+        }
+        try {
+            for (LibraryEvent event : events) {
+                event.writeTo(journalOut);
+            }
+            journalOut.flush();
+            if (syncOnAppend) {
+                journalStream.getChannel().force(false);
+            }
+            eventsSinceSnapshot += events.size();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not append " + events.size() + " event(s) to journal: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized boolean needsSnapshot() {
+        return eventsSinceSnapshot >= snapshotInterval;
+    }
+
+    public synchronized void writeSnapshot(List<LibraryEvent> state) {
+        File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        long nextGeneration = generation + 1;
+        try (FileOutputStream fos = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(nextGeneration);
+            out.writeInt(state.size());
+            for (LibraryEvent event : state) {
+                event.writeTo(out);
+            }
+            out.flush();
+            fos.getChannel().force(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write journal snapshot: " + e.getMessage(), e);
+        }
+        try {
+            Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            generation = nextGeneration;
+            closeJournal();
+            startJournal();
+            eventsSinceSnapshot = 0;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not install journal snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    public synchronized RecoveryReport recover(Consumer<LibraryEvent> applier) {
+        long start = System.nanoTime();
+        long snapshotEvents = 0;
+        long journalEvents = 0;
+        try {
+            if (snapshotFile.exists()) {
+                try (DataInputStream in = open(snapshotFile)) {
+                    in.readInt();
+                    in.readLong();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        applier.accept(LibraryEvent.readFrom(in));
+                        snapshotEvents++;
+                    }
+                }
+            }
+            try (DataInputStream in = open(journalFile)) {
+                in.skipBytes(JOURNAL_HEADER_SIZE);
+                long records = (journalFile.length() - JOURNAL_HEADER_SIZE) / LibraryEvent.RECORD_SIZE;
+                for (long i = 0; i < records; i++) {
+                    applier.accept(LibraryEvent.readFrom(in));
+                    journalEvents++;
+                }
+            }
+        } catch (EOFException e) {
+            System.err.println("EventJournal: Truncated record found during recovery, stopping replay.");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not recover from journal: " + e.getMessage(), e);
+        }
+        eventsSinceSnapshot = journalEvents;
+        return new RecoveryReport(snapshotEvents, journalEvents, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            closeJournal();
+        } catch (IOException e) {
+            System.err.println("EventJournal: Error closing journal: " + e.getMessage());
+        }
+    }
+
+    private long readSnapshotGeneration() throws IOException {
+        if (!snapshotFile.exists()) return 0;
+        try (DataInputStream in = open(snapshotFile)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Snapshot file " + snapshotFile + " is not a journal snapshot.");
+            }
+            return in.readLong();
+        }
+    }
+
+    private void prepareJournal() throws IOException {
+        if (journalFile.exists() && journalFile.length() >= JOURNAL_HEADER_SIZE) {
+            try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+                int magic = raf.readInt();
+                long journalGeneration = raf.readLong();
+                if (magic == JOURNAL_MAGIC && journalGeneration == generation) {
+                    long complete = (raf.length() - JOURNAL_HEADER_SIZE) / LibraryEvent.RECORD_SIZE;
+                    raf.setLength(JOURNAL_HEADER_SIZE + complete * LibraryEvent.RECORD_SIZE);
+                    journalStream = new FileOutputStream(journalFile, true);
+                    journalOut = new DataOutputStream(new BufferedOutputStream(journalStream));
+                    return;
+                }
+            }
+        }
+        startJournal();
+    }
+
+    private void startJournal() throws IOException {
+        journalStream = new FileOutputStream(journalFile, false);
+        journalOut = new DataOutputStream(new BufferedOutputStream(journalStream));
+        journalOut.writeInt(JOURNAL_MAGIC);
+        journalOut.writeLong(generation);
+        journalOut.flush();
+        journalStream.getChannel().force(true);
+    }
+
+    private void closeJournal() throws IOException {
+        if (journalOut != null) {
+            journalOut.close();
+            journalOut = null;
+            journalStream = null;
+        }
+    }
+
+    private static DataInputStream open(File file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+    }
+
+    public static class RecoveryReport {
+        private final long snapshotEvents;
+        private final long journalEvents;
+        private final long elapsedMillis;
+
+        RecoveryReport(long snapshotEvents, long journalEvents, long elapsedMillis) {
+            this.snapshotEvents = snapshotEvents;
+            this.journalEvents = journalEvents;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getSnapshotEvents() { return snapshotEvents; }
+        public long getJournalEvents() { return journalEvents; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return "Recovered " + snapshotEvents + " snapshot events and " + journalEvents
+                    + " journal events in " + elapsedMillis + " ms";
+        }
+    }
+}
@@ -2,30 +2,74 @@ package com.librarysystem;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 public class Executor {
+    public static final int DEFAULT_PICKUP_WINDOW_DAYS = 7;
+    private static final int LOCK_STRIPES = 64;
+
     private IPresent present;
     private IReadWrite readWrite;
-    private List<Borrow> activeBorrows;
+    private Map<Integer, Borrow> activeBorrowsByBook;
+    private Map<Integer, Map<Integer, Borrow>> activeBorrowsByUser;
+    private DueDateIndex unremindedBorrows;
+    private DueDateIndex notYetOverdueBorrows;
     private List<Reservation> activeReservations;
+    private Map<Integer, ReservationQueue> reservationQueues;
+    private TimerWheel<Reservation> pickupExpiryWheel;
+    private volatile int pickupWindowDays;
+    private volatile EventJournal journal;
+    private volatile NotificationDispatcher dispatcher;
+    private volatile NotificationDigest digest;
+    private volatile PopularityTracker popularity;
+    private volatile CoBorrowIndex coBorrows;
+    private volatile FinesLedger fines;
+    private volatile LoanHistory loanHistory;
+    private final Object[] userLocks;
+    private final Object[] bookLocks;
+    private final Object pickupExpiryLock;
+    private final ReentrantReadWriteLock journalLock;
 
     public Executor(IPresent present, IReadWrite readWrite) {
         this.present = present;
         this.readWrite = readWrite;
-        this.activeBorrows = new ArrayList<>();
-        this.activeReservations = new ArrayList<>();
+        this.activeBorrowsByBook = new ConcurrentHashMap<>();
+        this.activeBorrowsByUser = new ConcurrentHashMap<>();
+        this.unremindedBorrows = new DueDateIndex();
+        this.notYetOverdueBorrows = new DueDateIndex();
+        this.activeReservations = Collections.synchronizedList(new ArrayList<>());
+        this.reservationQueues = new ConcurrentHashMap<>();
+        this.pickupWindowDays = DEFAULT_PICKUP_WINDOW_DAYS;
+        this.userLocks = new Object[LOCK_STRIPES];
+        this.bookLocks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new Object();
+            bookLocks[i] = new Object();
+        }
+        this.pickupExpiryLock = new Object();
+        this.journalLock = new ReentrantReadWriteLock();
     }
 
     public int countActiveBorrowsForUser(User user) {
         if (user == null) return 0;
-        int count = 0;
-        for (Borrow borrow : this.activeBorrows) {
-            if (borrow.getUser().getId() == user.getId()) {
-                count++;
-            }
-        }
-        return count;
+        Map<Integer, Borrow> userBorrows = activeBorrowsByUser.get(user.getId());
+        return userBorrows == null ? 0 : userBorrows.size();
+    }
+
+    public List<Borrow> getActiveUserBorrows(User user) {
+        if (user == null) return new ArrayList<>();
+        Map<Integer, Borrow> userBorrows = activeBorrowsByUser.get(user.getId());
+        return userBorrows == null ? new ArrayList<>() : new ArrayList<>(userBorrows.values());
+    }
+
+    public Borrow findActiveBorrow(int bookId) {
+        return activeBorrowsByBook.get(bookId);
     }
 
     public IAction createBorrow(com.librarysystem.Book book, User user, com.librarysystem.Date borrowDate, com.librarysystem.Date returnDate) {
@@ -43,39 +87,75 @@ public class Executor {
             throw new IllegalStateException("User's library card is invalid or missing for the borrow date.");
         }
 
-        int currentUserBorrows = countActiveBorrowsForUser(user);
-        if (currentUserBorrows >= user.getBookLimit()) {
-            throw new IllegalStateException("User has reached the book borrowing limit (" + user.getBookLimit() + "). Currently has " + currentUserBorrows + " active borrows.");
-        }
+        boolean journaled = enterJournal();
+        try {
+            Borrow borrowAction;
+            synchronized (userLock(user.getId())) {
+                int currentUserBorrows = countActiveBorrowsForUser(user);
+                if (currentUserBorrows >= user.getBookLimit()) {
+                    throw new IllegalStateException("User has reached the book borrowing limit (" + user.getBookLimit() + "). Currently has " + currentUserBorrows + " active borrows.");
+                }
+                UnitOfWork work = new UnitOfWork(readWrite, present, journal);
+                if (!work.claimAvailability(storedBook, true, false)) {
+                    throw new IllegalStateException("Book '" + storedBook.getTitle() + "' is not available for borrowing.");
+                }
+                borrowAction = stageBorrow(work, storedBook, user, borrowDate, returnDate);
+                work.commit();
+            }
+            if (book.getId() == storedBook.getId() && book != storedBook) {
+                book.setAvailable(false);
+            }
 
-        Borrow borrowAction = new Borrow(storedBook, borrowDate, returnDate, user);
+            System.out.println("Executor: Book '" + storedBook.getTitle() + "' borrowed by " + user.getName());
 
-        readWrite.updateBookAvailability(storedBook.getId(), false);
-        storedBook.setAvailable(false);
-        if (book.getId() == storedBook.getId() && book != storedBook) {
-            book.setAvailable(false);
+            fulfillReservation(storedBook, user, borrowDate);
+            return borrowAction;
+        } finally {
+            exitJournal(journaled);
         }
+    }
 
-        this.present.registerBook(storedBook);
-
-        user.getLibraryCard().addCommand(borrowAction);
-        activeBorrows.add(borrowAction);
-        System.out.println("Executor: Book '" + storedBook.getTitle() + "' borrowed by " + user.getName());
+    public BatchResult<Book> createBorrows(List<com.librarysystem.Book> books, User user, com.librarysystem.Date borrowDate, com.librarysystem.Date returnDate) {
+        if (books == null) throw new IllegalArgumentException("Books cannot be null for batch borrowing.");
+        if (user == null) throw new IllegalArgumentException("User cannot be null for borrowing.");
+        if (user.getLibraryCard() == null || !user.getLibraryCard().isValid(borrowDate)) {
+            throw new IllegalStateException("User's library card is invalid or missing for the borrow date.");
+        }
 
-        Reservation userReservationForThisBook = activeReservations.stream()
-                .filter(res -> res.getBook().getId() == storedBook.getId() &&
-                        res.getUser().getId() == user.getId() &&
-                        ("PENDING".equals(res.getStatus()) || "READY_FOR_PICKUP".equals(res.getStatus())))
-                .findFirst()
-                .orElse(null);
+        BatchResult<Book> result = new BatchResult<>();
+        List<Book> borrowed = new ArrayList<>();
+        boolean journaled = enterJournal();
+        try {
+            synchronized (userLock(user.getId())) {
+                int activeBorrows = countActiveBorrowsForUser(user);
+                UnitOfWork work = new UnitOfWork(readWrite, present, journal);
+                for (int index = 0; index < books.size(); index++) {
+                    Book book = books.get(index);
+                    Book storedBook = book == null ? null : readWrite.findBookById(book.getId());
+                    if (storedBook == null) {
+                        result.addFailure(index, book, "Book does not exist in the system.");
+                    } else if (activeBorrows >= user.getBookLimit()) {
+                        result.addFailure(index, book, "User has reached the book borrowing limit (" + user.getBookLimit() + ").");
+                    } else if (!work.claimAvailability(storedBook, true, false)) {
+                        result.addFailure(index, book, "Book '" + storedBook.getTitle() + "' is not available for borrowing.");
+                    } else {
+                        stageBorrow(work, storedBook, user, borrowDate, returnDate);
+                        activeBorrows++;
+                        borrowed.add(storedBook);
+                        result.addSuccess(book);
+                    }
+                }
+                work.commit();
+            }
+            System.out.println("Executor: Batch checkout for " + user.getName() + ": " + result + ".");
 
-        if (userReservationForThisBook != null) {
-            userReservationForThisBook.setStatus("FULFILLED");
-            user.recieveMessage("Your reservation for '" + storedBook.getTitle() + "' has been fulfilled by borrowing the book.");
-            System.out.println("Executor: Reservation for '" + storedBook.getTitle() + "' by " + user.getName() + " marked as FULFILLED.");
+            for (Book storedBook : borrowed) {
+                fulfillReservation(storedBook, user, borrowDate);
+            }
+            return result;
+        } finally {
+            exitJournal(journaled);
         }
-
-        return borrowAction;
     }
 
     public IAction createReservation(com.librarysystem.Book book, User user, com.librarysystem.Date reservationDate) {
@@ -91,26 +171,32 @@ public class Executor {
             throw new IllegalStateException("User's library card is invalid or missing for the reservation date.");
         }
 
-        boolean alreadyBorrowedByUser = activeBorrows.stream()
-                .anyMatch(b -> b.getBook().getId() == storedBook.getId() && b.getUser().getId() == user.getId());
-        if (alreadyBorrowedByUser) {
-            throw new IllegalStateException("User '" + user.getName() + "' has already borrowed this book ('" + storedBook.getTitle() + "'). Cannot reserve.");
-        }
+        boolean journaled = enterJournal();
+        try {
+            Reservation reservationAction;
+            synchronized (bookLock(storedBook.getId())) {
+                Borrow currentBorrow = activeBorrowsByBook.get(storedBook.getId());
+                if (currentBorrow != null && currentBorrow.getUser().getId() == user.getId()) {
+                    throw new IllegalStateException("User '" + user.getName() + "' has already borrowed this book ('" + storedBook.getTitle() + "'). Cannot reserve.");
+                }
 
-        boolean existingActiveReservation = activeReservations.stream()
-                .anyMatch(r -> r.getBook().getId() == storedBook.getId() &&
-                        r.getUser().getId() == user.getId() &&
-                        ("PENDING".equals(r.getStatus()) || "READY_FOR_PICKUP".equals(r.getStatus())));
-        if (existingActiveReservation) {
-            throw new IllegalStateException("User '" + user.getName() + "' already has an active reservation for this book ('" + storedBook.getTitle() + "').");
-        }
+                ReservationQueue queue = reservationQueues.computeIfAbsent(storedBook.getId(), k -> new ReservationQueue());
+                if (queue.findActive(user.getId()) != null) {
+                    throw new IllegalStateException("User '" + user.getName() + "' already has an active reservation for this book ('" + storedBook.getTitle() + "').");
+                }
 
-        Reservation reservationAction = new Reservation(storedBook, reservationDate, "PENDING", user);
-        user.getLibraryCard().addCommand(reservationAction);
-        activeReservations.add(reservationAction);
-        System.out.println("Executor: Book '" + storedBook.getTitle() + "' reserved by " + user.getName());
-        user.recieveMessage("Book '" + storedBook.getTitle() + "' has been reserved. Reservation date: " + reservationDate);
-        return reservationAction;
+                reservationAction = new Reservation(storedBook, reservationDate, ReservationStatus.PENDING, user);
+                user.getLibraryCard().addCommand(reservationAction);
+                activeReservations.add(reservationAction);
+                queue.enqueue(reservationAction);
+                record(LibraryEvent.reserve(reservationAction));
+            }
+            System.out.println("Executor: Book '" + storedBook.getTitle() + "' reserved by " + user.getName());
+            sendNotification(user, "Book '" + storedBook.getTitle() + "' has been reserved. Reservation date: " + reservationDate);
+            return reservationAction;
+        } finally {
+            exitJournal(journaled);
+        }
     }
 
     public void addBook(com.librarysystem.Book book) {
@@ -118,7 +204,15 @@ public class Executor {
         present.registerBook(book);
     }
 
+    public BookImporter.ImportReport importBooks(java.io.Reader source) throws java.io.IOException {
+        return new BookImporter(readWrite, present).importFrom(source);
+    }
+
     public void returnBook(com.librarysystem.Book book, User user) {
+        returnBook(book, user, Date.getCurrentDate());
+    }
+
+    public void returnBook(com.librarysystem.Book book, User user, com.librarysystem.Date returnDate) {
         if (book == null) throw new IllegalArgumentException("Book to return cannot be null.");
         if (user == null) throw new IllegalArgumentException("User returning book cannot be null.");
 
@@ -127,41 +221,587 @@ public class Executor {
             throw new IllegalStateException("Book '" + book.getTitle() + "' (ID: " + book.getId() + ") not found in system for return.");
         }
 
-        Borrow toRemove = null;
-        for (Borrow borrow : activeBorrows) {
-            if (borrow.getBook().getId() == storedBook.getId() && borrow.getUser().getId() == user.getId()) {
-                toRemove = borrow;
-                break;
+        boolean journaled = enterJournal();
+        try {
+            synchronized (userLock(user.getId())) {
+                Borrow toRemove = activeBorrowsByBook.get(storedBook.getId());
+                if (toRemove == null || toRemove.getUser().getId() != user.getId()) {
+                    throw new IllegalStateException("Book '" + storedBook.getTitle() + "' was not recorded as borrowed by " + user.getName());
+                }
+                UnitOfWork work = new UnitOfWork(readWrite, present, journal);
+                stageReturn(work, toRemove, returnDate);
+                work.commit();
+            }
+            if (book.getId() == storedBook.getId() && book != storedBook) {
+                book.setAvailable(true);
+            }
+
+            System.out.println("Executor: Book '" + storedBook.getTitle() + "' returned by " + user.getName());
+
+            if (reservationQueues.containsKey(storedBook.getId())) {
+                synchronized (bookLock(storedBook.getId())) {
+                    promoteNextReservation(storedBook, returnDate);
+                }
             }
+        } finally {
+            exitJournal(journaled);
         }
+    }
 
-        if (toRemove != null) {
-            activeBorrows.remove(toRemove);
+    public BatchResult<Book> returnBooks(List<com.librarysystem.Book> books, User user, com.librarysystem.Date returnDate) {
+        if (books == null) throw new IllegalArgumentException("Books to return cannot be null.");
+        if (user == null) throw new IllegalArgumentException("User returning book cannot be null.");
 
-            readWrite.updateBookAvailability(storedBook.getId(), true);
-            storedBook.setAvailable(true);
-            if (book.getId() == storedBook.getId() && book != storedBook) {
-                book.setAvailable(true);
+        BatchResult<Book> result = new BatchResult<>();
+        List<Book> returned = new ArrayList<>();
+        boolean journaled = enterJournal();
+        try {
+            synchronized (userLock(user.getId())) {
+                UnitOfWork work = new UnitOfWork(readWrite, present, journal);
+                for (int index = 0; index < books.size(); index++) {
+                    Book book = books.get(index);
+                    Book storedBook = book == null ? null : readWrite.findBookById(book.getId());
+                    Borrow toRemove = storedBook == null ? null : activeBorrowsByBook.get(storedBook.getId());
+                    if (storedBook == null) {
+                        result.addFailure(index, book, "Book not found in system for return.");
+                    } else if (toRemove == null || toRemove.getUser().getId() != user.getId()) {
+                        result.addFailure(index, book, "Book '" + storedBook.getTitle() + "' was not recorded as borrowed by " + user.getName());
+                    } else {
+                        stageReturn(work, toRemove, returnDate);
+                        returned.add(storedBook);
+                        result.addSuccess(book);
+                    }
+                }
+                work.commit();
             }
+            System.out.println("Executor: Batch return for " + user.getName() + ": " + result + ".");
 
-            present.registerBook(storedBook);
+            for (Book storedBook : returned) {
+                if (reservationQueues.containsKey(storedBook.getId())) {
+                    synchronized (bookLock(storedBook.getId())) {
+                        promoteNextReservation(storedBook, returnDate);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            exitJournal(journaled);
+        }
+    }
 
-            System.out.println("Executor: Book '" + storedBook.getTitle() + "' returned by " + user.getName());
+    public List<Reservation> processPickupExpirations(Date currentDate) {
+        List<Reservation> expired = new ArrayList<>();
+        if (currentDate == null) return expired;
+        List<Reservation> due;
+        synchronized (pickupExpiryLock) {
+            if (pickupExpiryWheel == null) return expired;
+            due = pickupExpiryWheel.advanceTo(currentDate.toEpochDay());
+        }
+
+        boolean journaled = enterJournal();
+        try {
+            for (Reservation reservation : due) {
+                Book storedBook = reservation.getBook();
+                synchronized (bookLock(storedBook.getId())) {
+                    if (reservation.getState() != ReservationStatus.READY_FOR_PICKUP) {
+                        continue;
+                    }
+                    if (reservation.getPickupDeadline().isAfter(currentDate)) {
+                        schedulePickupExpiry(reservation, currentDate);
+                        continue;
+                    }
+                    reservation.transitionTo(ReservationStatus.EXPIRED);
+                    ReservationQueue queue = reservationQueues.get(storedBook.getId());
+                    if (queue != null) {
+                        queue.release(reservation);
+                    }
+                    record(LibraryEvent.statusChange(reservation));
+                    reservation.getUser().getLibraryCard().recordOutcome(reservation, currentDate);
+                    expired.add(reservation);
+                    sendNotification(reservation.getUser(), "Your hold on '" + storedBook.getTitle() + "' expired on "
+                            + reservation.getPickupDeadline() + " and has been released.");
+                    System.out.println("Executor: Pickup hold for '" + storedBook.getTitle() + "' by " + reservation.getUser().getName() + " expired.");
+
+                    if (storedBook.isAvailable()) {
+                        promoteNextReservation(storedBook, currentDate);
+                    }
+                }
+            }
+        } finally {
+            exitJournal(journaled);
+        }
+        return expired;
+    }
+
+    public void attachDispatcher(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
 
-            Reservation nextReservation = activeReservations.stream()
-                    .filter(res -> res.getBook().getId() == storedBook.getId() && "PENDING".equals(res.getStatus()))
-                    .findFirst().orElse(null);
+    public void attachPopularityTracker(PopularityTracker popularity) {
+        this.popularity = popularity;
+    }
 
-            if (nextReservation != null) {
-                nextReservation.setStatus("READY_FOR_PICKUP");
-                if (nextReservation.getUser() != null) {
-                    nextReservation.getUser().recieveMessage(
-                            "Book '" + storedBook.getTitle() + "' you reserved is now available for pickup!"
-                    );
+    public PopularityTracker rebuildPopularity(Collection<User> users, Date currentDate) {
+        PopularityTracker rebuilt = new PopularityTracker(currentDate);
+        Date oldest = currentDate.minusDays(PopularityTracker.Window.YEAR.getDays() - 1);
+        for (User user : users) {
+            if (user.getLibraryCard() == null) continue;
+            for (CommandHistory.Entry entry : user.getLibraryCard().getHistory(oldest, currentDate, 0, Integer.MAX_VALUE)) {
+                if ("BORROW".equals(entry.getKind())) {
+                    rebuilt.recordBorrow(entry.getBookId(), entry.getDate());
                 }
             }
+        }
+        this.popularity = rebuilt;
+        return rebuilt;
+    }
+
+    public List<PopularityTracker.Ranking> getMostBorrowed(PopularityTracker.Window window, int k, Date asOf) {
+        PopularityTracker current = popularity;
+        if (current == null) return new ArrayList<>();
+        if (asOf != null) current.advanceTo(asOf);
+        return current.topK(window, k);
+    }
+
+    public void attachRecommendations(CoBorrowIndex coBorrows) {
+        this.coBorrows = coBorrows;
+    }
+
+    public List<CoBorrowIndex.Recommendation> getAlsoBorrowed(int bookId, int limit) {
+        CoBorrowIndex current = coBorrows;
+        return current == null ? new ArrayList<>() : current.recommend(bookId, limit);
+    }
+
+    public CoBorrowIndex rebuildRecommendations(Collection<User> users) {
+        // Each card's history is already in borrow order, so merge the cards instead of collecting and sorting every borrow.
+        java.util.PriorityQueue<BorrowCursor> cursors = new java.util.PriorityQueue<>();
+        int order = 0;
+        for (User user : users) {
+            if (user.getLibraryCard() == null) continue;
+            BorrowCursor cursor = new BorrowCursor(user.getId(), order++, user.getLibraryCard().historyIterator());
+            if (cursor.advance()) cursors.add(cursor);
+        }
+        CoBorrowIndex rebuilt = new CoBorrowIndex();
+        rebuilt.rebuild(() -> new java.util.Iterator<LibraryEvent>() {
+            @Override
+            public boolean hasNext() {
+                return !cursors.isEmpty();
+            }
+
+            @Override
+            public LibraryEvent next() {
+                BorrowCursor cursor = cursors.poll();
+                if (cursor == null) throw new java.util.NoSuchElementException();
+                LibraryEvent event = LibraryEvent.of(LibraryEvent.Type.BORROW, cursor.current.getBookId(), cursor.userId,
+                        (int) cursor.current.getDate().toEpochDay(), LibraryEvent.NO_DAY, null);
+                if (cursor.advance()) cursors.add(cursor);
+                return event;
+            }
+        });
+        this.coBorrows = rebuilt;
+        return rebuilt;
+    }
+
+    private static class BorrowCursor implements Comparable<BorrowCursor> {
+        private final int userId;
+        private final int order;
+        private final java.util.Iterator<CommandHistory.Entry> entries;
+        private CommandHistory.Entry current;
+
+        BorrowCursor(int userId, int order, java.util.Iterator<CommandHistory.Entry> entries) {
+            this.userId = userId;
+            this.order = order;
+            this.entries = entries;
+        }
+
+        boolean advance() {
+            while (entries.hasNext()) {
+                CommandHistory.Entry entry = entries.next();
+                if ("BORROW".equals(entry.getKind())) {
+                    current = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(BorrowCursor other) {
+            int byDate = Long.compare(current.getDate().toEpochDay(), other.current.getDate().toEpochDay());
+            return byDate != 0 ? byDate : Integer.compare(order, other.order);
+        }
+    }
+
+    private void trackBorrow(Borrow borrow) {
+        PopularityTracker currentPopularity = popularity;
+        if (currentPopularity != null) {
+            currentPopularity.recordBorrow(borrow.getBook().getId(), borrow.getBorrowDate());
+        }
+        CoBorrowIndex currentCoBorrows = coBorrows;
+        if (currentCoBorrows != null) {
+            currentCoBorrows.observe(borrow.getUser().getId(), borrow.getBook().getId());
+        }
+    }
+
+    public void attachFinesLedger(FinesLedger fines) {
+        this.fines = fines;
+    }
+
+    public long getFineBalance(User user, Date asOf) {
+        FinesLedger current = fines;
+        return current == null || user == null ? 0 : current.getBalance(user, asOf);
+    }
+
+    public long payFine(User user, long amountCents, Date paymentDate) {
+        FinesLedger current = fines;
+        if (current == null) throw new IllegalStateException("Fines are not being tracked.");
+        if (user == null) throw new IllegalArgumentException("User cannot be null for a fine payment.");
+        long remaining = current.pay(user, amountCents, paymentDate);
+        sendNotification(user, "Payment of " + FinesLedger.format(amountCents) + " received. Outstanding fines: " + FinesLedger.format(remaining) + ".");
+        return remaining;
+    }
+
+    private void settleFine(Borrow borrow, Date returnDate) {
+        FinesLedger current = fines;
+        if (current == null) return;
+        long fine = current.loanReturned(borrow, returnDate);
+        if (fine > 0) {
+            sendNotification(borrow.getUser(), "A fine of " + FinesLedger.format(fine) + " was charged for returning '" +
+                    borrow.getBook().getTitle() + "' late.");
+        }
+        applyFines(returnDate);
+    }
+
+    private void applyFines(Date currentDate) {
+        FinesLedger current = fines;
+        if (current == null) return;
+        for (User user : current.advanceTo(currentDate)) {
+            sendNotification(user, "Your library card has been blocked: outstanding fines reached " +
+                    FinesLedger.format(current.getBlockThresholdCents()) + ". Please pay at the desk to unblock it.");
+        }
+    }
+
+    public void attachLoanHistory(LoanHistory loanHistory) {
+        this.loanHistory = loanHistory;
+    }
+
+    public List<LoanHistory.Loan> getLoanHolders(int bookId, Date day) {
+        LoanHistory current = loanHistory;
+        List<LoanHistory.Loan> holders = current == null ? new ArrayList<>() : current.whoHad(bookId, day);
+        Borrow active = activeBorrowsByBook.get(bookId);
+        if (active != null && !active.getBorrowDate().isAfter(day)) {
+            holders.add(ongoingLoan(active));
+        }
+        return holders;
+    }
+
+    public List<LoanHistory.Loan> getLoansBetween(Date from, Date to) {
+        LoanHistory current = loanHistory;
+        List<LoanHistory.Loan> loans = current == null ? new ArrayList<>() : current.onLoanBetween(from, to);
+        for (Borrow active : activeBorrowsByBook.values()) {
+            if (!active.getBorrowDate().isAfter(to)) {
+                loans.add(ongoingLoan(active));
+            }
+        }
+        return loans;
+    }
+
+    private static LoanHistory.Loan ongoingLoan(Borrow borrow) {
+        return new LoanHistory.Loan(borrow.getBook().getId(), borrow.getUser().getId(), borrow.getBorrowDate(), null);
+    }
+
+    private void archiveLoan(Borrow borrow, Date returnDate) {
+        LoanHistory current = loanHistory;
+        if (current == null) return;
+        Date end = returnDate.isBefore(borrow.getBorrowDate()) ? borrow.getBorrowDate() : returnDate;
+        current.record(borrow.getBook().getId(), borrow.getUser().getId(), borrow.getBorrowDate(), end);
+    }
+
+    public void attachDigest(NotificationDigest digest) {
+        NotificationDigest previous = this.digest;
+        this.digest = digest;
+        if (previous != null) {
+            previous.flushAll(this::deliverNotification);
+        }
+    }
+
+    public int flushNotificationDigests(Date currentDate) {
+        NotificationDigest current = digest;
+        return current == null ? 0 : current.flushDue(currentDate, this::deliverNotification);
+    }
+
+    public int flushAllNotificationDigests() {
+        NotificationDigest current = digest;
+        return current == null ? 0 : current.flushAll(this::deliverNotification);
+    }
+
+    private void sendNotification(INotify target, String message) {
+        if (target == null) return;
+        deliverNotification(target, message);
+    }
+
+    // Only routine reminders and overdue notices wait for the digest; holds, confirmations and fines go out at once.
+    private void sendRoutineNotification(INotify target, String message) {
+        if (target == null) return;
+        NotificationDigest currentDigest = digest;
+        if (currentDigest != null) {
+            currentDigest.add(target, message);
+        } else {
+            deliverNotification(target, message);
+        }
+    }
+
+    private void deliverNotification(INotify target, String message) {
+        NotificationDispatcher current = dispatcher;
+        if (current != null) {
+            current.dispatch(target, message);
         } else {
-            throw new IllegalStateException("Book '" + storedBook.getTitle() + "' was not recorded as borrowed by " + user.getName());
+            target.recieveMessage(message);
+        }
+    }
+
+    public void attachJournal(EventJournal journal) {
+        journalLock.writeLock().lock();
+        try {
+            this.journal = journal;
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    public EventJournal.RecoveryReport recoverFrom(EventJournal journal, Collection<User> users) {
+        Map<Integer, User> usersById = new HashMap<>();
+        for (User user : users) {
+            usersById.put(user.getId(), user);
+        }
+        journalLock.writeLock().lock();
+        try {
+            this.journal = null;
+            Map<Integer, Boolean> replayedAvailability = new HashMap<>();
+            EventJournal.RecoveryReport report = journal.recover(event -> replay(event, usersById, replayedAvailability));
+            if (!replayedAvailability.isEmpty()) {
+                readWrite.updateBooksAvailability(replayedAvailability);
+            }
+            this.journal = journal;
+            System.out.println("Executor: " + report);
+            return report;
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    public void snapshotJournal() {
+        journalLock.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.writeSnapshot(snapshotEvents());
+            }
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+    }
+
+    private Object userLock(int userId) {
+        return userLocks[Math.floorMod(userId, LOCK_STRIPES)];
+    }
+
+    private Object bookLock(int bookId) {
+        return bookLocks[Math.floorMod(bookId, LOCK_STRIPES)];
+    }
+
+    private boolean enterJournal() {
+        if (journal == null) return false;
+        journalLock.readLock().lock();
+        return true;
+    }
+
+    private void exitJournal(boolean journaled) {
+        if (!journaled) return;
+        journalLock.readLock().unlock();
+        EventJournal current = journal;
+        if (current != null && current.needsSnapshot()) {
+            journalLock.writeLock().lock();
+            try {
+                if (current == journal && current.needsSnapshot()) {
+                    current.writeSnapshot(snapshotEvents());
+                }
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void record(LibraryEvent event) {
+        EventJournal current = journal;
+        if (current != null) {
+            current.append(event);
+        }
+    }
+
+    private List<LibraryEvent> snapshotEvents() {
+        List<LibraryEvent> state = new ArrayList<>();
+        for (Borrow borrow : activeBorrowsByBook.values()) {
+            state.add(LibraryEvent.borrow(borrow));
+        }
+        for (Reservation reservation : getAllReservations()) {
+            if (!reservation.isActive()) continue;
+            state.add(LibraryEvent.reserve(reservation));
+            if (reservation.getState() != ReservationStatus.PENDING) {
+                state.add(LibraryEvent.statusChange(reservation));
+            }
+        }
+        return state;
+    }
+
+    private void replay(LibraryEvent event, Map<Integer, User> usersById, Map<Integer, Boolean> replayedAvailability) {
+        Book storedBook = readWrite.findBookById(event.getBookId());
+        User user = usersById.get(event.getUserId());
+        if (storedBook == null || user == null) return;
+
+        switch (event.getType()) {
+            case BORROW: {
+                Borrow borrow = new Borrow(storedBook, event.getFirstDate(), event.getSecondDate(), user);
+                Borrow previous = activeBorrowsByBook.get(storedBook.getId());
+                if (previous != null) unindexBorrow(previous);
+                user.getLibraryCard().cacheCommand(borrow);
+                indexBorrow(borrow);
+                trackBorrow(borrow);
+                if (storedBook.compareAndSetAvailable(true, false)) replayedAvailability.put(storedBook.getId(), false);
+                break;
+            }
+            case RETURN: {
+                Borrow borrow = activeBorrowsByBook.get(storedBook.getId());
+                if (borrow != null && borrow.getUser().getId() == user.getId()) {
+                    unindexBorrow(borrow);
+                    if (storedBook.compareAndSetAvailable(false, true)) replayedAvailability.put(storedBook.getId(), true);
+                    // The loan is archived after the journal write, so a crash in between leaves it only in the journal.
+                    LoanHistory currentHistory = loanHistory;
+                    if (currentHistory != null) {
+                        Date end = event.getFirstDate().isBefore(borrow.getBorrowDate()) ? borrow.getBorrowDate() : event.getFirstDate();
+                        currentHistory.recordIfAbsent(storedBook.getId(), user.getId(), borrow.getBorrowDate(), end);
+                    }
+                }
+                break;
+            }
+            case RESERVE: {
+                ReservationQueue queue = reservationQueues.computeIfAbsent(storedBook.getId(), k -> new ReservationQueue());
+                if (queue.findActive(user.getId()) != null) break;
+                Reservation reservation = new Reservation(storedBook, event.getFirstDate(), ReservationStatus.PENDING, user);
+                user.getLibraryCard().cacheCommand(reservation);
+                activeReservations.add(reservation);
+                queue.enqueue(reservation);
+                break;
+            }
+            case RESERVATION_STATUS: {
+                ReservationQueue queue = reservationQueues.get(storedBook.getId());
+                Reservation reservation = queue == null ? null : queue.findActive(user.getId());
+                if (reservation == null || !reservation.getState().canTransitionTo(event.getStatus())) break;
+                queue.release(reservation);
+                if (event.getStatus() == ReservationStatus.READY_FOR_PICKUP) {
+                    markReadyForPickup(queue, reservation, event.getSecondDate(), event.getSecondDate().minusDays(pickupWindowDays));
+                } else {
+                    reservation.transitionTo(event.getStatus());
+                }
+                break;
+            }
+        }
+    }
+
+    private void indexBorrow(Borrow borrow) {
+        int bookId = borrow.getBook().getId();
+        activeBorrowsByBook.put(bookId, borrow);
+        activeBorrowsByUser.computeIfAbsent(borrow.getUser().getId(), k -> new ConcurrentHashMap<>()).put(bookId, borrow);
+        unremindedBorrows.add(borrow);
+        notYetOverdueBorrows.add(borrow);
+    }
+
+    private void unindexBorrow(Borrow borrow) {
+        int bookId = borrow.getBook().getId();
+        activeBorrowsByBook.remove(bookId, borrow);
+        unremindedBorrows.remove(borrow);
+        notYetOverdueBorrows.remove(borrow);
+        Map<Integer, Borrow> userBorrows = activeBorrowsByUser.get(borrow.getUser().getId());
+        if (userBorrows != null) {
+            userBorrows.remove(bookId);
+            if (userBorrows.isEmpty()) {
+                activeBorrowsByUser.remove(borrow.getUser().getId());
+            }
+        }
+    }
+
+    private void markReadyForPickup(ReservationQueue queue, Reservation reservation, Date pickupDeadline, Date readyDate) {
+        reservation.transitionTo(ReservationStatus.READY_FOR_PICKUP);
+        queue.markReady(reservation);
+        reservation.setPickupDeadline(pickupDeadline);
+        schedulePickupExpiry(reservation, readyDate);
+    }
+
+    private void schedulePickupExpiry(Reservation reservation, Date readyDate) {
+        synchronized (pickupExpiryLock) {
+            if (pickupExpiryWheel == null) {
+                pickupExpiryWheel = new TimerWheel<>(readyDate.toEpochDay());
+            }
+            pickupExpiryWheel.schedule(reservation.getPickupDeadline().toEpochDay(), reservation);
+        }
+    }
+
+    public int getPickupWindowDays() { return pickupWindowDays; }
+
+    public void setPickupWindowDays(int pickupWindowDays) {
+        if (pickupWindowDays <= 0) throw new IllegalArgumentException("Pickup window must be at least one day.");
+        this.pickupWindowDays = pickupWindowDays;
+    }
+
+    private Borrow stageBorrow(UnitOfWork work, Book storedBook, User user, Date borrowDate, Date returnDate) {
+        Borrow borrowAction = new Borrow(storedBook, borrowDate, returnDate, user);
+        indexBorrow(borrowAction);
+        work.onRollback(() -> unindexBorrow(borrowAction));
+        work.recordCommand(user.getLibraryCard(), borrowAction);
+        work.registerPresence(storedBook);
+        work.recordEvent(LibraryEvent.borrow(borrowAction));
+        work.afterCommit(() -> trackBorrow(borrowAction));
+        return borrowAction;
+    }
+
+    private void stageReturn(UnitOfWork work, Borrow borrow, Date returnDate) {
+        unindexBorrow(borrow);
+        work.onRollback(() -> indexBorrow(borrow));
+        work.stageAvailability(borrow.getBook(), true);
+        work.registerPresence(borrow.getBook());
+        work.recordEvent(LibraryEvent.returned(borrow, returnDate));
+        work.afterCommit(() -> settleFine(borrow, returnDate));
+        work.afterCommit(() -> archiveLoan(borrow, returnDate));
+    }
+
+    private void fulfillReservation(Book storedBook, User user, Date borrowDate) {
+        ReservationQueue queue = reservationQueues.get(storedBook.getId());
+        if (queue == null) return;
+        synchronized (bookLock(storedBook.getId())) {
+            Reservation userReservationForThisBook = queue.findActive(user.getId());
+            if (userReservationForThisBook != null) {
+                userReservationForThisBook.transitionTo(ReservationStatus.FULFILLED);
+                queue.release(userReservationForThisBook);
+                record(LibraryEvent.statusChange(userReservationForThisBook));
+                user.getLibraryCard().recordOutcome(userReservationForThisBook, borrowDate);
+                sendNotification(user, "Your reservation for '" + storedBook.getTitle() + "' has been fulfilled by borrowing the book.");
+                System.out.println("Executor: Reservation for '" + storedBook.getTitle() + "' by " + user.getName() + " marked as FULFILLED.");
+            }
+        }
+    }
+
+    private void promoteNextReservation(Book storedBook, Date readyDate) {
+        ReservationQueue queue = reservationQueues.get(storedBook.getId());
+        Reservation nextReservation = queue == null ? null : queue.pollPending();
+        if (nextReservation == null) return;
+
+        Date pickupDeadline = readyDate.plusDays(pickupWindowDays);
+        markReadyForPickup(queue, nextReservation, pickupDeadline, readyDate);
+        record(LibraryEvent.statusChange(nextReservation));
+
+        if (nextReservation.getUser() != null) {
+            sendNotification(nextReservation.getUser(),
+                    "Book '" + storedBook.getTitle() + "' you reserved is now available for pickup! Please collect it by " + pickupDeadline + "."
+            );
         }
     }
 
@@ -179,48 +819,140 @@ public class Executor {
 
         if (foundBookInStorage != null) {
             int bookId = foundBookInStorage.getId();
-            boolean canRemove = true;
-            if (activeBorrows.stream().anyMatch(b -> b.getBook().getId() == bookId)) {
-                System.out.println("Executor: Cannot remove book '" + title + "', it is currently borrowed.");
-                canRemove = false;
-            }
-            if (canRemove && activeReservations.stream().anyMatch(r -> r.getBook().getId() == bookId &&
-                    ("PENDING".equals(r.getStatus()) || "READY_FOR_PICKUP".equals(r.getStatus())))) {
-                System.out.println("Executor: Cannot remove book '" + title + "', it has active reservations.");
-                canRemove = false;
-            }
+            synchronized (bookLock(bookId)) {
+                boolean canRemove = true;
+                if (activeBorrowsByBook.containsKey(bookId)) {
+                    System.out.println("Executor: Cannot remove book '" + title + "', it is currently borrowed.");
+                    canRemove = false;
+                }
+                ReservationQueue queue = reservationQueues.get(bookId);
+                if (canRemove && queue != null && queue.hasActive()) {
+                    System.out.println("Executor: Cannot remove book '" + title + "', it has active reservations.");
+                    canRemove = false;
+                }
+                if (canRemove && !foundBookInStorage.compareAndSetAvailable(true, false)) {
+                    System.out.println("Executor: Cannot remove book '" + title + "', it is not on the shelf.");
+                    canRemove = false;
+                }
 
-            if (canRemove) {
-                readWrite.removeBook(bookId);
-                present.removeBook(title, author);
-                activeReservations.removeIf(r -> r.getBook().getId() == bookId);
-                System.out.println("Executor: Book '" + title + "' removed.");
+                if (canRemove) {
+                    try {
+                        readWrite.removeBooks(Collections.singletonList(bookId));
+                    } catch (RuntimeException e) {
+                        foundBookInStorage.setAvailable(true);
+                        readWrite.getCatalogIndex().setAvailable(bookId, true);
+                        throw e;
+                    }
+                    present.removeBook(title, author);
+                    activeReservations.removeIf(r -> r.getBook().getId() == bookId);
+                    reservationQueues.remove(bookId);
+                    System.out.println("Executor: Book '" + title + "' removed.");
+                }
             }
         } else {
             System.out.println("Executor: Book not found for removal: " + title);
         }
     }
 
+    public BatchResult<Integer> removeBooksMatching(java.util.function.Predicate<Book> predicate) {
+        if (predicate == null) throw new IllegalArgumentException("Removal predicate cannot be null.");
+        List<Integer> bookIds = new ArrayList<>();
+        for (Book book : readWrite.getAllBooks()) {
+            if (predicate.test(book)) {
+                bookIds.add(book.getId());
+            }
+        }
+        return removeBooks(bookIds);
+    }
+
+    public BatchResult<Integer> removeBooks(Collection<Integer> bookIds) {
+        if (bookIds == null) throw new IllegalArgumentException("Book IDs cannot be null for removal.");
+        BatchResult<Integer> result = new BatchResult<>();
+        List<Book> claimed = new ArrayList<>();
+        java.util.Set<Integer> requested = new java.util.HashSet<>();
+        int index = -1;
+        for (Integer bookId : bookIds) {
+            index++;
+            Book storedBook = bookId == null ? null : readWrite.findBookById(bookId);
+            if (bookId != null && !requested.add(bookId)) {
+                result.addFailure(index, bookId, "Book ID listed more than once.");
+                continue;
+            }
+            if (storedBook == null) {
+                result.addFailure(index, bookId, "Book not found.");
+                continue;
+            }
+            synchronized (bookLock(bookId)) {
+                ReservationQueue queue = reservationQueues.get(bookId);
+                if (activeBorrowsByBook.containsKey(bookId)) {
+                    result.addFailure(index, bookId, "Book is currently borrowed.");
+                } else if (queue != null && queue.hasActive()) {
+                    result.addFailure(index, bookId, "Book has active reservations.");
+                } else if (!storedBook.compareAndSetAvailable(true, false)) {
+                    result.addFailure(index, bookId, "Book is not on the shelf.");
+                } else {
+                    claimed.add(storedBook);
+                }
+            }
+        }
+        if (claimed.isEmpty()) {
+            System.out.println("Executor: Bulk removal: " + result + ".");
+            return result;
+        }
+
+        java.util.Set<Integer> claimedIds = new java.util.HashSet<>();
+        for (Book book : claimed) {
+            claimedIds.add(book.getId());
+        }
+        try {
+            readWrite.removeBooks(claimedIds);
+        } catch (RuntimeException e) {
+            for (Book book : claimed) {
+                book.setAvailable(true);
+                readWrite.getCatalogIndex().setAvailable(book.getId(), true);
+            }
+            throw e;
+        }
+        present.removeBooks(claimed);
+        activeReservations.removeIf(r -> claimedIds.contains(r.getBook().getId()));
+        for (Book book : claimed) {
+            reservationQueues.remove(book.getId());
+            result.addSuccess(book.getId());
+        }
+        System.out.println("Executor: Bulk removal: " + result + ".");
+        return result;
+    }
+
     public List<Reservation> getAllReservations() {
-        return new ArrayList<>(activeReservations);
+        synchronized (activeReservations) {
+            return new ArrayList<>(activeReservations);
+        }
     }
 
     public List<Reservation> getActiveUserReservations(User user) {
         if (user == null) return new ArrayList<>();
-        return activeReservations.stream()
-                .filter(r -> r.getUser().getId() == user.getId() &&
-                        ("PENDING".equals(r.getStatus()) || "READY_FOR_PICKUP".equals(r.getStatus())))
+        return getAllReservations().stream()
+                .filter(r -> r.getUser().getId() == user.getId() && r.isActive())
                 .collect(Collectors.toList());
     }
 
     public List<Reservation> getAllActiveReservations() {
-        return activeReservations.stream()
-                .filter(r -> ("PENDING".equals(r.getStatus()) || "READY_FOR_PICKUP".equals(r.getStatus())))
+        return getAllReservations().stream()
+                .filter(Reservation::isActive)
                 .collect(Collectors.toList());
     }
 
+    public int getReservationQueuePosition(Book book, User user) {
+        if (book == null || user == null) return -1;
+        ReservationQueue queue = reservationQueues.get(book.getId());
+        if (queue == null) return -1;
+        synchronized (bookLock(book.getId())) {
+            return queue.positionOf(user.getId());
+        }
+    }
+
     public List<Borrow> getBorrows() {
-        return new ArrayList<>(activeBorrows);
+        return new ArrayList<>(activeBorrowsByBook.values());
     }
 
     public List<Book> listBooks() {
@@ -241,7 +973,7 @@ public class Executor {
         }
         Date notificationThresholdDate = currentDate.plusDays(daysInAdvance);
 
-        for (Borrow borrow : activeBorrows) {
+        for (Borrow borrow : unremindedBorrows.pollDueBetween(currentDate, notificationThresholdDate)) {
             if (borrow.isReminderSentForThisPeriod()) {
                 continue;
             }
@@ -250,13 +982,27 @@ public class Executor {
             Book book = borrow.getBook();
             Date returnDate = borrow.getReturnDate();
 
-            if (returnDate.isSameDayOrAfter(currentDate) && returnDate.isBefore(notificationThresholdDate.plusDays(1))) {
-                String message = "Reminder: The book '" + book.getTitle() +
-                        "' is due for return on " + returnDate.toString() + ".";
-                user.recieveMessage(message);
-                borrow.setReminderSentForThisPeriod(true);
-                System.out.println("Executor: Sent return reminder for '" + book.getTitle() + "' (due: " + returnDate + ") to " + user.getName());
-            }
+            String message = "Reminder: The book '" + book.getTitle() +
+                    "' is due for return on " + returnDate.toString() + ".";
+            sendRoutineNotification(user, message);
+            borrow.setReminderSentForThisPeriod(true);
+            System.out.println("Executor: Sent return reminder for '" + book.getTitle() + "' (due: " + returnDate + ") to " + user.getName());
+        }
+    }
+
+    public List<Borrow> processOverdueLoans(Date currentDate) {
+        if (currentDate == null) {
+            currentDate = Date.getCurrentDate();
+        }
+        List<Borrow> newlyOverdue = notYetOverdueBorrows.pollDueBefore(currentDate);
+        FinesLedger currentFines = fines;
+        if (currentFines != null) currentFines.loansOverdue(newlyOverdue);
+        for (Borrow borrow : newlyOverdue) {
+            sendRoutineNotification(borrow.getUser(), "Overdue: The book '" + borrow.getBook().getTitle() +
+                    "' was due for return on " + borrow.getReturnDate() + ". Please return it as soon as possible.");
+            System.out.println("Executor: Sent overdue notice for '" + borrow.getBook().getTitle() + "' to " + borrow.getUser().getName());
         }
+        applyFines(currentDate);
+        return newlyOverdue;
     }
 }
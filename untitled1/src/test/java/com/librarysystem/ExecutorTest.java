@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ExecutorTest {
@@ -246,7 +247,7 @@ class ExecutorTest {
                 .findFirst().orElse(null);
         assertNotNull(updatedReservation, "TestUser's reservation should exist and be READY_FOR_PICKUP.");
         
-        boolean notificationFound = testUser.getNotifications().stream()
+        boolean notificationFound = testUser.getUnreadNotifications().stream()
                 .anyMatch(n -> n.contains("you reserved is now available for pickup"));
         assertTrue(notificationFound, "TestUser should be notified that the reserved book is available for pickup.");
         System.out.println("Finished testCreateReservationAndReturnBook_triggersNotification.");
@@ -264,4 +265,515 @@ class ExecutorTest {
         assertEquals("Book '" + bookNotBorrowed.getTitle() + "' was not recorded as borrowed by " + testUser.getName(), exception.getMessage());
         System.out.println("Finished testReturnBook_notBorrowed.");
     }
-}
+
+    @Test
+    void testPerUserBorrowIndexTracksBorrowAndReturn() {
+        System.out.println("Running testPerUserBorrowIndexTracksBorrowAndReturn...");
+        Date returnDate = simulatedTestCurrentDate.addMonths(1);
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, returnDate);
+        executor.createBorrow(testBook2, otherUser, simulatedTestCurrentDate, returnDate);
+
+        assertEquals(1, executor.countActiveBorrowsForUser(testUser));
+        assertEquals(1, executor.getActiveUserBorrows(otherUser).size());
+        assertEquals(testBook1.getId(), executor.getActiveUserBorrows(testUser).get(0).getBook().getId());
+
+        executor.returnBook(testBook1, testUser);
+        assertEquals(0, executor.countActiveBorrowsForUser(testUser), "Return should drop the user's count.");
+        assertTrue(executor.getActiveUserBorrows(testUser).isEmpty());
+        assertEquals(1, executor.countActiveBorrowsForUser(otherUser), "Other users' counts must be unaffected.");
+        System.out.println("Finished testPerUserBorrowIndexTracksBorrowAndReturn.");
+    }
+
+    @Test
+    void testKeyedBorrowLookupForReturnAndRemoval() {
+        System.out.println("Running testKeyedBorrowLookupForReturnAndRemoval...");
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+        assertNotNull(executor.findActiveBorrow(testBook1.getId()));
+        assertNull(executor.findActiveBorrow(testBook2.getId()));
+
+        assertThrows(IllegalStateException.class, () -> executor.returnBook(testBook1, otherUser),
+                "Only the borrower may return the book.");
+
+        executor.removeBook(testBook1.getTitle(), testBook1.getAuthor());
+        assertNotNull(testStorage.findBookById(testBook1.getId()), "A borrowed book must not be removed.");
+
+        executor.returnBook(testBook1, testUser);
+        assertNull(executor.findActiveBorrow(testBook1.getId()));
+        executor.removeBook(testBook1.getTitle(), testBook1.getAuthor());
+        assertNull(testStorage.findBookById(testBook1.getId()), "A returned book can be removed.");
+        System.out.println("Finished testKeyedBorrowLookupForReturnAndRemoval.");
+    }
+
+    @Test
+    void testReservationQueuePositionsAndPromotion() {
+        System.out.println("Running testReservationQueuePositionsAndPromotion...");
+        User thirdUser = new User(3, "Third", "Reader", "third@example.com", "READER", "pass", 3,
+                simulatedTestCurrentDate.addMonths(6));
+        executor.createBorrow(testBook1, otherUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+        executor.createReservation(testBook1, testUser, simulatedTestCurrentDate);
+        executor.createReservation(testBook1, thirdUser, simulatedTestCurrentDate);
+
+        assertEquals(1, executor.getReservationQueuePosition(testBook1, testUser));
+        assertEquals(2, executor.getReservationQueuePosition(testBook1, thirdUser));
+        assertEquals(-1, executor.getReservationQueuePosition(testBook1, otherUser), "Borrower is not queued.");
+
+        executor.returnBook(testBook1, otherUser);
+        Reservation promoted = executor.getActiveUserReservations(testUser).get(0);
+        assertEquals(ReservationStatus.READY_FOR_PICKUP, promoted.getState());
+        assertEquals(-1, executor.getReservationQueuePosition(testBook1, testUser), "Promoted reader leaves the queue.");
+        assertEquals(1, executor.getReservationQueuePosition(testBook1, thirdUser), "Next reader moves to the front.");
+
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+        assertEquals(ReservationStatus.FULFILLED, promoted.getState());
+        assertThrows(IllegalStateException.class, () -> promoted.transitionTo(ReservationStatus.PENDING),
+                "A fulfilled reservation is terminal.");
+        System.out.println("Finished testReservationQueuePositionsAndPromotion.");
+    }
+
+    @Test
+    void testExpiredPickupCascadesToNextReservation() {
+        System.out.println("Running testExpiredPickupCascadesToNextReservation...");
+        User thirdUser = new User(3, "Third", "Reader", "third@example.com", "READER", "pass", 3,
+                simulatedTestCurrentDate.addMonths(6));
+        executor.createBorrow(testBook1, otherUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+        executor.createReservation(testBook1, testUser, simulatedTestCurrentDate);
+        executor.createReservation(testBook1, thirdUser, simulatedTestCurrentDate);
+        executor.returnBook(testBook1, otherUser, simulatedTestCurrentDate);
+
+        Reservation firstHold = executor.getActiveUserReservations(testUser).get(0);
+        assertEquals(simulatedTestCurrentDate.plusDays(Executor.DEFAULT_PICKUP_WINDOW_DAYS).toString(),
+                firstHold.getPickupDeadline().toString());
+
+        Date dayBeforeDeadline = simulatedTestCurrentDate.plusDays(Executor.DEFAULT_PICKUP_WINDOW_DAYS - 1);
+        assertTrue(executor.processPickupExpirations(dayBeforeDeadline).isEmpty(), "Hold is still within its window.");
+
+        Date deadline = simulatedTestCurrentDate.plusDays(Executor.DEFAULT_PICKUP_WINDOW_DAYS);
+        assertEquals(1, executor.processPickupExpirations(deadline).size());
+        assertEquals(ReservationStatus.EXPIRED, firstHold.getState());
+
+        Reservation secondHold = executor.getActiveUserReservations(thirdUser).get(0);
+        assertEquals(ReservationStatus.READY_FOR_PICKUP, secondHold.getState(), "Next reader should be promoted.");
+        assertTrue(thirdUser.getNotifications().stream().anyMatch(n -> n.contains("now available for pickup")));
+        assertTrue(testUser.getNotifications().stream().anyMatch(n -> n.contains("expired")));
+        System.out.println("Finished testExpiredPickupCascadesToNextReservation.");
+    }
+
+    @Test
+    void testReturnRemindersOnlyVisitLoansDueInWindow() {
+        System.out.println("Running testReturnRemindersOnlyVisitLoansDueInWindow...");
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.plusDays(3));
+        executor.createBorrow(testBook2, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.plusDays(20));
+        testUser.clearNotifications();
+
+        executor.checkAndNotifyForUpcomingReturns(simulatedTestCurrentDate, 7);
+        executor.checkAndNotifyForUpcomingReturns(simulatedTestCurrentDate, 7);
+        assertEquals(1, testUser.getUnreadNotifications().size(), "Only the loan due within 7 days is reminded, once.");
+        assertTrue(testUser.getUnreadNotifications().get(0).contains(testBook1.getTitle()));
+
+        executor.returnBook(testBook2, testUser, simulatedTestCurrentDate);
+        executor.checkAndNotifyForUpcomingReturns(simulatedTestCurrentDate.plusDays(15), 7);
+        assertEquals(1, testUser.getUnreadNotifications().size(), "A returned loan must not be reminded.");
+
+        executor.checkAndNotifyForUpcomingReturns(simulatedTestCurrentDate.plusDays(1), 7);
+        assertEquals(1, testUser.getUnreadNotifications().size(), "A reminded loan stays reminded on later sweeps.");
+
+        Date laterDay = simulatedTestCurrentDate.plusDays(15);
+        executor.createBorrow(testBook2, testUser, laterDay, laterDay.plusDays(5));
+        executor.checkAndNotifyForUpcomingReturns(laterDay, 7);
+        assertEquals(2, testUser.getUnreadNotifications().size(), "A new loan due in the window is reminded by the sweep.");
+        System.out.println("Finished testReturnRemindersOnlyVisitLoansDueInWindow.");
+    }
+
+    @Test
+    void testReminderSchedulerSweepsOnDayBoundary() {
+        System.out.println("Running testReminderSchedulerSweepsOnDayBoundary...");
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.plusDays(10));
+        testUser.clearNotifications();
+
+        ReminderScheduler scheduler = new ReminderScheduler(executor, simulatedTestCurrentDate, 7);
+        scheduler.start();
+        try {
+            scheduler.awaitPendingSweeps();
+            assertTrue(testUser.getUnreadNotifications().isEmpty(), "Loan is not yet inside the reminder window.");
+
+            scheduler.setCurrentDate(simulatedTestCurrentDate.plusDays(4));
+            scheduler.awaitPendingSweeps();
+            assertEquals(1, testUser.getUnreadNotifications().size(), "Day boundary sweep should send the reminder.");
+
+            scheduler.setCurrentDate(simulatedTestCurrentDate.plusDays(11));
+            scheduler.awaitPendingSweeps();
+            assertTrue(testUser.getUnreadNotifications().stream().anyMatch(n -> n.startsWith("Overdue:")),
+                    "Overdue sweep should notify the borrower.");
+        } finally {
+            scheduler.shutdown();
+        }
+        System.out.println("Finished testReminderSchedulerSweepsOnDayBoundary.");
+    }
+
+    @Test
+    void testJournalRecoveryRestoresLoansAndHolds() throws IOException {
+        System.out.println("Running testJournalRecoveryRestoresLoansAndHolds...");
+        File journalDir = new File("executor_test_journal");
+        TestFixtures.deleteDirectory(journalDir);
+        try {
+            EventJournal journal = new EventJournal(journalDir, 3, false);
+            executor.attachJournal(journal);
+            executor.createBorrow(testBook1, otherUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+            executor.createReservation(testBook1, testUser, simulatedTestCurrentDate);
+            executor.createBorrow(testBook2, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+            executor.returnBook(testBook1, otherUser, simulatedTestCurrentDate);
+            journal.close();
+
+            Storage reloadedStorage = new Storage(TEST_BOOKS_FILE);
+            Executor recovered = new Executor(new LookupArray(reloadedStorage), reloadedStorage);
+            User reloadedTestUser = new User(1, "Test", "User", "executor.user@example.com", "READER", "pass", 5,
+                    simulatedTestCurrentDate.addMonths(6));
+            User reloadedOtherUser = new User(2, "Other", "Borrower", "other@example.com", "READER", "pass", 2,
+                    simulatedTestCurrentDate.addMonths(12));
+            EventJournal reopened = new EventJournal(journalDir, 3, false);
+            EventJournal.RecoveryReport report = recovered.recoverFrom(reopened,
+                    java.util.Arrays.asList(reloadedTestUser, reloadedOtherUser));
+            reopened.close();
+
+            assertTrue(report.getSnapshotEvents() > 0, "Snapshot should have been taken after three events.");
+            assertEquals(1, recovered.getBorrows().size());
+            assertEquals(testBook2.getId(), recovered.getActiveUserBorrows(reloadedTestUser).get(0).getBook().getId());
+            assertTrue(recovered.getActiveUserBorrows(reloadedOtherUser).isEmpty());
+            List<Reservation> holds = recovered.getActiveUserReservations(reloadedTestUser);
+            assertEquals(1, holds.size());
+            assertEquals(ReservationStatus.READY_FOR_PICKUP, holds.get(0).getState());
+            assertEquals(simulatedTestCurrentDate.plusDays(Executor.DEFAULT_PICKUP_WINDOW_DAYS).toString(),
+                    holds.get(0).getPickupDeadline().toString());
+        } finally {
+            TestFixtures.deleteDirectory(journalDir);
+        }
+        System.out.println("Finished testJournalRecoveryRestoresLoansAndHolds.");
+    }
+
+    @Test
+    void testConcurrentCheckoutKeepsAvailabilityAndLimitsConsistent() throws InterruptedException {
+        System.out.println("Running testConcurrentCheckoutKeepsAvailabilityAndLimitsConsistent...");
+        int threads = 8;
+        Date returnDate = simulatedTestCurrentDate.addMonths(1);
+
+        List<User> racers = new java.util.ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            racers.add(new User(100 + i, "Racer" + i, "Desk", "racer" + i + "@example.com", "READER", "pass", 5, simulatedTestCurrentDate.addMonths(6)));
+        }
+        java.util.concurrent.atomic.AtomicInteger sameBookWins = new java.util.concurrent.atomic.AtomicInteger();
+        runConcurrently(threads, i -> {
+            try {
+                executor.createBorrow(testBook1, racers.get(i), simulatedTestCurrentDate, returnDate);
+                sameBookWins.incrementAndGet();
+            } catch (IllegalStateException expected) {
+            }
+        });
+        assertEquals(1, sameBookWins.get(), "Exactly one desk may check out the same copy.");
+        assertFalse(testStorage.findBookById(testBook1.getId()).isAvailable());
+
+        List<Book> shelf = new java.util.ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Book book = new Book("Stress Book " + i, "Author S", "Genre S", "Desc S", "ISBN_S" + i);
+            testStorage.registerBook(book);
+            shelf.add(book);
+        }
+        java.util.concurrent.atomic.AtomicInteger limitedWins = new java.util.concurrent.atomic.AtomicInteger();
+        runConcurrently(threads, i -> {
+            try {
+                executor.createBorrow(shelf.get(i), otherUser, simulatedTestCurrentDate, returnDate);
+                limitedWins.incrementAndGet();
+            } catch (IllegalStateException expected) {
+            }
+        });
+        assertEquals(otherUser.getBookLimit(), limitedWins.get(), "Concurrent desks must not exceed the user's limit.");
+        assertEquals(otherUser.getBookLimit(), executor.countActiveBorrowsForUser(otherUser));
+        for (Borrow borrow : executor.getActiveUserBorrows(otherUser)) {
+            executor.returnBook(borrow.getBook(), otherUser);
+        }
+
+        runConcurrently(threads, i -> {
+            for (int round = 0; round < 50; round++) {
+                executor.createBorrow(shelf.get(i), racers.get(i), simulatedTestCurrentDate, returnDate);
+                executor.returnBook(shelf.get(i), racers.get(i), simulatedTestCurrentDate);
+            }
+        });
+        for (int i = 0; i < threads; i++) {
+            assertTrue(testStorage.findBookById(shelf.get(i).getId()).isAvailable(), "Every stress book should be back on the shelf.");
+            assertNull(executor.findActiveBorrow(shelf.get(i).getId()));
+        }
+        assertEquals(1, executor.getBorrows().size(), "Only the contested copy should still be on loan.");
+        System.out.println("Finished testConcurrentCheckoutKeepsAvailabilityAndLimitsConsistent.");
+    }
+
+    @Test
+    void testBatchCheckoutAndReturnReportPerItemFailures() {
+        System.out.println("Running testBatchCheckoutAndReturnReportPerItemFailures...");
+        Book testBook3 = new Book("Executor Test Book 3", "Author E3", "Genre E3", "Desc E3", "ISBN_E3");
+        testStorage.registerBook(testBook3);
+        Book unknownBook = new Book(999, "Unknown", "Nobody", "None", "None", "ISBN_X", true);
+        Date returnDate = simulatedTestCurrentDate.addMonths(1);
+
+        BatchResult<Book> checkout = executor.createBorrows(java.util.Arrays.asList(testBook1, unknownBook, testBook2, testBook3),
+                otherUser, simulatedTestCurrentDate, returnDate);
+        System.out.println("Batch checkout: " + checkout + " " + checkout.getFailures());
+        assertEquals(2, checkout.getSucceeded().size(), "OtherUser's limit of 2 applies across the whole stack.");
+        assertEquals(4, checkout.size());
+        assertSame(unknownBook, checkout.getFailures().get(0).getItem());
+        assertTrue(checkout.getFailureReason(3).contains("limit"));
+        assertFalse(testStorage.findBookById(testBook1.getId()).isAvailable());
+        assertFalse(testStorage.findBookById(testBook2.getId()).isAvailable());
+        assertTrue(testStorage.findBookById(testBook3.getId()).isAvailable());
+        assertFalse(new Storage(TEST_BOOKS_FILE).findBookById(testBook2.getId()).isAvailable(), "The batch should be persisted.");
+
+        BatchResult<Book> returns = executor.returnBooks(java.util.Arrays.asList(testBook1, testBook3, testBook2), otherUser, simulatedTestCurrentDate);
+        assertEquals(2, returns.getSucceeded().size());
+        assertTrue(returns.getFailureReason(1).contains("was not recorded as borrowed"));
+
+        BatchResult<Book> repeated = executor.createBorrows(java.util.Arrays.asList(testBook3, null, testBook3, null),
+                otherUser, simulatedTestCurrentDate, returnDate);
+        assertEquals(1, repeated.getSucceeded().size());
+        assertEquals(3, repeated.getFailures().size(), "Duplicate and null inputs each get their own failure entry.");
+        assertTrue(repeated.getFailureReason(2).contains("not available"));
+        executor.returnBooks(java.util.Arrays.asList(testBook3), otherUser, simulatedTestCurrentDate);
+        assertEquals(0, executor.countActiveBorrowsForUser(otherUser));
+        assertTrue(new Storage(TEST_BOOKS_FILE).findBookById(testBook1.getId()).isAvailable());
+        System.out.println("Finished testBatchCheckoutAndReturnReportPerItemFailures.");
+    }
+
+    @Test
+    void testFailedPersistenceRollsBackBorrow() {
+        System.out.println("Running testFailedPersistenceRollsBackBorrow...");
+        Storage unwritableStorage = new Storage("missing_directory" + File.separator + "books.csv");
+        Book book = new Book(1, "Rollback Book", "Author R", "Genre R", "Desc R", "ISBN_R", true);
+        unwritableStorage.registerBook(book);
+        Executor failingExecutor = new Executor(new LookupArray(unwritableStorage), unwritableStorage);
+
+        assertThrows(IllegalStateException.class, () -> failingExecutor.createBorrow(book, testUser,
+                simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1)));
+
+        assertTrue(book.isAvailable(), "A failed write must release the claimed copy.");
+        assertTrue(unwritableStorage.getCatalogIndex().isAvailable(book.getId()));
+        assertEquals(0, failingExecutor.countActiveBorrowsForUser(testUser));
+        assertNull(failingExecutor.findActiveBorrow(book.getId()));
+        assertTrue(testUser.getLibraryCard().getCommands().isEmpty(), "The card must not keep the rolled-back borrow.");
+        System.out.println("Finished testFailedPersistenceRollsBackBorrow.");
+    }
+
+    @Test
+    void testFailedJournalAppendRollsBackPersistedBorrow() throws IOException {
+        System.out.println("Running testFailedJournalAppendRollsBackPersistedBorrow...");
+        File journalDir = new File("test_failed_journal");
+        TestFixtures.deleteDirectory(journalDir);
+        EventJournal closedJournal = new EventJournal(journalDir);
+        executor.attachJournal(closedJournal);
+        closedJournal.close();
+        try {
+            assertThrows(IllegalStateException.class, () -> executor.createBorrow(testBook1, testUser,
+                    simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1)));
+
+            assertTrue(testBook1.isAvailable(), "A failed journal write must release the claimed copy.");
+            assertNull(executor.findActiveBorrow(testBook1.getId()));
+            assertTrue(new Storage(TEST_BOOKS_FILE).findBookById(testBook1.getId()).isAvailable(),
+                    "The availability already written to the CSV must be restored.");
+        } finally {
+            executor.attachJournal(null);
+            TestFixtures.deleteDirectory(journalDir);
+        }
+        System.out.println("Finished testFailedJournalAppendRollsBackPersistedBorrow.");
+    }
+
+    @Test
+    void testBulkRemovalSkipsLoanedAndReservedBooks() {
+        System.out.println("Running testBulkRemovalSkipsLoanedAndReservedBooks...");
+        List<Book> weeded = new java.util.ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book("Weeding Candidate " + i, "Author W", "Genre W", "Desc W", "ISBN_W" + i);
+            testStorage.registerBook(book);
+            testLookupArray.registerBook(book);
+            weeded.add(book);
+        }
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+        executor.createReservation(testBook2, otherUser, simulatedTestCurrentDate);
+
+        List<Integer> ids = new java.util.ArrayList<>();
+        ids.add(testBook1.getId());
+        ids.add(testBook2.getId());
+        ids.add(weeded.get(0).getId());
+        ids.add(weeded.get(1).getId());
+        ids.add(9999);
+        BatchResult<Integer> report = executor.removeBooks(ids);
+        System.out.println("Bulk removal report: " + report + " " + report.getFailures());
+
+        assertEquals(2, report.getSucceeded().size());
+        assertEquals("Book is currently borrowed.", report.getFailureReason(0));
+        assertEquals("Book has active reservations.", report.getFailureReason(1));
+        assertEquals("Book not found.", report.getFailureReason(4));
+        assertNull(testStorage.findBookById(weeded.get(0).getId()));
+        assertFalse(testLookupArray.isPresent(weeded.get(1).getTitle(), weeded.get(1).getAuthor()));
+        assertEquals(2, testStorage.getCatalogIndex().countTextToken("candidate"), "Only the two remaining candidates stay indexed.");
+        assertNull(new Storage(TEST_BOOKS_FILE).findBookById(weeded.get(1).getId()), "The removal should be persisted.");
+
+        BatchResult<Integer> byPredicate = executor.removeBooksMatching(b -> b.getTitle().startsWith("Weeding Candidate"));
+        assertEquals(2, byPredicate.getSucceeded().size());
+        assertEquals(2, testStorage.getAllBooks().size(), "Only the loaned and reserved books remain.");
+        System.out.println("Finished testBulkRemovalSkipsLoanedAndReservedBooks.");
+    }
+
+    @Test
+    void testDispatcherDeliversNotificationsOffTheCallingThread() throws InterruptedException {
+        System.out.println("Running testDispatcherDeliversNotificationsOffTheCallingThread...");
+        NotificationDispatcher dispatcher = new NotificationDispatcher();
+        executor.attachDispatcher(dispatcher);
+        try {
+            executor.createBorrow(testBook1, otherUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+            executor.createReservation(testBook1, testUser, simulatedTestCurrentDate);
+            executor.returnBook(testBook1, otherUser, simulatedTestCurrentDate);
+            assertTrue(dispatcher.awaitIdle(5000), "Dispatcher should drain its queue.");
+            assertEquals(2, testUser.getNotifications().size(), "Reservation and pickup messages should both arrive.");
+            assertTrue(testUser.getNotifications().get(1).contains("available for pickup"));
+            NotificationDispatcher.DispatchMetrics metrics = dispatcher.getMetrics();
+            assertEquals(2, metrics.getEnqueued());
+            assertEquals(2, metrics.getDelivered());
+            assertEquals(0, metrics.getQueueDepth());
+        } finally {
+            dispatcher.shutdown();
+        }
+
+        java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+        List<String> received = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        INotify slowReader = message -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(message);
+        };
+        NotificationDispatcher dropping = new NotificationDispatcher(1, 16, 1, NotificationDispatcher.OverflowPolicy.DROP);
+        dropping.dispatch(slowReader, "first");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dropping.getMetrics().getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        dropping.dispatch(slowReader, "second");
+        dropping.dispatch(slowReader, "third");
+        assertEquals(1, dropping.getMetrics().getDropped(), "A full queue should drop under the DROP policy.");
+        release.countDown();
+        assertTrue(dropping.awaitIdle(5000));
+        dropping.shutdown();
+        assertEquals(java.util.Arrays.asList("first", "second"), received);
+        System.out.println("Finished testDispatcherDeliversNotificationsOffTheCallingThread.");
+    }
+
+    @Test
+    void testDefaultDispatcherKeepsPerTargetOrderWhenFull() {
+        System.out.println("Running testDefaultDispatcherKeepsPerTargetOrderWhenFull...");
+        NotificationDispatcher defaults = new NotificationDispatcher();
+        assertEquals(NotificationDispatcher.OverflowPolicy.BLOCK, defaults.getOverflowPolicy());
+        defaults.shutdown();
+
+        List<String> received = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        INotify slowReader = message -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(message);
+        };
+        NotificationDispatcher blocking = new NotificationDispatcher(1, 4, 1, NotificationDispatcher.OverflowPolicy.BLOCK);
+        List<String> sent = new java.util.ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            sent.add("Message " + i);
+            blocking.dispatch(slowReader, "Message " + i);
+        }
+        assertTrue(blocking.awaitIdle(5000));
+        blocking.shutdown();
+        assertEquals(sent, received, "A full queue must not let later messages overtake queued ones.");
+        assertEquals(0, blocking.getMetrics().getDeliveredByCaller());
+        System.out.println("Finished testDefaultDispatcherKeepsPerTargetOrderWhenFull.");
+    }
+
+    @Test
+    void testDigestCoalescesNotificationsPerUserUntilWindowCloses() {
+        System.out.println("Running testDigestCoalescesNotificationsPerUserUntilWindowCloses...");
+        executor.createBorrow(testBook1, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.plusDays(3));
+        executor.createBorrow(testBook2, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.plusDays(5));
+        testUser.clearNotifications();
+        NotificationDigest digest = new NotificationDigest(2, simulatedTestCurrentDate);
+        executor.attachDigest(digest);
+
+        executor.checkAndNotifyForUpcomingReturns(simulatedTestCurrentDate, 7);
+        executor.createReservation(testBook1, otherUser, simulatedTestCurrentDate);
+        assertEquals(1, otherUser.getNotifications().size(), "A reservation confirmation is not held for the digest.");
+        assertTrue(otherUser.getNotifications().get(0).startsWith("Book '"));
+        assertEquals(0, executor.flushNotificationDigests(simulatedTestCurrentDate), "Two-day window is still open.");
+        assertTrue(testUser.getUnreadNotifications().isEmpty());
+
+        assertEquals(1, executor.flushNotificationDigests(simulatedTestCurrentDate.plusDays(1)));
+        List<String> received = testUser.getUnreadNotifications();
+        assertEquals(1, received.size(), "Both reminders should arrive as one digest.");
+        assertTrue(received.get(0).startsWith("2-day digest (2 notifications since " + simulatedTestCurrentDate + ")"));
+        assertTrue(received.get(0).contains(testBook1.getTitle()) && received.get(0).contains(testBook2.getTitle()));
+        assertEquals(1, otherUser.getNotifications().size());
+        assertEquals(2, digest.getMessagesReceived());
+        assertEquals(1, digest.getDigestsSent());
+
+        executor.returnBook(testBook1, testUser, simulatedTestCurrentDate.plusDays(1));
+        assertTrue(otherUser.getNotifications().get(1).contains("available for pickup"),
+                "A pickup notice must reach the reader while the digest window is open.");
+        assertEquals(0, digest.getPendingRecipients());
+        System.out.println("Finished testDigestCoalescesNotificationsPerUserUntilWindowCloses.");
+    }
+
+    @Test
+    void testRemoveBookNeverLeavesALoanOnADeletedBook() throws InterruptedException {
+        System.out.println("Running testRemoveBookNeverLeavesALoanOnADeletedBook...");
+        for (int round = 0; round < 20; round++) {
+            Book contested = new Book("Contested Book " + round, "Author R", "Genre R", "Desc R", "ISBN_R" + round);
+            testStorage.registerBook(contested);
+            runConcurrently(2, index -> {
+                if (index == 0) {
+                    try {
+                        executor.createBorrow(contested, testUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+                    } catch (IllegalStateException e) {
+                        System.out.println("Borrow lost the race: " + e.getMessage());
+                    }
+                } else {
+                    executor.removeBook(contested.getTitle(), contested.getAuthor());
+                }
+            });
+            boolean removed = testStorage.findBookById(contested.getId()) == null;
+            boolean borrowed = executor.findActiveBorrow(contested.getId()) != null;
+            assertTrue(removed != borrowed, "Exactly one of borrow and removal should win (round " + round + ").");
+            if (borrowed) {
+                executor.returnBook(contested, testUser, simulatedTestCurrentDate);
+            }
+        }
+        System.out.println("Finished testRemoveBookNeverLeavesALoanOnADeletedBook.");
+    }
+
+    private static void runConcurrently(int threads, java.util.function.IntConsumer task) throws InterruptedException {
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        List<Throwable> failures = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+        List<Thread> workers = new java.util.ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    task.accept(index);
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(failures.isEmpty(), "Worker threads failed: " + failures);
+    }
+}
\ No newline at end of file
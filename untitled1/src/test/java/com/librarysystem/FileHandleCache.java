@@ -0,0 +1,99 @@
+package com.librarysystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Owners serialize access to their own files; an evicted handle is closed once its last user releases it.
+public class FileHandleCache {
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final int capacity;
+    private final LinkedHashMap<File, Handle> handles;
+
+    public FileHandleCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Handle cache capacity must be positive.");
+        this.capacity = capacity;
+        this.handles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized Handle acquire(File file) throws IOException {
+        Handle handle = handles.get(file);
+        if (handle == null) {
+            handle = new Handle(new RandomAccessFile(file, "rw"));
+            handles.put(file, handle);
+            Iterator<Handle> eldest = handles.values().iterator();
+            while (handles.size() > capacity) {
+                Handle evicted = eldest.next();
+                eldest.remove();
+                retire(evicted);
+            }
+        }
+        handle.users++;
+        return handle;
+    }
+
+    public synchronized void forget(File file) {
+        Handle handle = handles.remove(file);
+        if (handle != null) {
+            retire(handle);
+        }
+    }
+
+    public synchronized void closeAll() {
+        List<Handle> open = new ArrayList<>(handles.values());
+        handles.clear();
+        for (Handle handle : open) {
+            retire(handle);
+        }
+    }
+
+    public synchronized int size() {
+        return handles.size();
+    }
+
+    private synchronized void release(Handle handle) {
+        handle.users--;
+        if (handle.retired && handle.users == 0) {
+            closeQuietly(handle);
+        }
+    }
+
+    private void retire(Handle handle) {
+        handle.retired = true;
+        if (handle.users == 0) {
+            closeQuietly(handle);
+        }
+    }
+
+    private static void closeQuietly(Handle handle) {
+        try {
+            handle.file.close();
+        } catch (IOException e) {
+            System.err.println("FileHandleCache: Could not close file: " + e.getMessage());
+        }
+    }
+
+    public final class Handle implements AutoCloseable {
+        private final RandomAccessFile file;
+        private int users;
+        private boolean retired;
+
+        private Handle(RandomAccessFile file) {
+            this.file = file;
+        }
+
+        public RandomAccessFile file() {
+            return file;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.librarysystem;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class FinesLedger {
+    public static final long DEFAULT_DAILY_FINE_CENTS = 25;
+    public static final long DEFAULT_BLOCK_THRESHOLD_CENTS = 1000;
+
+    private final File file;
+    private final long dailyFineCents;
+    private final long blockThresholdCents;
+    private final Map<Integer, Account> accounts;
+    private final Map<Borrow, Long> accruing;
+    private final TreeMap<Long, Set<Account>> thresholdChecks;
+    private long currentDay = Long.MIN_VALUE;
+
+    public FinesLedger() {
+        this(null, DEFAULT_DAILY_FINE_CENTS, DEFAULT_BLOCK_THRESHOLD_CENTS);
+    }
+
+    public FinesLedger(File file, long dailyFineCents, long blockThresholdCents) {
+        if (dailyFineCents <= 0) throw new IllegalArgumentException("Daily fine must be positive.");
+        if (blockThresholdCents <= 0) throw new IllegalArgumentException("Block threshold must be positive.");
+        this.file = file;
+        this.dailyFineCents = dailyFineCents;
+        this.blockThresholdCents = blockThresholdCents;
+        this.accounts = new HashMap<>();
+        this.accruing = new IdentityHashMap<>();
+        this.thresholdChecks = new TreeMap<>();
+        load();
+    }
+
+    public long getDailyFineCents() { return dailyFineCents; }
+    public long getBlockThresholdCents() { return blockThresholdCents; }
+
+    public synchronized void bindUsers(Collection<User> users) {
+        boolean reconciled = false;
+        for (User user : users) {
+            Account account = accounts.get(user.getId());
+            if (account == null) continue;
+            account.user = user;
+            reconciled |= reconcile(account);
+            scheduleCheck(account);
+        }
+        if (reconciled) save();
+    }
+
+    public synchronized void loanOverdue(Borrow borrow) {
+        loansOverdue(Collections.singletonList(borrow));
+    }
+
+    public synchronized void loansOverdue(Collection<Borrow> borrows) {
+        Set<Account> touched = new HashSet<>();
+        for (Borrow borrow : borrows) {
+            if (accruing.containsKey(borrow)) continue;
+            long dueDay = borrow.getReturnDate().toEpochDay();
+            Account account = account(borrow.getUser());
+            accruing.put(borrow, dueDay);
+            account.overdueLoans++;
+            account.sumDueDays += dueDay;
+            touched.add(account);
+        }
+        for (Account account : touched) {
+            scheduleCheck(account);
+        }
+    }
+
+    public synchronized long loanReturned(Borrow borrow, Date returnDate) {
+        Long accruingSince = accruing.remove(borrow);
+        long dueDay = accruingSince != null ? accruingSince : borrow.getReturnDate().toEpochDay();
+        long fine = Math.max(0, returnDate.toEpochDay() - dueDay) * dailyFineCents;
+        if (accruingSince == null && fine == 0) return 0;
+        Account account = account(borrow.getUser());
+        if (accruingSince != null) {
+            account.overdueLoans--;
+            account.sumDueDays -= dueDay;
+        }
+        account.base += fine;
+        scheduleCheck(account);
+        save();
+        return fine;
+    }
+
+    public synchronized List<User> advanceTo(Date currentDate) {
+        long day = currentDate.toEpochDay();
+        currentDay = Math.max(currentDay, day);
+        List<User> newlyBlocked = new ArrayList<>();
+        boolean reconciled = false;
+        List<Account> checked = new ArrayList<>();
+        while (!thresholdChecks.isEmpty() && thresholdChecks.firstKey() <= day) {
+            Set<Account> due = thresholdChecks.pollFirstEntry().getValue();
+            for (Account account : due) {
+                account.checkDay = Long.MIN_VALUE;
+                reconciled |= reconcile(account);
+                if (!account.blockedByLedger && balance(account, day) >= blockThresholdCents) {
+                    if (block(account)) newlyBlocked.add(account.user);
+                }
+                checked.add(account);
+            }
+        }
+        // Rescheduled only after the sweep, since an account the ledger could not block would be due again today.
+        for (Account account : checked) {
+            scheduleCheck(account);
+        }
+        if (!newlyBlocked.isEmpty() || reconciled) save();
+        return newlyBlocked;
+    }
+
+    public synchronized void removeAccount(int userId) {
+        Account account = accounts.remove(userId);
+        if (account == null) return;
+        unschedule(account);
+        accruing.keySet().removeIf(borrow -> borrow.getUser().getId() == userId);
+        save();
+        System.out.println("FinesLedger: Closed fines account for user " + userId + ".");
+    }
+
+    public synchronized long getBalance(User user, Date asOf) {
+        Account account = accounts.get(user.getId());
+        return account == null ? 0 : balance(account, asOf.toEpochDay());
+    }
+
+    public synchronized int getOverdueLoanCount(User user) {
+        Account account = accounts.get(user.getId());
+        return account == null ? 0 : account.overdueLoans;
+    }
+
+    public synchronized int getAccruingLoanCount() {
+        return accruing.size();
+    }
+
+    public synchronized long pay(User user, long amountCents, Date paymentDate) {
+        if (amountCents <= 0) throw new IllegalArgumentException("Payment must be a positive amount.");
+        Account account = accounts.get(user.getId());
+        long day = paymentDate.toEpochDay();
+        long outstanding = account == null ? 0 : balance(account, day);
+        if (amountCents > outstanding) {
+            throw new IllegalArgumentException("Payment of " + format(amountCents) + " exceeds the outstanding balance of " + format(outstanding) + ".");
+        }
+        account.user = user;
+        reconcile(account);
+        account.base -= amountCents;
+        long remaining = outstanding - amountCents;
+        if (account.blockedByLedger && remaining < blockThresholdCents) {
+            account.blockedByLedger = false;
+            if (user.getLibraryCard() != null) user.getLibraryCard().setBlocked(false);
+            System.out.println("FinesLedger: Card for " + user.getName() + " unblocked after payment.");
+        }
+        scheduleCheck(account);
+        save();
+        return remaining;
+    }
+
+    public static String format(long cents) {
+        return (cents < 0 ? "-" : "") + Math.abs(cents) / 100 + "." + String.format("%02d", Math.abs(cents) % 100);
+    }
+
+    private Account account(User user) {
+        Account account = accounts.computeIfAbsent(user.getId(), Account::new);
+        account.user = user;
+        reconcile(account);
+        return account;
+    }
+
+    // A card unblocked at the desk, or a block lost in a crash before users.csv was saved, must not leave the flag set.
+    private boolean reconcile(Account account) {
+        LibraryCard card = account.user == null ? null : account.user.getLibraryCard();
+        if (!account.blockedByLedger || card == null || card.isBlocked()) return false;
+        account.blockedByLedger = false;
+        System.out.println("FinesLedger: Card for " + account.user.getName() + " was unblocked outside the ledger.");
+        return true;
+    }
+
+    private long balance(Account account, long day) {
+        // Each accruing loan owes (day - dueDay) days, so the sum collapses to count * day - sum of due days.
+        return account.base + dailyFineCents * (account.overdueLoans * day - account.sumDueDays);
+    }
+
+    private boolean block(Account account) {
+        LibraryCard card = account.user == null ? null : account.user.getLibraryCard();
+        if (account.blockedByLedger || card == null || card.isBlocked()) return false;
+        account.blockedByLedger = true;
+        card.setBlocked(true);
+        System.out.println("FinesLedger: Card for " + account.user.getName() + " blocked, outstanding fines reached " + format(blockThresholdCents) + ".");
+        return true;
+    }
+
+    private void unschedule(Account account) {
+        if (account.checkDay == Long.MIN_VALUE) return;
+        Set<Account> scheduled = thresholdChecks.get(account.checkDay);
+        if (scheduled != null) {
+            scheduled.remove(account);
+            if (scheduled.isEmpty()) thresholdChecks.remove(account.checkDay);
+        }
+        account.checkDay = Long.MIN_VALUE;
+    }
+
+    private void scheduleCheck(Account account) {
+        unschedule(account);
+        long day;
+        if (account.blockedByLedger) {
+            // Re-check on the next sweep, so an unblock made outside the ledger is noticed.
+            day = currentDay == Long.MIN_VALUE ? Long.MIN_VALUE + 1 : currentDay + 1;
+        } else if (account.overdueLoans == 0) {
+            if (account.base < blockThresholdCents) return;
+            day = Long.MIN_VALUE + 1;
+        } else {
+            // First day on which base + rate * (n * day - sumDueDays) reaches the threshold.
+            long perDay = dailyFineCents * account.overdueLoans;
+            long needed = blockThresholdCents - account.base + dailyFineCents * account.sumDueDays;
+            day = Math.floorDiv(needed + perDay - 1, perDay);
+        }
+        account.checkDay = day;
+        thresholdChecks.computeIfAbsent(day, k -> new HashSet<>()).add(account);
+    }
+
+    private void load() {
+        if (file == null || !file.exists()) return;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length != 3) continue;
+                try {
+                    Account account = new Account(Integer.parseInt(parts[0].trim()));
+                    account.base = Long.parseLong(parts[1].trim());
+                    account.blockedByLedger = Boolean.parseBoolean(parts[2].trim());
+                    accounts.put(account.userId, account);
+                } catch (NumberFormatException e) {
+                    System.err.println("FinesLedger: Skipping malformed line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("FinesLedger: Could not load fines from " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void save() {
+        if (file == null) return;
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tempFile);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos))) {
+            for (Account account : accounts.values()) {
+                if (account.base == 0 && !account.blockedByLedger) continue;
+                writer.write(account.userId + "," + account.base + "," + account.blockedByLedger + "\n");
+            }
+            writer.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            System.err.println("FinesLedger: Could not save fines to " + file + ": " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("FinesLedger: Could not save fines to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static class Account {
+        private final int userId;
+        private User user;
+        private long base;
+        private int overdueLoans;
+        private long sumDueDays;
+        private boolean blockedByLedger;
+        private long checkDay = Long.MIN_VALUE;
+
+        Account(int userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.util.Collections;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinesLedgerTest {
+
+    private static final String TEST_BOOKS_FILE = "fines_test_books.csv";
+    private static final File FINES_FILE = new File("test_fines.csv");
+
+    private final Date due = new Date(2025, 5, 9);
+    private TestFixtures fixtures;
+    private Executor executor;
+    private Book book1;
+    private Book book2;
+    private User reader;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(TEST_BOOKS_FILE, due, FINES_FILE, new File(FINES_FILE.getPath() + ".tmp"));
+        executor = fixtures.executor;
+        book1 = fixtures.addBook("Fines Book 1", "Author F1", "ISBN_F1");
+        book2 = fixtures.addBook("Fines Book 2", "Author F2", "ISBN_F2");
+        reader = fixtures.newReader(1, "Fined");
+        other = fixtures.newReader(2, "Other");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void testFinesAccrueFromDueDateAndBlockCardAtThreshold() {
+        System.out.println("Running testFinesAccrueFromDueDateAndBlockCardAtThreshold...");
+        FinesLedger ledger = new FinesLedger(FINES_FILE, 25, 1000);
+        executor.attachFinesLedger(ledger);
+        executor.createBorrow(book1, reader, due.minusDays(5), due);
+        executor.createBorrow(book2, reader, due.minusDays(5), due.plusDays(10));
+
+        executor.processOverdueLoans(due.plusDays(1));
+        assertEquals(25, executor.getFineBalance(reader, due.plusDays(1)));
+        executor.processOverdueLoans(due.plusDays(20));
+        assertEquals(2, ledger.getAccruingLoanCount());
+        assertEquals(750, executor.getFineBalance(reader, due.plusDays(20)), "20 days on Book1 plus 10 days on Book2.");
+
+        executor.returnBook(book2, reader, due.plusDays(20));
+        assertEquals(1, ledger.getAccruingLoanCount(), "Returned loans stop accruing.");
+        assertEquals(750, executor.getFineBalance(reader, due.plusDays(20)));
+        assertEquals(775, executor.getFineBalance(reader, due.plusDays(21)));
+
+        executor.processOverdueLoans(due.plusDays(29));
+        assertFalse(reader.getLibraryCard().isBlocked());
+        executor.processOverdueLoans(due.plusDays(30));
+        assertTrue(reader.getLibraryCard().isBlocked(), "Card should be blocked once fines reach the threshold.");
+
+        assertThrows(IllegalArgumentException.class, () -> executor.payFine(reader, 5000, due.plusDays(30)));
+        assertEquals(900, executor.payFine(reader, 100, due.plusDays(30)));
+        assertFalse(reader.getLibraryCard().isBlocked(), "Paying below the threshold should unblock the card.");
+
+        executor.returnBook(book1, reader, due.plusDays(31));
+        assertEquals(0, ledger.getAccruingLoanCount());
+        assertEquals(925, executor.getFineBalance(reader, due.plusDays(60)), "Nothing accrues after the last return.");
+
+        executor.createBorrow(book2, other, due.plusDays(31), due.plusDays(32));
+        executor.returnBook(book2, other, due.plusDays(40));
+        assertEquals(200, executor.getFineBalance(other, due.plusDays(40)), "Late returns are charged even between sweeps.");
+
+        FinesLedger reloaded = new FinesLedger(FINES_FILE, 25, 1000);
+        assertEquals(925, reloaded.getBalance(reader, due.plusDays(60)));
+        assertEquals(200, reloaded.getBalance(other, due.plusDays(60)));
+        assertFalse(new File(FINES_FILE.getPath() + ".tmp").exists(), "Saves go through a temp file that is renamed into place.");
+        System.out.println("Finished testFinesAccrueFromDueDateAndBlockCardAtThreshold.");
+    }
+
+    @Test
+    void testManualUnblockIsReconciledOnTheNextSweep() {
+        System.out.println("Running testManualUnblockIsReconciledOnTheNextSweep...");
+        FinesLedger ledger = new FinesLedger(FINES_FILE, 25, 1000);
+        executor.attachFinesLedger(ledger);
+        executor.createBorrow(book1, reader, due.minusDays(5), due);
+        executor.processOverdueLoans(due.plusDays(40));
+        assertTrue(reader.getLibraryCard().isBlocked());
+
+        reader.getLibraryCard().setBlocked(false);
+        executor.returnBook(book1, reader, due.plusDays(40));
+        assertTrue(reader.getLibraryCard().isBlocked(), "Fines still above the threshold block the card again.");
+
+        assertEquals(0, executor.payFine(reader, 1000, due.plusDays(41)));
+        assertFalse(reader.getLibraryCard().isBlocked(), "The ledger still owns the block, so paying releases it.");
+        System.out.println("Finished testManualUnblockIsReconciledOnTheNextSweep.");
+    }
+
+    @Test
+    void testBlockLostInACrashIsReconciledOnLoad() {
+        System.out.println("Running testBlockLostInACrashIsReconciledOnLoad...");
+        FinesLedger ledger = new FinesLedger(FINES_FILE, 25, 1000);
+        executor.attachFinesLedger(ledger);
+        executor.createBorrow(book1, reader, due.minusDays(5), due);
+        executor.processOverdueLoans(due.plusDays(40));
+        executor.returnBook(book1, reader, due.plusDays(40));
+        assertTrue(reader.getLibraryCard().isBlocked());
+
+        User restarted = fixtures.newReader(1, "Fined");
+        assertFalse(restarted.getLibraryCard().isBlocked(), "users.csv was not saved before the crash.");
+        FinesLedger reloaded = new FinesLedger(FINES_FILE, 25, 1000);
+        reloaded.bindUsers(Collections.singletonList(restarted));
+        assertEquals(1, reloaded.advanceTo(due.plusDays(41)).size(), "The reloaded ledger blocks the card again.");
+        assertTrue(restarted.getLibraryCard().isBlocked());
+
+        assertEquals(0, reloaded.pay(restarted, 1000, due.plusDays(41)));
+        assertFalse(restarted.getLibraryCard().isBlocked());
+        System.out.println("Finished testBlockLostInACrashIsReconciledOnLoad.");
+    }
+}
@@ -1,17 +1,20 @@
 package com.librarysystem;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Gateway {
     private com.librarysystem.IPresent present;
     private com.librarysystem.IReadWrite readWrite;
     private com.librarysystem.Executor executor;
+    private com.librarysystem.QueryPlanner queryPlanner;
 
     public Gateway(com.librarysystem.IPresent present, com.librarysystem.IReadWrite readWrite) {
         this.present = present;
         this.readWrite = readWrite;
         this.executor = new com.librarysystem.Executor(present, readWrite);
+        this.queryPlanner = new com.librarysystem.QueryPlanner(readWrite);
     }
 
     public Executor getExecutor() {
@@ -26,14 +29,32 @@ public class Gateway {
         executor.createBorrow(book, user, borrowDate, returnDate);
     }
 
+    public com.librarysystem.BatchResult<com.librarysystem.Book> createBorrows(List<com.librarysystem.Book> books, com.librarysystem.User user, com.librarysystem.Date borrowDate, com.librarysystem.Date returnDate) {
+        return executor.createBorrows(books, user, borrowDate, returnDate);
+    }
+
+    public com.librarysystem.BatchResult<com.librarysystem.Book> returnBooks(List<com.librarysystem.Book> books, com.librarysystem.User user, com.librarysystem.Date returnDate) {
+        return executor.returnBooks(books, user, returnDate);
+    }
+
     public void returnBook(com.librarysystem.Book book, com.librarysystem.User user) {
         executor.returnBook(book, user);
     }
 
+    public void returnBook(com.librarysystem.Book book, com.librarysystem.User user, com.librarysystem.Date returnDate) {
+        executor.returnBook(book, user, returnDate);
+    }
+
     public void addBook(com.librarysystem.Book book) {
         executor.addBook(book);
     }
 
+    public com.librarysystem.BookImporter.ImportReport importBooks(String filePath) throws java.io.IOException {
+        try (java.io.Reader source = new java.io.InputStreamReader(new java.io.FileInputStream(filePath), java.nio.charset.StandardCharsets.UTF_8)) {
+            return executor.importBooks(source);
+        }
+    }
+
     public void removeBookById(int bookId) {
         com.librarysystem.Book book = readWrite.findBookById(bookId);
         if (book != null) {
@@ -43,30 +64,90 @@ public class Gateway {
         }
     }
 
+    public com.librarysystem.BatchResult<Integer> removeBooks(java.util.Collection<Integer> bookIds) {
+        return executor.removeBooks(bookIds);
+    }
+
+    public com.librarysystem.BatchResult<Integer> removeBooksMatching(java.util.function.Predicate<com.librarysystem.Book> predicate) {
+        return executor.removeBooksMatching(predicate);
+    }
+
     public List<com.librarysystem.Book> listAvailableBooks() {
-        List<com.librarysystem.Book> allBooks = present.getPresentableBooks();
-        List<com.librarysystem.Book> availableBooks = new ArrayList<>();
-        for (com.librarysystem.Book book : allBooks) {
-            if (book.isAvailable()) {
-                availableBooks.add(book);
-            }
-        }
-        return availableBooks;
+        return streamAvailableBooks().collect(Collectors.toList());
     }
 
     public List<com.librarysystem.Book> searchBooks(String searchTerm) {
-        List<com.librarysystem.Book> allBooks = present.getPresentableBooks();
-        List<com.librarysystem.Book> foundBooks = new ArrayList<>();
+        return streamSearchBooks(searchTerm).collect(Collectors.toList());
+    }
+
+    public Stream<com.librarysystem.Book> streamAvailableBooks() {
+        return present.streamPresentableBooks()
+                .filter(com.librarysystem.Book::isAvailable);
+    }
+
+    public Stream<com.librarysystem.Book> streamSearchBooks(String searchTerm) {
         String lowerSearchTerm = searchTerm.toLowerCase();
-        for (com.librarysystem.Book book : allBooks) {
-            if (book.getTitle().toLowerCase().contains(lowerSearchTerm) ||
-                    book.getAuthor().toLowerCase().contains(lowerSearchTerm) ||
-                    (book.getIsbn() != null && book.getIsbn().toLowerCase().contains(lowerSearchTerm)) ||
-                    (book.getGenre() != null && book.getGenre().toLowerCase().contains(lowerSearchTerm))) {
-                foundBooks.add(book);
-            }
-        }
-        return foundBooks;
+        return present.streamPresentableBooks()
+                .filter(book -> matchesSearchTerm(book, lowerSearchTerm));
+    }
+
+    private boolean matchesSearchTerm(com.librarysystem.Book book, String lowerSearchTerm) {
+        return book.getTitle().toLowerCase().contains(lowerSearchTerm) ||
+                book.getAuthor().toLowerCase().contains(lowerSearchTerm) ||
+                (book.getIsbn() != null && book.getIsbn().toLowerCase().contains(lowerSearchTerm)) ||
+                (book.getGenre() != null && book.getGenre().toLowerCase().contains(lowerSearchTerm));
+    }
+
+    public List<com.librarysystem.Book> browseBooksByTitle(com.librarysystem.Book after, int pageSize) {
+        return readWrite.getBooksSortedByTitle(after, pageSize);
+    }
+
+    public List<com.librarysystem.Book> browseBooksByAuthor(com.librarysystem.Book after, int pageSize) {
+        return readWrite.getBooksSortedByAuthor(after, pageSize);
+    }
+
+    public List<com.librarysystem.Book> findBooksByTitleRange(String fromTitle, String toTitle) {
+        return readWrite.getBooksInTitleRange(fromTitle, toTitle);
+    }
+
+    public List<com.librarysystem.Book> findBooksByAuthorRange(String fromAuthor, String toAuthor) {
+        return readWrite.getBooksInAuthorRange(fromAuthor, toAuthor);
+    }
+
+    public com.librarysystem.QueryResult query(com.librarysystem.CatalogQuery query) {
+        return queryPlanner.execute(query);
+    }
+
+    public String explain(com.librarysystem.CatalogQuery query) {
+        return queryPlanner.plan(query).explain();
+    }
+
+    public String explainAnalyze(com.librarysystem.CatalogQuery query) {
+        return queryPlanner.execute(query).explain();
+    }
+
+    public List<com.librarysystem.PopularityTracker.Ranking> getMostBorrowed(com.librarysystem.PopularityTracker.Window window, int k, com.librarysystem.Date asOf) {
+        return executor.getMostBorrowed(window, k, asOf);
+    }
+
+    public List<com.librarysystem.CoBorrowIndex.Recommendation> getAlsoBorrowed(int bookId, int limit) {
+        return executor.getAlsoBorrowed(bookId, limit);
+    }
+
+    public long getFineBalance(com.librarysystem.User user, com.librarysystem.Date asOf) {
+        return executor.getFineBalance(user, asOf);
+    }
+
+    public long payFine(com.librarysystem.User user, long amountCents, com.librarysystem.Date paymentDate) {
+        return executor.payFine(user, amountCents, paymentDate);
+    }
+
+    public List<com.librarysystem.LoanHistory.Loan> getLoanHolders(int bookId, com.librarysystem.Date day) {
+        return executor.getLoanHolders(bookId, day);
+    }
+
+    public List<com.librarysystem.LoanHistory.Loan> getLoansBetween(com.librarysystem.Date from, com.librarysystem.Date to) {
+        return executor.getLoansBetween(from, to);
     }
 
     public com.librarysystem.Book findBookById(int id) {
@@ -74,20 +155,17 @@ public class Gateway {
     }
 
     public List<com.librarysystem.Borrow> getUserBorrows(com.librarysystem.User user) {
-        List<com.librarysystem.Borrow> userBorrows = new ArrayList<>();
-        if (user == null) return userBorrows;
-        for (com.librarysystem.Borrow b : executor.getBorrows()) {
-            if (b.getUser().getId() == user.getId()) {
-                userBorrows.add(b);
-            }
-        }
-        return userBorrows;
+        return executor.getActiveUserBorrows(user);
     }
 
     public List<com.librarysystem.Reservation> getUserActiveReservations(com.librarysystem.User user) {
         return executor.getActiveUserReservations(user);
     }
 
+    public int getReservationQueuePosition(com.librarysystem.Book book, com.librarysystem.User user) {
+        return executor.getReservationQueuePosition(book, user);
+    }
+
     public List<com.librarysystem.Reservation> getAllActiveReservations() {
         return executor.getAllActiveReservations();
     }
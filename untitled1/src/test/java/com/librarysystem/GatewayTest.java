@@ -159,4 +159,127 @@ class GatewayTest {
         assertTrue(resultsNotFound.isEmpty(), "Search for non-existent criteria should return empty list.");
         System.out.println("Finished testSearchBooks.");
     }
+
+    @Test
+    void testStreamSearchBooksStopsEarlyWithLimit() {
+        System.out.println("Running testStreamSearchBooksStopsEarlyWithLimit...");
+        for (int i = 0; i < 5; i++) {
+            gateway.addBook(new Book("Stream Title " + i, "Author S", "Genre S", "Desc S", "ISBN_S" + i));
+        }
+
+        List<Book> firstPage = gateway.streamSearchBooks("stream title")
+                .limit(2)
+                .collect(java.util.stream.Collectors.toList());
+        assertEquals(2, firstPage.size(), "limit(2) should return only the first two matches.");
+        assertTrue(firstPage.get(0).getTitle().startsWith("Stream Title"));
+
+        assertEquals(gateway.searchBooks("stream title").size(), gateway.streamSearchBooks("stream title").count(),
+                "Streaming and list search should return the same number of results.");
+        assertEquals(gateway.listAvailableBooks().size(), gateway.streamAvailableBooks().count(),
+                "Streaming and list availability should agree.");
+        System.out.println("Finished testStreamSearchBooksStopsEarlyWithLimit.");
+    }
+
+    @Test
+    void testStreamAvailableBooksDoesNotCopyTheCatalogue() {
+        System.out.println("Running testStreamAvailableBooksDoesNotCopyTheCatalogue...");
+        for (int i = 0; i < 50; i++) {
+            gateway.addBook(new Book("Lazy Title " + i, "Author L", "Genre L", "Desc L", "ISBN_L" + i));
+        }
+        int[] copies = new int[1];
+        int[] visited = new int[1];
+        IReadWrite countingStorage = new Storage(TEST_GW_BOOKS_FILE) {
+            @Override
+            public List<Book> getAllBooks() {
+                copies[0]++;
+                return super.getAllBooks();
+            }
+
+            @Override
+            public java.util.stream.Stream<Book> streamAllBooks() {
+                return super.streamAllBooks().peek(book -> visited[0]++);
+            }
+        };
+        Gateway countingGateway = new Gateway(new LookupArray(countingStorage), countingStorage);
+        copies[0] = 0;
+
+        assertTrue(countingGateway.streamAvailableBooks().findFirst().isPresent());
+        assertEquals(0, copies[0], "Streaming should not copy the catalogue into a list.");
+        assertEquals(1, visited[0], "findFirst should stop after the first available book.");
+        System.out.println("Finished testStreamAvailableBooksDoesNotCopyTheCatalogue.");
+    }
+
+    @Test
+    void testQueryPlannerCombinesFiltersAndExplains() {
+        System.out.println("Running testQueryPlannerCombinesFiltersAndExplains...");
+        Book robots = new Book("Robot Fables", "Stanislaw Lem", "Sci-Fi", "Tales of a robot kingdom", "ISBN_L1");
+        Book solaris = new Book("Solaris", "Stanislaw Lem", "Sci-Fi", "An ocean planet", "ISBN_L2");
+        Book borrowedRobots = new Book("The Cyberiad", "Stanislaw Lem", "Sci-Fi", "Robot constructors", "ISBN_L3");
+        Book otherRobot = new Book("I, Robot", "Isaac Asimov", "Sci-Fi", "Three laws", "ISBN_A1");
+        gateway.addBook(robots);
+        gateway.addBook(solaris);
+        gateway.addBook(borrowedRobots);
+        gateway.addBook(otherRobot);
+        gateway.createBorrow(borrowedRobots, readerUser, simulatedTestCurrentDate, simulatedTestCurrentDate.addMonths(1));
+
+        CatalogQuery query = CatalogQuery.create().availableOnly().genre("sci-fi").author("Lem").containing("robot");
+        QueryResult result = gateway.query(query);
+
+        assertEquals(1, result.getBooks().size(), "Only the available Lem robot book should match.");
+        assertEquals(robots.getId(), result.getBooks().get(0).getId());
+
+        List<QueryPlan.Step> steps = result.getPlan().getSteps();
+        assertEquals("AUTHOR_INDEX[lem]", steps.get(0).getName(), "Author is the most selective index here.");
+        assertEquals(3, steps.get(0).getActualRows());
+        assertEquals(1, steps.get(steps.size() - 1).getActualRows());
+        String explained = gateway.explain(query);
+        assertTrue(explained.contains("estimated="), "Explain output should include estimates.");
+        assertTrue(explained.contains("AUTHOR_INDEX[lem] (estimated=3, actual=n/a)"), "Explain should plan without executing.");
+        assertFalse(explained.contains("actual=1"), "Explain should not report actual row counts.");
+        assertTrue(gateway.explainAnalyze(query).contains("AUTHOR_INDEX[lem] (estimated=3, actual=3)"),
+                "Explain analyze should execute the query and report actual rows.");
+        System.out.println("Finished testQueryPlannerCombinesFiltersAndExplains.");
+    }
+
+    @Test
+    void testImportBooksStreamsDedupesAndReportsRejects() throws IOException {
+        System.out.println("Running testImportBooksStreamsDedupesAndReportsRejects...");
+        File vendorFile = new File("gateway_test_import.csv");
+        try (java.io.PrintWriter writer = new java.io.PrintWriter(vendorFile, "UTF-8")) {
+            writer.println("Title;Author;Genre;Description;ISBN");
+            writer.println("Gateway Test Book;Author GW;Genre GW;Already in catalog;ISBN_GW1");
+            for (int i = 1; i <= 25; i++) {
+                writer.println("Imported Title " + i + ";Vendor Author;Vendor Genre;Vendor copy;ISBN_IMP" + i);
+            }
+            writer.println("Imported Title 3;Vendor Author;Vendor Genre;Duplicate row;ISBN_IMP3");
+            writer.println("Broken row without enough fields");
+            writer.println(";Nameless Author;Genre;Desc;ISBN_BAD");
+        }
+        try {
+            BookImporter importer = new BookImporter(testStorage, testLookupArray, 10);
+            BookImporter.ImportReport report;
+            try (java.io.Reader source = new java.io.FileReader(vendorFile)) {
+                report = importer.importFrom(source);
+            }
+            System.out.println("Import report: " + report + " " + report.getRejectionDetails());
+
+            assertTrue(report.isFinished());
+            assertEquals(25, report.getImported());
+            assertEquals(2, report.getDuplicates(), "The existing catalog entry and the repeated row are duplicates.");
+            assertEquals(2, report.getRejected());
+            assertTrue(report.getRejectionDetails().containsKey(29L));
+            assertEquals(26, testStorage.getAllBooks().size());
+            assertTrue(testLookupArray.isPresent("Imported Title 25", "Vendor Author"));
+
+            java.util.Set<Integer> ids = new java.util.HashSet<>();
+            for (Book book : testStorage.getAllBooks()) {
+                assertTrue(ids.add(book.getId()), "Imported books must get unique IDs.");
+            }
+            assertEquals(26, new Storage(TEST_GW_BOOKS_FILE).getAllBooks().size(), "Appended batches must reload from disk.");
+            assertEquals(0, gateway.importBooks(vendorFile.getPath()).getImported(), "Re-importing the same file adds nothing.");
+        } finally {
+            vendorFile.delete();
+        }
+        System.out.println("Finished testImportBooksStreamsDedupesAndReportsRejects.");
+    }
 }
\ No newline at end of file
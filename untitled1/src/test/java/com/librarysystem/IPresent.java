@@ -2,7 +2,10 @@ package com.librarysystem;
 
 public interface IPresent {
     void registerBook(com.librarysystem.Book book);
+    void registerBooks(java.util.Collection<com.librarysystem.Book> books);
     boolean isPresent(String title, String author);
     void removeBook(String title, String author);
+    void removeBooks(java.util.Collection<com.librarysystem.Book> books);
     java.util.List<com.librarysystem.Book> getPresentableBooks();
+    java.util.stream.Stream<com.librarysystem.Book> streamPresentableBooks();
 }
@@ -1,11 +1,23 @@
 package com.librarysystem;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public interface IReadWrite {
     void removeBook(int bookId);
+    void removeBooks(Collection<Integer> bookIds);
     void registerBook(com.librarysystem.Book book);
+    void registerBooks(List<com.librarysystem.Book> books);
     List<com.librarysystem.Book> getAllBooks();
+    Stream<com.librarysystem.Book> streamAllBooks();
     com.librarysystem.Book findBookById(int bookId);
     void updateBookAvailability(int bookId, boolean available);
+    void updateBooksAvailability(Map<Integer, Boolean> availabilityById);
+    List<com.librarysystem.Book> getBooksSortedByTitle(com.librarysystem.Book after, int limit);
+    List<com.librarysystem.Book> getBooksSortedByAuthor(com.librarysystem.Book after, int limit);
+    List<com.librarysystem.Book> getBooksInTitleRange(String fromTitle, String toTitle);
+    List<com.librarysystem.Book> getBooksInAuthorRange(String fromAuthor, String toAuthor);
+    com.librarysystem.CatalogIndex getCatalogIndex();
 }
@@ -0,0 +1,856 @@
+package com.librarysystem;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LibraryBenchmark {
+    private static final int USERS = 1000;
+    private static final int MEASURED_OPERATIONS = 2000;
+    private static final Date TODAY = new Date(2025, 5, 10);
+
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "all";
+        if ("checkout".equals(scenario) || "all".equals(scenario)) {
+            runCheckoutBenchmark(new int[]{10_000, 100_000, 400_000});
+        }
+        if ("reminders".equals(scenario) || "all".equals(scenario)) {
+            runReminderBenchmark(1_000_000, 60);
+        }
+        if ("recovery".equals(scenario) || "all".equals(scenario)) {
+            runRecoveryBenchmark(10_000_000, 90_000);
+        }
+        if ("throughput".equals(scenario) || "all".equals(scenario)) {
+            runThroughputBenchmark(new int[]{1, 2, 4, 8, 16, 32}, 200_000);
+        }
+        if ("import".equals(scenario) || "all".equals(scenario)) {
+            runImportBenchmark(50_000, 2_000);
+        }
+        if ("dates".equals(scenario) || "all".equals(scenario)) {
+            runDateBenchmark(2_000_000, 30_000);
+        }
+        if ("notifications".equals(scenario) || "all".equals(scenario)) {
+            runNotificationDispatchBenchmark(20_000);
+        }
+        if ("digest".equals(scenario) || "all".equals(scenario)) {
+            runDigestBenchmark(USERS, 10, 40);
+        }
+        if ("popularity".equals(scenario) || "all".equals(scenario)) {
+            runPopularityBenchmark(2_000_000, 100_000, 400);
+        }
+        if ("recommendations".equals(scenario) || "all".equals(scenario)) {
+            runRecommendationBenchmark(1_000_000, 100_000, 50_000);
+        }
+        if ("fines".equals(scenario) || "all".equals(scenario)) {
+            runFinesBenchmark(300_000, 60, 90);
+        }
+        if ("loanhistory".equals(scenario) || "all".equals(scenario)) {
+            runLoanHistoryBenchmark(3_000_000, 100_000, 5 * 365);
+        }
+    }
+
+    public static void runCheckoutBenchmark(int[] loanVolumes) {
+        System.out.println("=== Checkout latency vs. open loan volume ===");
+        for (int loans : loanVolumes) {
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            List<User> users = createUsers(USERS, loans / USERS + MEASURED_OPERATIONS);
+            List<Book> books = createBooks(catalog, loans + MEASURED_OPERATIONS);
+
+            double nanosPerCheckout = quietly(() -> {
+                for (int i = 0; i < loans; i++) {
+                    executor.createBorrow(books.get(i), users.get(i % USERS), TODAY, TODAY.addMonths(1));
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+                    executor.createBorrow(books.get(loans + i), users.get(i % USERS), TODAY, TODAY.addMonths(1));
+                }
+                return (System.nanoTime() - start) / (double) MEASURED_OPERATIONS;
+            });
+            System.out.printf("open loans=%,d  checkout=%.1f us/op%n", loans, nanosPerCheckout / 1000.0);
+        }
+    }
+
+    public static void runReminderBenchmark(int loans, int dueDaySpread) {
+        System.out.println("=== Return reminder check with " + String.format("%,d", loans) + " open loans ===");
+        InMemoryCatalog catalog = new InMemoryCatalog();
+        Executor executor = new Executor(new LookupArray(catalog), catalog);
+        List<User> users = createUsers(USERS * 10, loans / (USERS * 10) + 1);
+        List<Book> books = createBooks(catalog, loans);
+
+        quietly(() -> {
+            for (int i = 0; i < loans; i++) {
+                executor.createBorrow(books.get(i), users.get(i % users.size()), TODAY, TODAY.plusDays(1 + i % dueDaySpread));
+            }
+            return null;
+        });
+
+        int keypresses = 10_000;
+        double idleMicros = quietly(() -> {
+            executor.checkAndNotifyForUpcomingReturns(TODAY, 7);
+            long start = System.nanoTime();
+            for (int i = 0; i < keypresses; i++) {
+                executor.checkAndNotifyForUpcomingReturns(TODAY, 7);
+            }
+            return (System.nanoTime() - start) / (double) keypresses / 1000.0;
+        });
+        System.out.printf("menu keypress check (nothing newly due): %.2f us/call%n", idleMicros);
+
+        int days = 30;
+        double dailyMillis = quietly(() -> {
+            long start = System.nanoTime();
+            for (int day = 1; day <= days; day++) {
+                executor.checkAndNotifyForUpcomingReturns(TODAY.plusDays(day), 7);
+            }
+            return (System.nanoTime() - start) / (double) days / 1_000_000.0;
+        });
+        System.out.printf("day rollover check (~%,d loans newly due per day): %.2f ms/call%n",
+                loans / dueDaySpread, dailyMillis);
+    }
+
+    public static void runRecoveryBenchmark(int historicalEvents, int bookCount) {
+        System.out.println("=== Journal recovery with " + String.format("%,d", historicalEvents) + " historical events (books.csv-backed Storage) ===");
+        java.io.File journalDir = new java.io.File("benchmark_journal");
+        java.io.File booksFile = new java.io.File("benchmark_recovery_books.csv");
+        deleteDirectory(journalDir);
+        booksFile.delete();
+        try {
+            Storage catalog = quietly(() -> createStorage(booksFile, bookCount));
+            List<User> users = createUsers(USERS * 10, bookCount);
+
+            EventJournal writer = new EventJournal(journalDir, Integer.MAX_VALUE, false);
+            long writeStart = System.nanoTime();
+            int firstDay = (int) TODAY.toEpochDay();
+            for (int i = 0; i < historicalEvents; i++) {
+                int round = i / bookCount;
+                int bookId = i % bookCount + 1;
+                int userId = (bookId + round / 2) % users.size() + 1;
+                LibraryEvent.Type type = round % 2 == 0 ? LibraryEvent.Type.BORROW : LibraryEvent.Type.RETURN;
+                writer.append(LibraryEvent.of(type, bookId, userId, firstDay + round, firstDay + round + 30, null));
+            }
+            writer.close();
+            System.out.printf("wrote journal: %.1f s, %,d bytes%n", (System.nanoTime() - writeStart) / 1e9,
+                    new java.io.File(journalDir, "journal.log").length());
+
+            EventJournal fullReplay = new EventJournal(journalDir, EventJournal.DEFAULT_SNAPSHOT_INTERVAL, false);
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            EventJournal.RecoveryReport full = quietly(() -> executor.recoverFrom(fullReplay, users));
+            System.out.printf("full replay: %s (%.0f events/s), open loans=%,d%n", full,
+                    full.getJournalEvents() * 1000.0 / Math.max(1, full.getElapsedMillis()), executor.getBorrows().size());
+            executor.snapshotJournal();
+            fullReplay.close();
+
+            Storage freshCatalog = quietly(() -> new Storage(booksFile.getPath()));
+            List<User> freshUsers = createUsers(USERS * 10, bookCount);
+            EventJournal fromSnapshot = new EventJournal(journalDir, EventJournal.DEFAULT_SNAPSHOT_INTERVAL, false);
+            Executor recovered = new Executor(new LookupArray(freshCatalog), freshCatalog);
+            EventJournal.RecoveryReport bounded = quietly(() -> recovered.recoverFrom(fromSnapshot, freshUsers));
+            fromSnapshot.close();
+            System.out.printf("replay after snapshot: %s, open loans=%,d%n", bounded, recovered.getBorrows().size());
+        } catch (java.io.IOException e) {
+            System.err.println("Recovery benchmark failed: " + e.getMessage());
+        } finally {
+            deleteDirectory(journalDir);
+            booksFile.delete();
+        }
+    }
+
+    public static void runThroughputBenchmark(int[] threadCounts, int operationsPerRun) {
+        System.out.println("=== Concurrent checkout/return throughput (" + Runtime.getRuntime().availableProcessors() + " CPUs) ===");
+        for (int threads : threadCounts) {
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            int booksPerThread = 64;
+            List<User> users = createUsers(threads * 8, booksPerThread);
+            List<Book> books = createBooks(catalog, threads * booksPerThread);
+            int operationsPerThread = operationsPerRun / threads / 2;
+
+            double opsPerSecond = quietly(() -> measureDeskThroughput(executor, books, users, threads, booksPerThread, operationsPerThread));
+            System.out.printf("threads=%2d  throughput=%,.0f ops/s%n", threads, opsPerSecond);
+        }
+        // Storage rewrites and fsyncs books.csv under its monitor on every availability change,
+        // so with the file-backed catalog every checkout serialises on that write.
+        java.io.File booksFile = new java.io.File("benchmark_throughput_books.csv");
+        for (int threads : new int[]{1, 4}) {
+            booksFile.delete();
+            int booksPerThread = 64;
+            Storage storage = quietly(() -> createStorage(booksFile, threads * booksPerThread));
+            Executor executor = new Executor(new LookupArray(storage), storage);
+            List<User> users = createUsers(threads * 8, booksPerThread);
+            List<Book> books = new ArrayList<>(storage.getAllBooks());
+            books.sort(java.util.Comparator.comparingInt(Book::getId));
+            double opsPerSecond = quietly(() -> measureDeskThroughput(executor, books, users, threads, booksPerThread, 200 / threads));
+            System.out.printf("threads=%2d  throughput=%,.0f ops/s (books.csv-backed Storage)%n", threads, opsPerSecond);
+        }
+        booksFile.delete();
+    }
+
+    private static double measureDeskThroughput(Executor executor, List<Book> books, List<User> users, int threads,
+                                                int booksPerThread, int operationsPerThread) {
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int desk = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operationsPerThread; i++) {
+                    Book book = books.get(desk * booksPerThread + i % booksPerThread);
+                    User user = users.get(desk * 8 + i % 8);
+                    executor.createBorrow(book, user, TODAY, TODAY.addMonths(1));
+                    executor.returnBook(book, user, TODAY);
+                }
+            }, "desk-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return threads * operationsPerThread * 2 / ((System.nanoTime() - begin) / 1e9);
+    }
+
+    public static void runImportBenchmark(int vendorRecords, int singleAdds) {
+        System.out.println("=== Catalog import of " + String.format("%,d", vendorRecords) + " vendor records ===");
+        java.io.File vendorFile = new java.io.File("benchmark_vendor.csv");
+        java.io.File bulkCatalog = new java.io.File("benchmark_bulk_books.csv");
+        java.io.File singleCatalog = new java.io.File("benchmark_single_books.csv");
+        try {
+            try (java.io.PrintWriter writer = new java.io.PrintWriter(vendorFile, "UTF-8")) {
+                writer.println("Title;Author;Genre;Description;ISBN");
+                for (int i = 1; i <= vendorRecords; i++) {
+                    writer.println("Vendor Title " + i + ";Vendor Author " + (i % 700) + ";Genre " + (i % 20) + ";Acquisition;VND" + i);
+                }
+            }
+
+            Storage bulkStorage = new Storage(bulkCatalog.getPath());
+            LookupArray bulkLookup = new LookupArray(bulkStorage);
+            BookImporter.ImportReport report = quietly(() -> {
+                try (java.io.Reader source = new java.io.FileReader(vendorFile)) {
+                    return new BookImporter(bulkStorage, bulkLookup).importFrom(source);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            System.out.println("streaming import: " + report);
+
+            Storage singleStorage = new Storage(singleCatalog.getPath());
+            Executor singleExecutor = new Executor(new LookupArray(singleStorage), singleStorage);
+            double millisPerAdd = quietly(() -> {
+                long start = System.nanoTime();
+                for (int i = 1; i <= singleAdds; i++) {
+                    singleExecutor.addBook(new Book("Single Title " + i, "Single Author", "Genre", "Acquisition", "SGL" + i));
+                }
+                return (System.nanoTime() - start) / (double) singleAdds / 1_000_000.0;
+            });
+            System.out.printf("addBook one at a time: %.2f ms/book over the first %,d books (%.0f books/s)%n",
+                    millisPerAdd, singleAdds, 1000.0 / millisPerAdd);
+        } catch (java.io.IOException e) {
+            System.err.println("Import benchmark failed: " + e.getMessage());
+        } finally {
+            vendorFile.delete();
+            bulkCatalog.delete();
+            singleCatalog.delete();
+        }
+    }
+
+    public static void runDateBenchmark(int iterations, int userCount) {
+        System.out.println("=== Date arithmetic, parsing and user load ===");
+        String[] isoDates = new String[1024];
+        for (int i = 0; i < isoDates.length; i++) {
+            isoDates[i] = TODAY.plusDays(i * 37L).toString();
+        }
+        for (int round = 0; round < 3; round++) {
+            long[] checksum = new long[1];
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Date due = TODAY.plusDays(i & 63);
+                Date threshold = TODAY.plusDays(7);
+                if (!due.isBefore(TODAY) && !due.isAfter(threshold)) checksum[0]++;
+            }
+            long reminderNanos = System.nanoTime() - start;
+            long reminderBytes = allocatedBytes() - bytes;
+
+            bytes = allocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                checksum[0] += Date.fromString(isoDates[i & 1023]).getDay();
+            }
+            long parseNanos = System.nanoTime() - start;
+            long parseBytes = allocatedBytes() - bytes;
+            System.out.printf("round %d: reminder window check %.1f ns/op %.1f B/op | ISO parse %.1f ns/op %.1f B/op (checksum %d)%n",
+                    round + 1, reminderNanos / (double) iterations, reminderBytes / (double) iterations,
+                    parseNanos / (double) iterations, parseBytes / (double) iterations, checksum[0]);
+        }
+
+        java.io.File usersFile = new java.io.File("benchmark_users.csv");
+        try {
+            try (java.io.PrintWriter writer = new java.io.PrintWriter(usersFile, "UTF-8")) {
+                writer.println("ID;Name;Surname;Email;Role;Password;BookLimit;CardExpiry;CardBlocked");
+                for (int i = 1; i <= userCount; i++) {
+                    writer.println(i + ";Student" + i + ";Bench;student" + i + "@example.com;READER;pw;5;" + TODAY.plusDays(i % 900) + ";false");
+                }
+            }
+            for (int round = 0; round < 3; round++) {
+                long bytes = allocatedBytes();
+                long start = System.nanoTime();
+                AccessManager manager = quietly(() -> new AccessManager(usersFile.getPath()));
+                System.out.printf("round %d: load %,d users %.1f ms, %.0f B/user%n", round + 1, manager.getAllUsers().size(),
+                        (System.nanoTime() - start) / 1e6, (allocatedBytes() - bytes) / (double) userCount);
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Date benchmark failed: " + e.getMessage());
+        } finally {
+            usersFile.delete();
+        }
+    }
+
+    public static void runNotificationDispatchBenchmark(int handoffs) {
+        System.out.println("=== Reserve/return/borrow hand-offs with persistent inboxes ===");
+        for (boolean async : new boolean[]{false, true}) {
+            java.io.File inboxDir = new java.io.File("benchmark_inbox");
+            deleteDirectory(inboxDir);
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            List<User> users = createUsers(2 * USERS, 4);
+            for (User user : users) {
+                try {
+                    user.attachInbox(inboxDir);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            List<Book> books = createBooks(catalog, USERS);
+            NotificationDispatcher dispatcher = async ? new NotificationDispatcher() : null;
+            executor.attachDispatcher(dispatcher);
+
+            long[] latencies = quietly(() -> {
+                long[] samples = new long[handoffs];
+                for (int i = 0; i < USERS; i++) {
+                    executor.createBorrow(books.get(i), users.get(2 * i), TODAY, TODAY.addMonths(1));
+                }
+                for (int i = 0; i < handoffs; i++) {
+                    int slot = i % USERS;
+                    boolean firstHolds = (i / USERS) % 2 == 0;
+                    User holder = users.get(2 * slot + (firstHolds ? 0 : 1));
+                    User next = users.get(2 * slot + (firstHolds ? 1 : 0));
+                    Book book = books.get(slot);
+                    long start = System.nanoTime();
+                    executor.createReservation(book, next, TODAY);
+                    executor.returnBook(book, holder, TODAY);
+                    executor.createBorrow(book, next, TODAY, TODAY.addMonths(1));
+                    samples[i] = System.nanoTime() - start;
+                }
+                if (dispatcher != null) {
+                    dispatcher.awaitIdle(60_000);
+                    dispatcher.shutdown();
+                }
+                return samples;
+            });
+            java.util.Arrays.sort(latencies);
+            double mean = java.util.Arrays.stream(latencies).average().orElse(0);
+            System.out.printf("%-12s hand-off mean=%.1f us  p50=%.1f us  p99=%.1f us%n", async ? "async" : "synchronous",
+                    mean / 1000.0, latencies[latencies.length / 2] / 1000.0, latencies[latencies.length * 99 / 100] / 1000.0);
+            if (dispatcher != null) {
+                System.out.println("dispatcher: " + dispatcher.getMetrics());
+            }
+            deleteDirectory(inboxDir);
+        }
+    }
+
+    public static void runDigestBenchmark(int userCount, int loansPerUser, int days) {
+        System.out.println("=== Notifications written over " + days + " daily sweeps (" + userCount + " readers x "
+                + loansPerUser + " loans) ===");
+        for (boolean digestMode : new boolean[]{false, true}) {
+            java.io.File inboxDir = new java.io.File("benchmark_inbox");
+            deleteDirectory(inboxDir);
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            List<User> users = createUsers(userCount, loansPerUser);
+            for (User user : users) {
+                try {
+                    user.attachInbox(inboxDir);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            List<Book> books = createBooks(catalog, userCount * loansPerUser);
+            NotificationDigest digest = digestMode ? new NotificationDigest(NotificationDigest.DEFAULT_WINDOW_DAYS, TODAY) : null;
+
+            long millis = quietly(() -> {
+                for (int i = 0; i < books.size(); i++) {
+                    executor.createBorrow(books.get(i), users.get(i % userCount), TODAY, TODAY.plusDays(1 + i % 30));
+                }
+                executor.attachDigest(digest);
+                long start = System.nanoTime();
+                for (int day = 0; day < days; day++) {
+                    Date sweepDate = TODAY.plusDays(day);
+                    executor.checkAndNotifyForUpcomingReturns(sweepDate, 7);
+                    executor.processOverdueLoans(sweepDate);
+                    executor.processPickupExpirations(sweepDate);
+                    executor.flushNotificationDigests(sweepDate);
+                }
+                return (System.nanoTime() - start) / 1_000_000;
+            });
+            long written = 0;
+            for (User user : users) {
+                written += user.getInbox().getTotalCount();
+            }
+            long bytes = 0;
+            java.io.File[] files = inboxDir.listFiles();
+            if (files != null) {
+                for (java.io.File file : files) {
+                    bytes += file.length();
+                }
+            }
+            System.out.printf("%-8s messages written=%,d  inbox bytes=%,d  sweeps=%d ms%n", digestMode ? "digest" : "direct",
+                    written, bytes, millis);
+            if (digest != null) {
+                System.out.printf("digest: %,d notifications coalesced into %,d messages (%.1f%% fewer)%n",
+                        digest.getMessagesReceived(), digest.getDigestsSent(), digest.getReductionPercent());
+            }
+            deleteDirectory(inboxDir);
+        }
+    }
+
+    public static void runPopularityBenchmark(int borrows, int catalogSize, int days) {
+        System.out.println("=== Popularity tracking: " + String.format("%,d", borrows) + " borrows over " + days
+                + " days, " + String.format("%,d", catalogSize) + " titles ===");
+        PopularityTracker tracker = new PopularityTracker(TODAY);
+        java.util.Random random = new java.util.Random(42);
+        int[] bookIds = new int[borrows];
+        for (int i = 0; i < borrows; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            bookIds[i] = 1 + (int) (skewed * catalogSize);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < borrows; i++) {
+            tracker.recordBorrow(bookIds[i], TODAY.plusDays((long) i * days / borrows));
+        }
+        double feedNanos = (System.nanoTime() - start) / (double) borrows;
+        System.out.printf("record borrow: %.0f ns/op, tracked titles week/month/year = %,d / %,d / %,d%n", feedNanos,
+                tracker.getTrackedBooks(PopularityTracker.Window.WEEK), tracker.getTrackedBooks(PopularityTracker.Window.MONTH),
+                tracker.getTrackedBooks(PopularityTracker.Window.YEAR));
+
+        int queries = 100_000;
+        for (PopularityTracker.Window window : PopularityTracker.Window.values()) {
+            long begin = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < queries; i++) {
+                checksum += tracker.topK(window, 10).get(0).getCount();
+            }
+            System.out.printf("top-10 %-5s: %.0f ns/query (leader has %,d borrows)%n", window,
+                    (System.nanoTime() - begin) / (double) queries, checksum / queries);
+        }
+
+        for (boolean tracked : new boolean[]{false, true}) {
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            if (tracked) executor.attachPopularityTracker(new PopularityTracker(TODAY));
+            List<User> users = createUsers(USERS, MEASURED_OPERATIONS);
+            List<Book> books = createBooks(catalog, USERS * 10);
+            double micros = quietly(() -> {
+                for (int i = 0; i < MEASURED_OPERATIONS * 10; i++) {
+                    Book book = books.get(i % books.size());
+                    User user = users.get(i % USERS);
+                    executor.createBorrow(book, user, TODAY, TODAY.addMonths(1));
+                    executor.returnBook(book, user, TODAY);
+                }
+                long begin = System.nanoTime();
+                for (int i = 0; i < MEASURED_OPERATIONS * 10; i++) {
+                    Book book = books.get(i % books.size());
+                    User user = users.get(i % USERS);
+                    executor.createBorrow(book, user, TODAY, TODAY.addMonths(1));
+                    executor.returnBook(book, user, TODAY);
+                }
+                return (System.nanoTime() - begin) / 1000.0 / (MEASURED_OPERATIONS * 10);
+            });
+            System.out.printf("checkout+return %-9s: %.2f us/op%n", tracked ? "tracked" : "untracked", micros);
+        }
+    }
+
+    public static void runRecommendationBenchmark(int borrows, int catalogSize, int readers) {
+        System.out.println("=== Also-borrowed index: " + String.format("%,d", borrows) + " borrows, "
+                + String.format("%,d", catalogSize) + " titles, " + String.format("%,d", readers) + " readers ===");
+        java.util.Random random = new java.util.Random(7);
+        List<LibraryEvent> history = new ArrayList<>(borrows);
+        for (int i = 0; i < borrows; i++) {
+            int reader = 1 + random.nextInt(readers);
+            // Readers stick to a "shelf" of related titles most of the time, which gives the index real structure.
+            int shelf = reader % 2_000;
+            int bookId = random.nextInt(4) > 0
+                    ? 1 + (shelf * 50 + random.nextInt(50)) % catalogSize
+                    : 1 + (int) (Math.pow(random.nextDouble(), 2) * catalogSize);
+            history.add(LibraryEvent.of(LibraryEvent.Type.BORROW, bookId, reader, (int) TODAY.toEpochDay(), LibraryEvent.NO_DAY, null));
+        }
+
+        CoBorrowIndex index = new CoBorrowIndex();
+        long start = System.nanoTime();
+        for (LibraryEvent event : history) {
+            index.observe(event.getUserId(), event.getBookId());
+        }
+        double observeNanos = (System.nanoTime() - start) / (double) borrows;
+        long neighbourEntries = 0;
+        int maxNeighbours = 0;
+        for (int bookId = 1; bookId <= catalogSize; bookId++) {
+            int count = index.getNeighbourCount(bookId);
+            neighbourEntries += count;
+            maxNeighbours = Math.max(maxNeighbours, count);
+        }
+        System.out.printf("incremental observe: %.2f us/borrow, neighbour entries=%,d (max %d per title)%n",
+                observeNanos / 1000.0, neighbourEntries, maxNeighbours);
+
+        int queries = 200_000;
+        long checksum = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            checksum += index.recommend(1 + random.nextInt(catalogSize), 10).size();
+        }
+        System.out.printf("recommend top-10: %.2f us/query (avg %.1f results)%n",
+                (System.nanoTime() - begin) / 1000.0 / queries, checksum / (double) queries);
+
+        CoBorrowIndex rebuilt = new CoBorrowIndex();
+        quietly(() -> {
+            rebuilt.rebuild(history);
+            return null;
+        });
+        long rebuildStart = System.nanoTime();
+        quietly(() -> {
+            rebuilt.rebuild(history);
+            return null;
+        });
+        System.out.printf("offline rebuild from event history: %,d ms%n", (System.nanoTime() - rebuildStart) / 1_000_000);
+    }
+
+    public static void runFinesBenchmark(int loans, int dueDaySpread, int days) {
+        System.out.println("=== Overdue fines over " + days + " daily sweeps with " + String.format("%,d", loans) + " open loans ===");
+        for (boolean withLedger : new boolean[]{false, true}) {
+            InMemoryCatalog catalog = new InMemoryCatalog();
+            Executor executor = new Executor(new LookupArray(catalog), catalog);
+            List<User> users = createUsers(USERS * 10, loans / (USERS * 10) + 1);
+            List<Book> books = createBooks(catalog, loans);
+            FinesLedger ledger = withLedger ? new FinesLedger() : null;
+            executor.attachFinesLedger(ledger);
+            List<Borrow> borrows = new ArrayList<>(loans);
+            double[] rescanMillis = new double[1];
+
+            double sweepMillis = quietly(() -> {
+                for (int i = 0; i < loans; i++) {
+                    borrows.add((Borrow) executor.createBorrow(books.get(i), users.get(i % users.size()), TODAY,
+                            TODAY.plusDays(1 + i % dueDaySpread)));
+                }
+                long sweepNanos = 0;
+                long rescanNanos = 0;
+                for (int day = 1; day <= days; day++) {
+                    Date sweepDate = TODAY.plusDays(day);
+                    long start = System.nanoTime();
+                    executor.processOverdueLoans(sweepDate);
+                    sweepNanos += System.nanoTime() - start;
+                    if (!withLedger) {
+                        start = System.nanoTime();
+                        Map<Integer, Long> balances = new java.util.HashMap<>();
+                        for (Borrow borrow : borrows) {
+                            if (borrow.isOverdue(sweepDate)) {
+                                long overdueDays = sweepDate.toEpochDay() - borrow.getReturnDate().toEpochDay();
+                                balances.merge(borrow.getUser().getId(), overdueDays * FinesLedger.DEFAULT_DAILY_FINE_CENTS, Long::sum);
+                            }
+                        }
+                        rescanNanos += System.nanoTime() - start;
+                    }
+                }
+                rescanMillis[0] = rescanNanos / (double) days / 1_000_000.0;
+                return sweepNanos / (double) days / 1_000_000.0;
+            });
+            if (!withLedger) {
+                System.out.printf("no ledger: sweep=%.2f ms/day  full rescan of fines=%.2f ms/day%n", sweepMillis, rescanMillis[0]);
+                continue;
+            }
+            int queries = 1_000_000;
+            Date asOf = TODAY.plusDays(days);
+            long blocked = users.stream().filter(user -> user.getLibraryCard().isBlocked()).count();
+            long start = System.nanoTime();
+            long total = 0;
+            for (int i = 0; i < queries; i++) {
+                total += ledger.getBalance(users.get(i % users.size()), asOf);
+            }
+            double queryNanos = (System.nanoTime() - start) / (double) queries;
+            System.out.printf("ledger:    sweep=%.2f ms/day (incl. accrual)  balance lookup=%.0f ns  accruing loans=%,d  blocked cards=%,d  (checksum %d)%n",
+                    sweepMillis, queryNanos, ledger.getAccruingLoanCount(), blocked, total % 1000);
+        }
+    }
+
+    public static void runLoanHistoryBenchmark(int loans, int catalogSize, int days) {
+        System.out.println("=== Loan history audit over " + String.format("%,d", loans) + " completed loans spanning " + days + " days ===");
+        java.io.File historyDir = new java.io.File("benchmark_loan_history");
+        deleteDirectory(historyDir);
+        java.util.Random random = new java.util.Random(11);
+        int[] bookIds = new int[loans];
+        int[] startDays = new int[loans];
+        int[] endDays = new int[loans];
+        int[] nextFree = new int[catalogSize];
+        int recorded = 0;
+        long firstDay = TODAY.toEpochDay() - days;
+        try {
+            // Bulk load without a per-record fsync; the synced cost is measured separately below.
+            LoanHistory history = new LoanHistory(historyDir, false);
+            long start = System.nanoTime();
+            while (recorded < loans) {
+                int book = random.nextInt(catalogSize);
+                int from = nextFree[book] + random.nextInt(30);
+                int to = from + 1 + random.nextInt(random.nextInt(20) == 0 ? 120 : 28);
+                if (to >= days) continue;
+                nextFree[book] = to;
+                bookIds[recorded] = book;
+                startDays[recorded] = from;
+                endDays[recorded] = to;
+                history.record(book, book % USERS, Date.ofEpochDay(firstDay + from), Date.ofEpochDay(firstDay + to));
+                recorded++;
+            }
+            double recordMicros = (System.nanoTime() - start) / (double) loans / 1000.0;
+            history.close();
+
+            start = System.nanoTime();
+            LoanHistory reloaded = new LoanHistory(historyDir);
+            long reloadMillis = (System.nanoTime() - start) / 1_000_000;
+
+            int pointQueries = 200_000;
+            long found = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < pointQueries; i++) {
+                found += reloaded.whoHad(random.nextInt(catalogSize), Date.ofEpochDay(firstDay + random.nextInt(days))).size();
+            }
+            double whoHadMicros = (System.nanoTime() - start) / (double) pointQueries / 1000.0;
+
+            // One copy kept out for the whole span while its sibling copies (same book ID) circulate in short loans.
+            LoanHistory overlapping = new LoanHistory();
+            overlapping.record(0, 0, Date.ofEpochDay(firstDay), Date.ofEpochDay(firstDay + days));
+            int shortLoans = 100_000;
+            start = System.nanoTime();
+            for (int i = 0; i < shortLoans; i++) {
+                int from = (int) ((long) i * days / shortLoans);
+                overlapping.record(0, 1 + i % USERS, Date.ofEpochDay(firstDay + from), Date.ofEpochDay(firstDay + from + 1));
+            }
+            double overlappingRecordMicros = (System.nanoTime() - start) / (double) shortLoans / 1000.0;
+            long overlappingFound = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < pointQueries; i++) {
+                overlappingFound += overlapping.whoHad(0, Date.ofEpochDay(firstDay + random.nextInt(days))).size();
+            }
+            double overlappingMicros = (System.nanoTime() - start) / (double) pointQueries / 1000.0;
+
+            int dayQueries = 200;
+            long onLoan = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < dayQueries; i++) {
+                onLoan += reloaded.onLoanAt(Date.ofEpochDay(firstDay + random.nextInt(days))).size();
+            }
+            double onLoanMillis = (System.nanoTime() - start) / (double) dayQueries / 1_000_000.0;
+
+            long scanned = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < dayQueries; i++) {
+                int day = random.nextInt(days);
+                int book = random.nextInt(catalogSize);
+                for (int j = 0; j < loans; j++) {
+                    if (bookIds[j] == book && startDays[j] <= day && endDays[j] >= day) scanned++;
+                }
+            }
+            double scanMillis = (System.nanoTime() - start) / (double) dayQueries / 1_000_000.0;
+            long fileBytes = new java.io.File(historyDir, "loans.dat").length();
+
+            int syncedRecords = 2_000;
+            start = System.nanoTime();
+            for (int i = 0; i < syncedRecords; i++) {
+                reloaded.record(i % catalogSize, i % USERS, Date.ofEpochDay(firstDay + days), Date.ofEpochDay(firstDay + days + 1));
+            }
+            double syncedMicros = (System.nanoTime() - start) / (double) syncedRecords / 1000.0;
+            reloaded.close();
+
+            System.out.printf("record=%.2f us/loan unsynced, %.2f us/loan with fsync  reload=%d ms  file=%,d bytes%n",
+                    recordMicros, syncedMicros, reloadMillis, fileBytes);
+            System.out.printf("who had book X on day D: indexed=%.2f us/query  linear scan=%.2f ms/query  (%,d holders found)%n",
+                    whoHadMicros, scanMillis, found);
+            System.out.printf("who had a book with a span-long loan among %,d short ones: %.2f us/query, record=%.2f us/loan  (%,d holders found)%n",
+                    shortLoans, overlappingMicros, overlappingRecordMicros, overlappingFound);
+            System.out.printf("what was on loan on day D: %.2f ms/query, %,d loans per day on average%n",
+                    onLoanMillis, onLoan / dayQueries);
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            deleteDirectory(historyDir);
+        }
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static void deleteDirectory(java.io.File directory) {
+        java.io.File[] files = directory.listFiles();
+        if (files != null) {
+            for (java.io.File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    static List<User> createUsers(int count, int bookLimit) {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            users.add(new User(i, "Bench" + i, "Reader", "bench" + i + "@example.com", "READER", "pass",
+                    bookLimit, TODAY.addMonths(24)));
+        }
+        return users;
+    }
+
+    static List<Book> createBooks(InMemoryCatalog catalog, int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Book book = new Book(i, "Bench Title " + i, "Bench Author " + (i % 500), "Genre " + (i % 20),
+                    "Benchmark book", "BENCH" + i, true);
+            catalog.registerBook(book);
+            books.add(book);
+        }
+        return books;
+    }
+
+    static Storage createStorage(java.io.File booksFile, int count) {
+        Storage storage = new Storage(booksFile.getPath());
+        List<Book> books = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            books.add(new Book(i, "Bench Title " + i, "Bench Author " + (i % 500), "Genre " + (i % 20),
+                    "Benchmark book", "BENCH" + i, true));
+        }
+        storage.registerBooks(books);
+        return storage;
+    }
+
+    static <T> T quietly(java.util.function.Supplier<T> body) {
+        PrintStream original = System.out;
+        System.setOut(new SilentPrintStream());
+        try {
+            return body.get();
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    static class SilentPrintStream extends PrintStream {
+        SilentPrintStream() {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) { }
+            });
+        }
+
+        @Override
+        public void println(String x) { }
+
+        @Override
+        public void println(Object x) { }
+
+        @Override
+        public void print(String s) { }
+
+        @Override
+        public PrintStream printf(String format, Object... args) { return this; }
+    }
+
+    static class InMemoryCatalog implements IReadWrite {
+        private final Map<Integer, Book> books = new ConcurrentHashMap<>();
+        private final SortedBookIndex titleIndex = new SortedBookIndex(Book::getTitle);
+        private final SortedBookIndex authorIndex = new SortedBookIndex(Book::getAuthor);
+        private final CatalogIndex catalogIndex = new CatalogIndex();
+
+        @Override
+        public void removeBook(int bookId) {
+            books.remove(bookId);
+            titleIndex.remove(bookId);
+            authorIndex.remove(bookId);
+            catalogIndex.remove(bookId);
+        }
+
+        @Override
+        public void removeBooks(java.util.Collection<Integer> bookIds) {
+            for (int bookId : bookIds) {
+                removeBook(bookId);
+            }
+        }
+
+        @Override
+        public void registerBooks(List<Book> books) {
+            for (Book book : books) {
+                registerBook(book);
+            }
+        }
+
+        @Override
+        public synchronized void registerBook(Book book) {
+            if (book.getId() == -1) {
+                book.setId(books.size() + 1);
+            }
+            books.put(book.getId(), book);
+            titleIndex.add(book);
+            authorIndex.add(book);
+            catalogIndex.add(book);
+        }
+
+        @Override
+        public List<Book> getAllBooks() { return new ArrayList<>(books.values()); }
+
+        @Override
+        public java.util.stream.Stream<Book> streamAllBooks() { return books.values().stream(); }
+
+        @Override
+        public Book findBookById(int bookId) { return books.get(bookId); }
+
+        @Override
+        public void updateBookAvailability(int bookId, boolean available) {
+            Book book = books.get(bookId);
+            if (book != null) {
+                book.setAvailable(available);
+                catalogIndex.setAvailable(bookId, available);
+            }
+        }
+
+        @Override
+        public void updateBooksAvailability(Map<Integer, Boolean> availabilityById) {
+            for (Map.Entry<Integer, Boolean> entry : availabilityById.entrySet()) {
+                updateBookAvailability(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public List<Book> getBooksSortedByTitle(Book after, int limit) { return titleIndex.page(after, limit); }
+
+        @Override
+        public List<Book> getBooksSortedByAuthor(Book after, int limit) { return authorIndex.page(after, limit); }
+
+        @Override
+        public List<Book> getBooksInTitleRange(String fromTitle, String toTitle) { return titleIndex.range(fromTitle, toTitle); }
+
+        @Override
+        public List<Book> getBooksInAuthorRange(String fromAuthor, String toAuthor) { return authorIndex.range(fromAuthor, toAuthor); }
+
+        @Override
+        public CatalogIndex getCatalogIndex() { return catalogIndex; }
+    }
+}
@@ -1,23 +1,32 @@
 package com.librarysystem;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 
 public class LibraryCard {
-    private List<com.librarysystem.IAction> commands;
+    public static final int RECENT_COMMANDS = 100;
+
+    private Deque<com.librarysystem.IAction> commands;
+    private com.librarysystem.CommandHistory history;
+    private long droppedCommands;
     private com.librarysystem.Date expiryDate;
     private boolean blocked;
     private int cardId;
 
     public LibraryCard(int cardId, com.librarysystem.Date expiryDate) {
         this.cardId = cardId;
-        this.commands = new ArrayList<>();
+        this.commands = new ArrayDeque<>();
         this.expiryDate = expiryDate;
         this.blocked = false;
     }
 
-    public void addAction(com.librarysystem.IAction action) {
-        this.commands.add(action);
+    public synchronized void addAction(com.librarysystem.IAction action) {
+        addCommand(action);
     }
 
     public boolean isValid(com.librarysystem.Date currentDate) {
@@ -31,9 +40,106 @@ public class LibraryCard {
     public void setBlocked(boolean blocked) { this.blocked = blocked; }
     public int getCardId() { return cardId; }
 
-    public List<com.librarysystem.IAction> getCommands() { return new ArrayList<>(commands); }
+    public synchronized List<com.librarysystem.IAction> getCommands() { return new ArrayList<>(commands); }
+
+    public synchronized long getCommandCount() {
+        return history != null ? history.size() : commands.size() + droppedCommands;
+    }
+
+    public synchronized void addCommand(com.librarysystem.IAction command) {
+        cacheCommand(command);
+        archiveCommand(command);
+    }
+
+    // The history is written as commands arrive, so the deque is only a cache of the newest ones.
+    public synchronized void cacheCommand(com.librarysystem.IAction command) {
+        this.commands.addLast(command);
+        while (commands.size() > RECENT_COMMANDS) {
+            commands.removeFirst();
+            if (history == null) {
+                droppedCommands++;
+            }
+        }
+    }
+
+    public synchronized void archiveCommand(com.librarysystem.IAction command) {
+        if (history != null) {
+            history.append(com.librarysystem.CommandHistory.describe(command));
+        }
+    }
+
+    public synchronized void recordOutcome(com.librarysystem.Reservation reservation, com.librarysystem.Date date) {
+        if (history != null) {
+            history.append(com.librarysystem.CommandHistory.outcome(reservation, date));
+        }
+    }
+
+    public synchronized boolean removeCommand(com.librarysystem.IAction command) {
+        Iterator<com.librarysystem.IAction> newestFirst = commands.descendingIterator();
+        while (newestFirst.hasNext()) {
+            if (newestFirst.next() == command) {
+                newestFirst.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void attachHistory(File directory) throws IOException {
+        this.history = new com.librarysystem.CommandHistory(directory, cardId);
+    }
+
+    public synchronized void closeHistory() {
+        if (history != null) {
+            history.close();
+        }
+    }
+
+    public synchronized void discardHistory() {
+        if (history != null) {
+            history.delete();
+            history = null;
+        }
+    }
+
+    public synchronized Iterator<com.librarysystem.CommandHistory.Entry> historyIterator() {
+        if (history != null) {
+            return history.iterator();
+        }
+        List<com.librarysystem.CommandHistory.Entry> cached = new ArrayList<>(commands.size());
+        for (com.librarysystem.IAction command : commands) {
+            cached.add(com.librarysystem.CommandHistory.describe(command));
+        }
+        return cached.iterator();
+    }
+
+    public synchronized void forEachHistoryEntry(java.util.function.Consumer<com.librarysystem.CommandHistory.Entry> action) {
+        if (history != null) {
+            history.forEach(action);
+            return;
+        }
+        for (com.librarysystem.IAction command : commands) {
+            action.accept(com.librarysystem.CommandHistory.describe(command));
+        }
+    }
 
-    public void addCommand(com.librarysystem.IAction command) {
-        this.commands.add(command);
+    public synchronized List<com.librarysystem.CommandHistory.Entry> getHistory(com.librarysystem.Date from, com.librarysystem.Date to, int skip, int limit) {
+        if (from == null || to == null) throw new IllegalArgumentException("History range needs both a start and an end date.");
+        if (history != null) {
+            return history.find(from, to, skip, limit);
+        }
+        List<com.librarysystem.CommandHistory.Entry> page = new ArrayList<>();
+        int toSkip = skip;
+        for (com.librarysystem.IAction command : commands) {
+            if (page.size() >= limit) break;
+            com.librarysystem.CommandHistory.Entry entry = com.librarysystem.CommandHistory.describe(command);
+            if (entry.getDate().isBefore(from) || entry.getDate().isAfter(to)) continue;
+            if (toSkip > 0) {
+                toSkip--;
+                continue;
+            }
+            page.add(entry);
+        }
+        return page;
     }
 }
@@ -0,0 +1,93 @@
+package com.librarysystem;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class LibraryEvent {
+    public enum Type { BORROW, RETURN, RESERVE, RESERVATION_STATUS }
+
+    static final int RECORD_SIZE = 18;
+    static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final Type type;
+    private final int bookId;
+    private final int userId;
+    private final int firstDay;
+    private final int secondDay;
+    private final ReservationStatus status;
+
+    private LibraryEvent(Type type, int bookId, int userId, int firstDay, int secondDay, ReservationStatus status) {
+        this.type = type;
+        this.bookId = bookId;
+        this.userId = userId;
+        this.firstDay = firstDay;
+        this.secondDay = secondDay;
+        this.status = status;
+    }
+
+    public static LibraryEvent borrow(Borrow borrow) {
+        return new LibraryEvent(Type.BORROW, borrow.getBook().getId(), borrow.getUser().getId(),
+                toDay(borrow.getBorrowDate()), toDay(borrow.getReturnDate()), null);
+    }
+
+    public static LibraryEvent returned(Borrow borrow, Date returnedOn) {
+        return new LibraryEvent(Type.RETURN, borrow.getBook().getId(), borrow.getUser().getId(),
+                toDay(returnedOn), NO_DAY, null);
+    }
+
+    public static LibraryEvent reserve(Reservation reservation) {
+        return new LibraryEvent(Type.RESERVE, reservation.getBook().getId(), reservation.getUser().getId(),
+                toDay(reservation.getReservationDate()), NO_DAY, null);
+    }
+
+    public static LibraryEvent statusChange(Reservation reservation) {
+        return new LibraryEvent(Type.RESERVATION_STATUS, reservation.getBook().getId(), reservation.getUser().getId(),
+                toDay(reservation.getReservationDate()), toDay(reservation.getPickupDeadline()), reservation.getState());
+    }
+
+    public Type getType() { return type; }
+    public int getBookId() { return bookId; }
+    public int getUserId() { return userId; }
+    public Date getFirstDate() { return toDate(firstDay); }
+    public Date getSecondDate() { return toDate(secondDay); }
+    public ReservationStatus getStatus() { return status; }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeInt(bookId);
+        out.writeInt(userId);
+        out.writeInt(firstDay);
+        out.writeInt(secondDay);
+        out.writeByte(status == null ? -1 : status.ordinal());
+    }
+
+    static LibraryEvent readFrom(DataInput in) throws IOException {
+        Type type = Type.values()[in.readByte()];
+        int bookId = in.readInt();
+        int userId = in.readInt();
+        int firstDay = in.readInt();
+        int secondDay = in.readInt();
+        byte status = in.readByte();
+        return new LibraryEvent(type, bookId, userId, firstDay, secondDay,
+                status < 0 ? null : ReservationStatus.values()[status]);
+    }
+
+    static LibraryEvent of(Type type, int bookId, int userId, int firstDay, int secondDay, ReservationStatus status) {
+        return new LibraryEvent(type, bookId, userId, firstDay, secondDay, status);
+    }
+
+    private static int toDay(Date date) {
+        return date == null ? NO_DAY : (int) date.toEpochDay();
+    }
+
+    private static Date toDate(int day) {
+        return day == NO_DAY ? null : Date.ofEpochDay(day);
+    }
+
+    @Override
+    public String toString() {
+        return "LibraryEvent [type=" + type + ", bookId=" + bookId + ", userId=" + userId
+                + ", firstDate=" + getFirstDate() + ", secondDate=" + getSecondDate() + ", status=" + status + "]";
+    }
+}
@@ -0,0 +1,304 @@
+package com.librarysystem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoanHistory {
+    private static final int PARTITION_DAYS = 32;
+    private static final int RECORD_BYTES = 16;
+
+    private final File file;
+    private final boolean syncOnRecord;
+    private FileOutputStream stream;
+    private DataOutputStream out;
+    private int[] bookIds = new int[16];
+    private int[] userIds = new int[16];
+    private int[] startDays = new int[16];
+    private int[] endDays = new int[16];
+    private int size;
+    private final Map<Integer, BookLoans> byBook = new HashMap<>();
+    private final Map<Long, IntList> byPartition = new HashMap<>();
+
+    public LoanHistory() {
+        this.file = null;
+        this.syncOnRecord = false;
+    }
+
+    public LoanHistory(File directory) throws IOException {
+        this(directory, true);
+    }
+
+    public LoanHistory(File directory, boolean syncOnRecord) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create loan history directory " + directory);
+        }
+        this.file = new File(directory, "loans.dat");
+        this.syncOnRecord = syncOnRecord;
+        load();
+        this.stream = new FileOutputStream(file, true);
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 4096));
+    }
+
+    public synchronized void record(int bookId, int userId, Date borrowDate, Date returnDate) {
+        int start = (int) borrowDate.toEpochDay();
+        int end = (int) returnDate.toEpochDay();
+        if (end < start) {
+            throw new IllegalArgumentException("Loan of book ID " + bookId + " cannot end before it started.");
+        }
+        if (out != null) {
+            try {
+                out.writeInt(bookId);
+                out.writeInt(userId);
+                out.writeInt(start);
+                out.writeInt(end);
+                out.flush();
+                if (syncOnRecord) {
+                    stream.getChannel().force(false);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not archive loan of book ID " + bookId + ": " + e.getMessage(), e);
+            }
+        }
+        add(bookId, userId, start, end);
+    }
+
+    public synchronized boolean recordIfAbsent(int bookId, int userId, Date borrowDate, Date returnDate) {
+        BookLoans loans = byBook.get(bookId);
+        int start = (int) borrowDate.toEpochDay();
+        int end = (int) returnDate.toEpochDay();
+        if (loans != null) {
+            for (int i = loans.size - 1; i >= 0 && startDays[loans.ids[i]] >= start; i--) {
+                int id = loans.ids[i];
+                if (startDays[id] == start && endDays[id] == end && userIds[id] == userId) return false;
+            }
+        }
+        record(bookId, userId, borrowDate, returnDate);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized List<Loan> whoHad(int bookId, Date day) {
+        List<Loan> found = new ArrayList<>();
+        BookLoans loans = byBook.get(bookId);
+        if (loans == null) return found;
+        int target = (int) day.toEpochDay();
+        IntList holders = new IntList();
+        loans.collect(startsAfter(loans, target) - 1, target, holders);
+        for (int i = 0; i < holders.size; i++) {
+            found.add(loanAt(holders.values[i]));
+        }
+        return found;
+    }
+
+    public synchronized List<Loan> onLoanAt(Date day) {
+        return onLoanBetween(day, day);
+    }
+
+    public synchronized List<Loan> onLoanBetween(Date from, Date to) {
+        List<Loan> found = new ArrayList<>();
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        long firstPartition = partitionOf(fromDay);
+        for (long partition = firstPartition; partition <= partitionOf(toDay); partition++) {
+            IntList loans = byPartition.get(partition);
+            if (loans == null) continue;
+            for (int i = 0; i < loans.size; i++) {
+                int id = loans.values[i];
+                if (startDays[id] > toDay || endDays[id] < fromDay) continue;
+                // A loan sits in every partition it spans; report it only from the first one inside the range.
+                if (Math.max(partitionOf(startDays[id]), firstPartition) != partition) continue;
+                found.add(loanAt(id));
+            }
+        }
+        return found;
+    }
+
+    public synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            System.err.println("LoanHistory: Could not close " + file + ": " + e.getMessage());
+        }
+        out = null;
+    }
+
+    private void add(int bookId, int userId, int start, int end) {
+        if (size == bookIds.length) {
+            int capacity = size * 2;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            startDays = Arrays.copyOf(startDays, capacity);
+            endDays = Arrays.copyOf(endDays, capacity);
+        }
+        int id = size++;
+        bookIds[id] = bookId;
+        userIds[id] = userId;
+        startDays[id] = start;
+        endDays[id] = end;
+
+        BookLoans loans = byBook.computeIfAbsent(bookId, k -> new BookLoans());
+        loans.insert(startsAfter(loans, start), id, end);
+        for (long partition = partitionOf(start); partition <= partitionOf(end); partition++) {
+            byPartition.computeIfAbsent(partition, k -> new IntList()).add(id);
+        }
+    }
+
+    // Index of the first loan of the book that starts after the day; loans usually arrive in start order, so check the end first.
+    private int startsAfter(BookLoans loans, long day) {
+        if (loans.size == 0 || startDays[loans.ids[loans.size - 1]] <= day) return loans.size;
+        int low = 0;
+        int high = loans.size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startDays[loans.ids[mid]] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Loan loanAt(int id) {
+        return new Loan(bookIds[id], userIds[id], Date.ofEpochDay(startDays[id]), Date.ofEpochDay(endDays[id]));
+    }
+
+    private static long partitionOf(long day) {
+        return Math.floorDiv(day, (long) PARTITION_DAYS);
+    }
+
+    private void load() throws IOException {
+        if (!file.exists()) return;
+        long records = file.length() / RECORD_BYTES;
+        if (records * RECORD_BYTES != file.length()) {
+            try (RandomAccessFile torn = new RandomAccessFile(file, "rw")) {
+                torn.setLength(records * RECORD_BYTES);
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            for (long i = 0; i < records; i++) {
+                add(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            insert(size, value);
+        }
+
+        void insert(int position, int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+        }
+    }
+
+    // Loans of one book sorted by start day, with a max-end segment tree over them: leaf capacity + i holds the end
+    // of the i-th loan and every inner node the latest end below it, so a query skips whole runs of finished loans.
+    private static class BookLoans {
+        private int capacity = 4;
+        private int[] ids = new int[capacity];
+        private int[] maxEnds = emptyTree(capacity);
+        private int size;
+
+        void insert(int position, int id, int end) {
+            if (size == capacity) {
+                capacity *= 2;
+                ids = Arrays.copyOf(ids, capacity);
+                int[] grown = emptyTree(capacity);
+                System.arraycopy(maxEnds, size, grown, capacity, size);
+                maxEnds = grown;
+                rebuild(capacity - 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(maxEnds, capacity + position, maxEnds, capacity + position + 1, size - position);
+            ids[position] = id;
+            maxEnds[capacity + position] = end;
+            size++;
+            if (position == size - 1) {
+                for (int node = (capacity + position) >>> 1; node > 0; node >>>= 1) {
+                    maxEnds[node] = Math.max(maxEnds[2 * node], maxEnds[2 * node + 1]);
+                }
+            } else {
+                rebuild(capacity - 1);
+            }
+        }
+
+        // Adds, in start order, the ids among the first last + 1 loans that end on or after the day.
+        void collect(int last, int day, IntList out) {
+            collect(1, 0, capacity - 1, last, day, out);
+        }
+
+        private void collect(int node, int low, int high, int last, int day, IntList out) {
+            if (low > last || maxEnds[node] < day) return;
+            if (low == high) {
+                out.add(ids[low]);
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            collect(2 * node, low, mid, last, day, out);
+            collect(2 * node + 1, mid + 1, high, last, day, out);
+        }
+
+        private void rebuild(int fromNode) {
+            for (int node = fromNode; node > 0; node--) {
+                maxEnds[node] = Math.max(maxEnds[2 * node], maxEnds[2 * node + 1]);
+            }
+        }
+
+        private static int[] emptyTree(int capacity) {
+            int[] tree = new int[2 * capacity];
+            Arrays.fill(tree, Integer.MIN_VALUE);
+            return tree;
+        }
+    }
+
+    public static class Loan {
+        private final int bookId;
+        private final int userId;
+        private final Date borrowDate;
+        private final Date returnDate;
+
+        public Loan(int bookId, int userId, Date borrowDate, Date returnDate) {
+            this.bookId = bookId;
+            this.userId = userId;
+            this.borrowDate = borrowDate;
+            this.returnDate = returnDate;
+        }
+
+        public int getBookId() { return bookId; }
+        public int getUserId() { return userId; }
+        public Date getBorrowDate() { return borrowDate; }
+        public Date getReturnDate() { return returnDate; }
+        public boolean isOngoing() { return returnDate == null; }
+
+        @Override
+        public String toString() {
+            return "Book ID " + bookId + " held by user ID " + userId + " from " + borrowDate
+                    + (returnDate == null ? " (still on loan)" : " to " + returnDate);
+        }
+    }
+}
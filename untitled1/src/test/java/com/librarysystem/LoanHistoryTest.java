@@ -0,0 +1,160 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanHistoryTest {
+
+    private static final String TEST_BOOKS_FILE = "loan_history_test_books.csv";
+    private static final File HISTORY_DIR = new File("test_loan_history");
+    private static final File JOURNAL_DIR = new File("test_loan_history_journal");
+
+    private final Date start = new Date(2025, 5, 9);
+    private TestFixtures fixtures;
+    private Executor executor;
+    private Book book1;
+    private Book book2;
+    private User reader;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(TEST_BOOKS_FILE, start, HISTORY_DIR, JOURNAL_DIR);
+        executor = fixtures.executor;
+        book1 = fixtures.addBook("Loan Book 1", "Author L1", "ISBN_L1");
+        book2 = fixtures.addBook("Loan Book 2", "Author L2", "ISBN_L2");
+        reader = fixtures.newReader(1, "Loan");
+        other = fixtures.newReader(2, "Other");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void testAnswersPointInTimeAndRangeQueries() throws IOException {
+        System.out.println("Running testAnswersPointInTimeAndRangeQueries...");
+        LoanHistory history = new LoanHistory(HISTORY_DIR);
+        executor.attachLoanHistory(history);
+        executor.createBorrow(book1, reader, start, start.plusDays(14));
+        executor.returnBook(book1, reader, start.plusDays(10));
+        executor.createBorrow(book1, other, start.plusDays(10), start.plusDays(24));
+        executor.returnBook(book1, other, start.plusDays(20));
+        executor.createBorrow(book2, reader, start.plusDays(5), start.plusDays(40));
+        executor.returnBook(book2, reader, start.plusDays(40));
+        executor.createBorrow(book1, reader, start.plusDays(30), start.plusDays(44));
+        assertEquals(3, history.size(), "Only completed loans are archived.");
+
+        List<LoanHistory.Loan> holders = executor.getLoanHolders(book1.getId(), start.plusDays(5));
+        assertEquals(1, holders.size());
+        assertEquals(reader.getId(), holders.get(0).getUserId());
+        assertEquals(2, executor.getLoanHolders(book1.getId(), start.plusDays(10)).size(), "Hand-over day belongs to both loans.");
+        assertTrue(executor.getLoanHolders(book1.getId(), start.plusDays(25)).isEmpty());
+        List<LoanHistory.Loan> current = executor.getLoanHolders(book1.getId(), start.plusDays(35));
+        assertEquals(1, current.size());
+        assertTrue(current.get(0).isOngoing());
+
+        assertEquals(2, executor.getLoansBetween(start.plusDays(15), start.plusDays(15)).size());
+        assertEquals(4, executor.getLoansBetween(start, start.plusDays(100)).size(), "Loans spanning partitions are reported once.");
+        history.close();
+
+        LoanHistory reloaded = new LoanHistory(HISTORY_DIR);
+        assertEquals(3, reloaded.size());
+        assertEquals(other.getId(), reloaded.whoHad(book1.getId(), start.plusDays(15)).get(0).getUserId());
+        reloaded.close();
+        System.out.println("Finished testAnswersPointInTimeAndRangeQueries.");
+    }
+
+    @Test
+    void testRangeQueriesMatchALinearScan() {
+        System.out.println("Running testRangeQueriesMatchALinearScan...");
+        LoanHistory random = new LoanHistory();
+        Random rng = new Random(7);
+        int[][] loans = new int[3000][];
+        for (int i = 0; i < loans.length; i++) {
+            int from = rng.nextInt(2000);
+            loans[i] = new int[]{from, from + rng.nextInt(rng.nextInt(10) == 0 ? 400 : 40)};
+            random.record(i, 1, start.plusDays(loans[i][0]), start.plusDays(loans[i][1]));
+        }
+        for (int query = 0; query < 200; query++) {
+            int from = rng.nextInt(2200) - 100;
+            int to = from + rng.nextInt(query % 2 == 0 ? 1 : 120);
+            int expected = 0;
+            for (int[] loan : loans) {
+                if (loan[0] <= to && loan[1] >= from) expected++;
+            }
+            assertEquals(expected, random.onLoanBetween(start.plusDays(from), start.plusDays(to)).size());
+        }
+        System.out.println("Finished testRangeQueriesMatchALinearScan.");
+    }
+
+    @Test
+    void testWhoHadFindsOverlappingLoansOfOneBook() {
+        System.out.println("Running testWhoHadFindsOverlappingLoansOfOneBook...");
+        LoanHistory history = new LoanHistory();
+        history.record(7, 1, start, start.plusDays(60));
+        history.record(7, 2, start.plusDays(10), start.plusDays(12));
+        history.record(7, 3, start.plusDays(20), start.plusDays(22));
+        history.record(7, 4, start.plusDays(70), start.plusDays(80));
+
+        List<LoanHistory.Loan> holders = history.whoHad(7, start.plusDays(30));
+        assertEquals(1, holders.size(), "A long loan hidden behind shorter later ones must still be found.");
+        assertEquals(1, holders.get(0).getUserId());
+        assertEquals(2, history.whoHad(7, start.plusDays(21)).size());
+        assertTrue(history.whoHad(7, start.plusDays(65)).isEmpty());
+
+        Random rng = new Random(3);
+        LoanHistory random = new LoanHistory();
+        int[][] loans = new int[2000][];
+        for (int i = 0; i < loans.length; i++) {
+            int from = rng.nextInt(1000);
+            loans[i] = new int[]{i % 5, from, from + rng.nextInt(rng.nextInt(10) == 0 ? 300 : 20)};
+            random.record(loans[i][0], i, start.plusDays(loans[i][1]), start.plusDays(loans[i][2]));
+        }
+        for (int query = 0; query < 300; query++) {
+            int book = rng.nextInt(5);
+            int day = rng.nextInt(1100);
+            int expected = 0;
+            for (int[] loan : loans) {
+                if (loan[0] == book && loan[1] <= day && loan[2] >= day) expected++;
+            }
+            assertEquals(expected, random.whoHad(book, start.plusDays(day)).size());
+        }
+        System.out.println("Finished testWhoHadFindsOverlappingLoansOfOneBook.");
+    }
+
+    @Test
+    void testJournalReplayArchivesLoansLostBeforeTheirRecordWasWritten() throws IOException {
+        System.out.println("Running testJournalReplayArchivesLoansLostBeforeTheirRecordWasWritten...");
+        EventJournal journal = new EventJournal(JOURNAL_DIR, 1000, false);
+        executor.attachJournal(journal);
+        executor.createBorrow(book1, reader, start, start.plusDays(14));
+        executor.returnBook(book1, reader, start.plusDays(9));
+        journal.close();
+
+        for (int restart = 0; restart < 2; restart++) {
+            Storage reloaded = fixtures.reopenStorage();
+            Executor recovered = new Executor(new LookupArray(reloaded), reloaded);
+            LoanHistory history = new LoanHistory(HISTORY_DIR);
+            recovered.attachLoanHistory(history);
+            EventJournal reopened = new EventJournal(JOURNAL_DIR, 1000, false);
+            recovered.recoverFrom(reopened, Arrays.asList(reader, other));
+            reopened.close();
+
+            assertEquals(1, history.size(), "The returned loan is archived once, however often the journal is replayed.");
+            LoanHistory.Loan loan = history.whoHad(book1.getId(), start.plusDays(5)).get(0);
+            assertEquals(reader.getId(), loan.getUserId());
+            assertEquals(start.plusDays(9), loan.getReturnDate());
+            history.close();
+        }
+        System.out.println("Finished testJournalReplayArchivesLoansLostBeforeTheirRecordWasWritten.");
+    }
+}
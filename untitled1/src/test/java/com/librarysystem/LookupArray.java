@@ -1,8 +1,9 @@
 package com.librarysystem;
 
 import java.util.List;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 public class LookupArray implements IPresent {
     private Map<String, Book> presenceMap;
@@ -10,7 +11,7 @@ public class LookupArray implements IPresent {
 
     public LookupArray(IReadWrite dataSource) {
         this.dataSource = dataSource;
-        this.presenceMap = new HashMap<>();
+        this.presenceMap = new ConcurrentHashMap<>();
         refreshPresenceMap();
     }
 
@@ -38,6 +39,16 @@ public class LookupArray implements IPresent {
         }
     }
 
+    @Override
+    public void registerBooks(java.util.Collection<Book> books) {
+        for (Book book : books) {
+            if (book != null && book.getTitle() != null && book.getAuthor() != null) {
+                presenceMap.put(generateKey(book.getTitle(), book.getAuthor()), book);
+            }
+        }
+        System.out.println("LookupArray: Noted " + books.size() + " books. Map size: " + presenceMap.size());
+    }
+
     @Override
     public boolean isPresent(String title, String author) {
         return presenceMap.containsKey(generateKey(title, author));
@@ -51,8 +62,25 @@ public class LookupArray implements IPresent {
         }
     }
 
+    @Override
+    public void removeBooks(java.util.Collection<Book> books) {
+        int removed = 0;
+        for (Book book : books) {
+            if (book != null && book.getTitle() != null && book.getAuthor() != null
+                    && presenceMap.remove(generateKey(book.getTitle(), book.getAuthor()), book)) {
+                removed++;
+            }
+        }
+        System.out.println("LookupArray: De-listed " + removed + " books. Map size: " + presenceMap.size());
+    }
+
     @Override
     public List<Book> getPresentableBooks() {
         return dataSource.getAllBooks();
     }
+
+    @Override
+    public Stream<Book> streamPresentableBooks() {
+        return dataSource.streamAllBooks();
+    }
 }
@@ -1,5 +1,6 @@
 package com.librarysystem;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 import java.util.InputMismatchException;
@@ -12,41 +13,81 @@ public class Main {
     private static com.librarysystem.LookupArray lookupArray;
 
     private static com.librarysystem.User currentUser = null;
-    private static com.librarysystem.Date simulatedCurrentDate;
+    private static com.librarysystem.ReminderScheduler scheduler;
+    private static com.librarysystem.EventJournal journal;
+    private static com.librarysystem.NotificationDispatcher dispatcher;
+    private static com.librarysystem.LoanHistory loanHistory;
     private static final int REMINDER_DAYS_IN_ADVANCE = 7;
+    private static final int BOOKS_PAGE_SIZE = 20;
+    private static final int NOTIFICATIONS_PAGE_SIZE = 10;
+    private static final int TOP_BOOKS = 10;
+    private static final int DIGEST_WINDOW_DAYS = com.librarysystem.NotificationDigest.DEFAULT_WINDOW_DAYS;
 
     public static void main(String[] args) {
         storage = new com.librarysystem.Storage();
         lookupArray = new com.librarysystem.LookupArray(storage);
         accessManager = new com.librarysystem.AccessManager();
         gateway = new com.librarysystem.Gateway(lookupArray, storage);
-        simulatedCurrentDate = com.librarysystem.Date.getCurrentDate();
+        accessManager.attachNotificationInboxes(new java.io.File("notifications"));
+        accessManager.attachCommandHistories(new java.io.File("card_history"));
+        gateway.getExecutor().attachRecommendations(new com.librarysystem.CoBorrowIndex());
+        com.librarysystem.FinesLedger finesLedger = new com.librarysystem.FinesLedger(new java.io.File("fines.csv"),
+                com.librarysystem.FinesLedger.DEFAULT_DAILY_FINE_CENTS, com.librarysystem.FinesLedger.DEFAULT_BLOCK_THRESHOLD_CENTS);
+        finesLedger.bindUsers(accessManager.getAllUsers());
+        gateway.getExecutor().attachFinesLedger(finesLedger);
+        accessManager.attachFinesLedger(finesLedger);
+        try {
+            loanHistory = new com.librarysystem.LoanHistory(new java.io.File("loan_history"));
+            gateway.getExecutor().attachLoanHistory(loanHistory);
+        } catch (java.io.IOException e) {
+            System.err.println("Could not open loan history, completed loans will not be archived: " + e.getMessage());
+        }
+        try {
+            journal = new com.librarysystem.EventJournal(new java.io.File("journal"));
+            gateway.getExecutor().recoverFrom(journal, accessManager.getAllUsers());
+        } catch (java.io.IOException e) {
+            System.err.println("Could not open event journal, loans will not be persisted: " + e.getMessage());
+        }
+        dispatcher = new com.librarysystem.NotificationDispatcher();
+        gateway.getExecutor().attachDispatcher(dispatcher);
+        scheduler = new com.librarysystem.ReminderScheduler(gateway.getExecutor(), null, REMINDER_DAYS_IN_ADVANCE);
+        gateway.getExecutor().rebuildPopularity(accessManager.getAllUsers(), currentDate());
+        gateway.getExecutor().rebuildRecommendations(accessManager.getAllUsers());
+        gateway.getExecutor().attachDigest(new com.librarysystem.NotificationDigest(DIGEST_WINDOW_DAYS, currentDate()));
 
         System.out.println("Library System Initialized.");
-        System.out.println("Simulated Date: " + simulatedCurrentDate.toString());
+        System.out.println("Simulated Date: " + currentDate().toString());
 
         if (accessManager.findUserByEmail("admin@library.com") == null && accessManager.getAllUsers().isEmpty()) {
             try {
                 accessManager.createUser("Admin", "User", "admin@library.com", "LIBRARIAN", "admin123",
-                        10, simulatedCurrentDate.addMonths(24));
+                        10, currentDate().addMonths(24));
             } catch (IllegalArgumentException e) {
                 System.err.println("Could not create default admin: " + e.getMessage());
             }
         }
-        gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
+        scheduler.start();
 
         mainMenu();
+        scheduler.shutdown();
+        accessManager.saveUsers();
+        gateway.getExecutor().flushAllNotificationDigests();
+        dispatcher.shutdown();
+        accessManager.close();
+        if (journal != null) {
+            gateway.getExecutor().snapshotJournal();
+            journal.close();
+        }
+        if (loanHistory != null) {
+            loanHistory.close();
+        }
         scanner.close();
     }
 
     private static void mainMenu() {
         int choice = 0;
         do {
-            if (currentUser != null) {
-                gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
-            }
-
-            System.out.println("\n--- LIBRARY MAIN MENU (Simulated Date: " + simulatedCurrentDate.toString() + ") ---");
+            System.out.println("\n--- LIBRARY MAIN MENU (Simulated Date: " + currentDate().toString() + ") ---");
             if (currentUser == null) {
                 System.out.println("1. Login");
                 System.out.println("2. Register (New Reader)");
@@ -95,9 +136,9 @@ public class Main {
         currentUser = accessManager.login(email, password);
         if (currentUser != null) {
             System.out.println("Login successful for " + currentUser.getName());
-            gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
-            if(!currentUser.getNotifications().isEmpty()){
-                System.out.println("You have new notifications! Check them in the Reader Menu.");
+            long unread = currentUser.getUnreadNotificationCount();
+            if (unread > 0) {
+                System.out.println("You have " + unread + " new notifications! Check them in the Reader Menu.");
             }
         } else {
             System.out.println("Login failed. Please check credentials.");
@@ -108,7 +149,7 @@ public class Main {
         int choice;
         do {
             System.out.println("\n--- SIMULATE TIME ---");
-            System.out.println("Current Simulated Date: " + simulatedCurrentDate.toString());
+            System.out.println("Current Simulated Date: " + currentDate().toString());
             System.out.println("1. Add Months");
             System.out.println("2. Subtract Months");
             System.out.println("3. Add Days");
@@ -118,39 +159,32 @@ public class Main {
             System.out.print("Enter choice: ");
             choice = getIntInput();
 
-            Date oldDate = simulatedCurrentDate;
+            com.librarysystem.Date date = currentDate();
 
             switch (choice) {
                 case 1:
                     System.out.print("Months to add: "); int addM = getIntInput();
-                    simulatedCurrentDate = simulatedCurrentDate.addMonths(addM);
+                    scheduler.setCurrentDate(date.addMonths(addM));
                     break;
                 case 2:
                     System.out.print("Months to subtract: "); int subM = getIntInput();
-                    simulatedCurrentDate = simulatedCurrentDate.addMonths(-subM);
+                    scheduler.setCurrentDate(date.addMonths(-subM));
                     break;
                 case 3:
                     System.out.print("Days to add: "); int addD = getIntInput();
-                    simulatedCurrentDate = simulatedCurrentDate.plusDays(addD);
+                    scheduler.setCurrentDate(date.plusDays(addD));
                     break;
                 case 4:
                     System.out.print("Days to subtract: "); int subD = getIntInput();
-                    simulatedCurrentDate = simulatedCurrentDate.minusDays(subD);
+                    scheduler.setCurrentDate(date.minusDays(subD));
                     break;
                 case 5:
-                    simulatedCurrentDate = com.librarysystem.Date.getCurrentDate();
+                    scheduler.useRealClock();
                     break;
                 case 6: break;
                 default: System.out.println("Invalid choice.");
             }
-            System.out.println("New Simulated Date: " + simulatedCurrentDate.toString());
-
-            if (!simulatedCurrentDate.isEqual(oldDate)) {
-                for (Borrow borrow : gateway.getExecutor().getBorrows()) {
-                    borrow.setReminderSentForThisPeriod(false);
-                }
-            }
-            gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
+            System.out.println("New Simulated Date: " + currentDate().toString());
 
         } while (choice != 6);
     }
@@ -163,10 +197,14 @@ public class Main {
         }
         System.out.println("\n--- MY ACTIVE RESERVATIONS ---");
         for (com.librarysystem.Reservation res : reservations) {
+            int position = gateway.getReservationQueuePosition(res.getBook(), currentUser);
             System.out.println("Title: " + res.getBook().getTitle() +
                     ", Author: " + res.getBook().getAuthor() +
                     ", Reserved On: " + res.getReservationDate() +
-                    ", Status: " + res.getStatus());
+                    ", Status: " + res.getStatus() +
+                    (position > 0 ? ", Queue Position: " + position : "") +
+                    (res.getState() == com.librarysystem.ReservationStatus.READY_FOR_PICKUP && res.getPickupDeadline() != null
+                            ? ", Collect By: " + res.getPickupDeadline() : ""));
         }
     }
 
@@ -207,7 +245,7 @@ public class Main {
         System.out.print("Enter email: "); String email = scanner.nextLine();
         System.out.print("Enter password: "); String password = scanner.nextLine();
         try {
-            accessManager.createUser(name, surname, email, "READER", password, 5, simulatedCurrentDate.addMonths(12));
+            accessManager.createUser(name, surname, email, "READER", password, 5, currentDate().addMonths(12));
         } catch (IllegalArgumentException e) {
             System.out.println("Registration failed: " + e.getMessage());
         }
@@ -225,8 +263,6 @@ public class Main {
     private static void readerMenu() {
         int choice;
         do {
-            gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
-
             System.out.println("\n--- READER MENU (" + currentUser.getName() + ") ---");
             System.out.println("1. Borrow Book");
             System.out.println("2. Return Book");
@@ -237,7 +273,9 @@ public class Main {
             System.out.println("7. List Available Books");
             System.out.println("8. View My Notifications");
             System.out.println("9. View My Card Details");
-            System.out.println("10. Back to Main Menu");
+            System.out.println("10. Most Borrowed Books");
+            System.out.println("11. View My Fines");
+            System.out.println("12. Back to Main Menu");
             System.out.print("Enter choice: ");
             choice = getIntInput();
 
@@ -252,25 +290,41 @@ public class Main {
                     case 7: listAvailableBooks(); break;
                     case 8: viewMyNotifications(); break;
                     case 9: viewMyCard(); break;
-                    case 10: break;
+                    case 10: viewMostBorrowed(); break;
+                    case 11: viewMyFines(); break;
+                    case 12: break;
                     default: System.out.println("Invalid choice.");
                 }
             } catch (Exception e) {
                 System.err.println("Error in Reader Menu: " + e.getMessage());
             }
-        } while (choice != 10);
+        } while (choice != 12);
     }
 
     private static void listAvailableBooks() {
-        List<com.librarysystem.Book> books = gateway.listAvailableBooks();
-        if (books.isEmpty()) {
+        Iterator<com.librarysystem.Book> books = gateway.streamAvailableBooks().iterator();
+        if (!books.hasNext()) {
             System.out.println("No books currently available in the library.");
             return;
         }
         System.out.println("\n--- AVAILABLE BOOKS ---");
-        for (com.librarysystem.Book book : books) {
-            System.out.println("ID: " + book.getId() + ", Title: " + book.getTitle() +
-                    ", Author: " + book.getAuthor() + ", Genre: " + book.getGenre());
+        printBookPages(books, book -> "ID: " + book.getId() + ", Title: " + book.getTitle() +
+                ", Author: " + book.getAuthor() + ", Genre: " + book.getGenre());
+    }
+
+    private static void printBookPages(Iterator<com.librarysystem.Book> books,
+                                       java.util.function.Function<com.librarysystem.Book, String> formatter) {
+        while (books.hasNext()) {
+            for (int i = 0; i < BOOKS_PAGE_SIZE && books.hasNext(); i++) {
+                System.out.println(formatter.apply(books.next()));
+            }
+            if (!books.hasNext()) {
+                return;
+            }
+            System.out.print("Show more? (y/n): ");
+            if (!"y".equalsIgnoreCase(scanner.nextLine().trim())) {
+                return;
+            }
         }
     }
 
@@ -281,13 +335,44 @@ public class Main {
             System.out.println("Card ID: " + card.getCardId());
             System.out.println("Expires on: " + card.getExpiryDate());
             System.out.println("Is Blocked: " + card.isBlocked());
-            System.out.println("Is Valid (as of " + simulatedCurrentDate.toString() + "): " + card.isValid(simulatedCurrentDate));
+            System.out.println("Is Valid (as of " + currentDate().toString() + "): " + card.isValid(currentDate()));
             System.out.println("Book Limit: " + currentUser.getBookLimit());
+            System.out.println("Commands on record: " + card.getCommandCount());
+            System.out.print("View card history for a date range? (y/n): ");
+            if ("y".equalsIgnoreCase(scanner.nextLine().trim())) {
+                viewCardHistory(card);
+            }
         } else {
             System.out.println("You do not have a library card associated with your account.");
         }
     }
 
+    private static void viewCardHistory(com.librarysystem.LibraryCard card) {
+        System.out.print("From date (yyyy-MM-dd): ");
+        com.librarysystem.Date from = com.librarysystem.Date.fromString(scanner.nextLine().trim());
+        System.out.print("To date (yyyy-MM-dd): ");
+        com.librarysystem.Date to = com.librarysystem.Date.fromString(scanner.nextLine().trim());
+        int shown = 0;
+        while (true) {
+            List<com.librarysystem.CommandHistory.Entry> page = card.getHistory(from, to, shown, BOOKS_PAGE_SIZE);
+            if (page.isEmpty()) {
+                if (shown == 0) System.out.println("No card activity between " + from + " and " + to + ".");
+                return;
+            }
+            for (com.librarysystem.CommandHistory.Entry entry : page) {
+                System.out.println(entry);
+            }
+            shown += page.size();
+            if (page.size() < BOOKS_PAGE_SIZE) {
+                return;
+            }
+            System.out.print("Show more? (y/n): ");
+            if (!"y".equalsIgnoreCase(scanner.nextLine().trim())) {
+                return;
+            }
+        }
+    }
+
     private static void borrowBook() {
         System.out.print("Enter Book ID to borrow: ");
         int bookId = getIntInput();
@@ -297,7 +382,7 @@ public class Main {
             return;
         }
         try {
-            gateway.createBorrow(book, currentUser, simulatedCurrentDate, simulatedCurrentDate.addMonths(1));
+            gateway.createBorrow(book, currentUser, currentDate(), currentDate().addMonths(1));
         } catch (IllegalStateException | IllegalArgumentException e) {
             System.out.println("Could not borrow book: " + e.getMessage());
         }
@@ -312,7 +397,7 @@ public class Main {
             return;
         }
         try {
-            gateway.returnBook(book, currentUser);
+            gateway.returnBook(book, currentUser, currentDate());
         } catch (IllegalStateException | IllegalArgumentException e) {
             System.out.println("Could not return book: " + e.getMessage());
         }
@@ -327,7 +412,7 @@ public class Main {
             return;
         }
         try {
-            gateway.createReservation(book, currentUser, simulatedCurrentDate);
+            gateway.createReservation(book, currentUser, currentDate());
         } catch (IllegalStateException | IllegalArgumentException e) {
             System.out.println("Could not reserve book: " + e.getMessage());
         }
@@ -345,7 +430,7 @@ public class Main {
                     ", Author: " + borrow.getBook().getAuthor() +
                     ", Borrowed On: " + borrow.getBorrowDate() +
                     ", Return By: " + borrow.getReturnDate() +
-                    (borrow.isOverdue(simulatedCurrentDate) ? " (OVERDUE)" : "") +
+                    (borrow.isOverdue(currentDate()) ? " (OVERDUE)" : "") +
                     (borrow.isReminderSentForThisPeriod() ? " (Reminder Sent)" : "")
             );
         }
@@ -359,38 +444,103 @@ public class Main {
             viewAllBooksLibrarian();
             return;
         }
-        List<com.librarysystem.Book> books = gateway.searchBooks(term);
-        if (books.isEmpty()) {
+        Iterator<com.librarysystem.Book> books = gateway.streamSearchBooks(term).iterator();
+        if (!books.hasNext()) {
             System.out.println("No books found matching your criteria: '" + term + "'");
             return;
         }
         System.out.println("\n--- SEARCH RESULTS ---");
-        for (com.librarysystem.Book book : books) {
-            System.out.println("ID: " + book.getId() + ", Title: " + book.getTitle() +
-                    ", Author: " + book.getAuthor() + ", Genre: " + book.getGenre() +
-                    ", ISBN: " + book.getIsbn() + ", Available: " + book.isAvailable());
+        printBookPages(books, book -> "ID: " + book.getId() + ", Title: " + book.getTitle() +
+                ", Author: " + book.getAuthor() + ", Genre: " + book.getGenre() +
+                ", ISBN: " + book.getIsbn() + ", Available: " + book.isAvailable());
+        System.out.print("Enter a Book ID to view details (or press Enter to skip): ");
+        String selected = scanner.nextLine().trim();
+        if (!selected.isEmpty()) {
+            viewBookDetails(Integer.parseInt(selected));
+        }
+    }
+
+    private static void viewBookDetails(int bookId) {
+        com.librarysystem.Book book = gateway.findBookById(bookId);
+        if (book == null) {
+            System.out.println("Book with ID " + bookId + " not found.");
+            return;
+        }
+        System.out.println("\n--- BOOK DETAILS ---");
+        System.out.println("Title: " + book.getTitle());
+        System.out.println("Author: " + book.getAuthor());
+        System.out.println("Genre: " + book.getGenre());
+        System.out.println("Description: " + book.getDescription());
+        System.out.println("ISBN: " + book.getIsbn());
+        System.out.println("Available: " + book.isAvailable());
+        List<com.librarysystem.CoBorrowIndex.Recommendation> alsoBorrowed = gateway.getAlsoBorrowed(bookId, TOP_BOOKS);
+        if (!alsoBorrowed.isEmpty()) {
+            System.out.println("Readers who borrowed this also borrowed:");
+            for (com.librarysystem.CoBorrowIndex.Recommendation recommendation : alsoBorrowed) {
+                com.librarysystem.Book other = gateway.findBookById(recommendation.getBookId());
+                if (other != null) {
+                    System.out.println("- '" + other.getTitle() + "' by " + other.getAuthor());
+                }
+            }
+        }
+    }
+
+    private static void viewMostBorrowed() {
+        for (com.librarysystem.PopularityTracker.Window window : com.librarysystem.PopularityTracker.Window.values()) {
+            System.out.println("\n--- MOST BORROWED THIS " + window + " ---");
+            List<com.librarysystem.PopularityTracker.Ranking> top = gateway.getMostBorrowed(window, TOP_BOOKS, currentDate());
+            if (top.isEmpty()) {
+                System.out.println("No borrows recorded yet.");
+            }
+            int rank = 1;
+            for (com.librarysystem.PopularityTracker.Ranking ranking : top) {
+                com.librarysystem.Book book = gateway.findBookById(ranking.getBookId());
+                String title = book != null ? "'" + book.getTitle() + "' by " + book.getAuthor() : "Book ID " + ranking.getBookId() + " (removed)";
+                System.out.println(rank++ + ". " + title + " - " + ranking.getCount() + " borrows");
+            }
+        }
+    }
+
+    private static void viewMyFines() {
+        long balance = gateway.getFineBalance(currentUser, currentDate());
+        System.out.println("Outstanding fines: " + com.librarysystem.FinesLedger.format(balance));
+        for (com.librarysystem.Borrow b : gateway.getExecutor().getActiveUserBorrows(currentUser)) {
+            if (b.isOverdue(currentDate())) {
+                System.out.println("- '" + b.getBook().getTitle() + "' was due " + b.getReturnDate() + " and is still accruing fines.");
+            }
+        }
+        if (currentUser.getLibraryCard() != null && currentUser.getLibraryCard().isBlocked()) {
+            System.out.println("Your card is blocked. Please pay your fines at the desk.");
         }
     }
 
     private static void viewMyNotifications() {
-        List<String> notifications = currentUser.getNotifications();
-        if (notifications.isEmpty()) {
-            System.out.println("No new notifications.");
+        com.librarysystem.NotificationInbox inbox = currentUser.getInbox();
+        if (inbox.getUnreadCount() == 0) {
+            System.out.println("No new notifications. (" + inbox.getTotalCount() + " in history)");
             return;
         }
         System.out.println("\n--- MY NOTIFICATIONS ---");
-        for (String notification : notifications) {
-            System.out.println("- " + notification);
+        while (true) {
+            List<com.librarysystem.NotificationInbox.Notification> page = inbox.getUnread(NOTIFICATIONS_PAGE_SIZE);
+            for (com.librarysystem.NotificationInbox.Notification notification : page) {
+                System.out.println("- " + notification.getMessage());
+            }
+            inbox.markReadUpTo(page.get(page.size() - 1).getSequence());
+            if (inbox.getUnreadCount() == 0) {
+                break;
+            }
+            System.out.print(inbox.getUnreadCount() + " more unread. Show more? (y/n): ");
+            if (!"y".equalsIgnoreCase(scanner.nextLine().trim())) {
+                break;
+            }
         }
-        currentUser.clearNotifications();
-        System.out.println("(Notifications cleared after viewing)");
+        System.out.println("(Notifications marked as read after viewing)");
     }
 
     private static void librarianMenu() {
         int choice;
         do {
-            gateway.getExecutor().checkAndNotifyForUpcomingReturns(simulatedCurrentDate, REMINDER_DAYS_IN_ADVANCE);
-
             System.out.println("\n--- LIBRARIAN MENU (" + currentUser.getName() + ") ---");
             System.out.println("1. Add Book");
             System.out.println("2. Remove Book");
@@ -399,7 +549,10 @@ public class Main {
             System.out.println("5. Manage Users");
             System.out.println("6. View All Borrows");
             System.out.println("7. View All Reservations (Active/History)");
-            System.out.println("8. Back to Main Menu");
+            System.out.println("8. Import Books from File");
+            System.out.println("9. Rebuild Recommendations from Card History");
+            System.out.println("10. Loan History Audit");
+            System.out.println("11. Back to Main Menu");
             System.out.print("Enter choice: ");
             choice = getIntInput();
 
@@ -412,13 +565,47 @@ public class Main {
                     case 5: manageUsersMenu(); break;
                     case 6: viewAllBorrows(); break;
                     case 7: viewAllReservations(); break;
-                    case 8: break;
+                    case 8: importBooks(); break;
+                    case 9: gateway.getExecutor().rebuildRecommendations(accessManager.getAllUsers()); break;
+                    case 10: loanHistoryAudit(); break;
+                    case 11: break;
                     default: System.out.println("Invalid choice.");
                 }
             } catch (Exception e) {
                 System.err.println("Librarian Menu Error: " + e.getMessage());
             }
-        } while (choice != 8);
+        } while (choice != 11);
+    }
+
+    private static void loanHistoryAudit() {
+        System.out.println("1. Who had a book on a date");
+        System.out.println("2. Books on loan between two dates (inventory)");
+        System.out.print("Enter choice: ");
+        int choice = getIntInput();
+        List<com.librarysystem.LoanHistory.Loan> loans;
+        if (choice == 1) {
+            System.out.print("Enter Book ID: "); int bookId = getIntInput();
+            System.out.print("Date (yyyy-MM-dd): ");
+            loans = gateway.getLoanHolders(bookId, com.librarysystem.Date.fromString(scanner.nextLine().trim()));
+        } else if (choice == 2) {
+            System.out.print("From date (yyyy-MM-dd): ");
+            com.librarysystem.Date from = com.librarysystem.Date.fromString(scanner.nextLine().trim());
+            System.out.print("To date (yyyy-MM-dd, same as from for a single day): ");
+            loans = gateway.getLoansBetween(from, com.librarysystem.Date.fromString(scanner.nextLine().trim()));
+        } else {
+            System.out.println("Invalid choice."); return;
+        }
+        if (loans.isEmpty()) {
+            System.out.println("No loans found.");
+            return;
+        }
+        for (com.librarysystem.LoanHistory.Loan loan : loans) {
+            com.librarysystem.Book book = gateway.findBookById(loan.getBookId());
+            com.librarysystem.User user = accessManager.findUserById(loan.getUserId());
+            System.out.println((book != null ? "'" + book.getTitle() + "' (ID: " + loan.getBookId() + ")" : "Book ID " + loan.getBookId()) +
+                    " - " + (user != null ? user.getName() + " " + user.getSurname() : "User ID " + loan.getUserId()) +
+                    ", from " + loan.getBorrowDate() + (loan.isOngoing() ? " (still on loan)" : " to " + loan.getReturnDate()));
+        }
     }
 
     private static void manageUsersMenu() {
@@ -431,7 +618,9 @@ public class Main {
             System.out.println("4. Extend User Card Expiry");
             System.out.println("5. Block/Unblock User Card");
             System.out.println("6. Remove User");
-            System.out.println("7. Back to Librarian Menu");
+            System.out.println("7. Enroll Users from Roster File");
+            System.out.println("8. Record Fine Payment");
+            System.out.println("9. Back to Librarian Menu");
             System.out.print("Enter choice: ");
             choice = getIntInput();
 
@@ -442,10 +631,46 @@ public class Main {
                 case 4: extendUserCardExpiry(); break;
                 case 5: toggleBlockUserCard(); break;
                 case 6: removeUserByAdmin(); break;
-                case 7: break;
+                case 7: enrollUsersFromRoster(); break;
+                case 8: recordFinePayment(); break;
+                case 9: break;
                 default: System.out.println("Invalid choice.");
             }
-        } while (choice != 7);
+        } while (choice != 9);
+    }
+
+    private static void recordFinePayment() {
+        System.out.print("Enter User ID paying fines: "); int userId = getIntInput();
+        com.librarysystem.User user = accessManager.findUserById(userId);
+        if (user == null) { System.out.println("User with ID " + userId + " not found."); return; }
+        long balance = gateway.getFineBalance(user, currentDate());
+        System.out.print("Outstanding fines for " + user.getName() + ": " + com.librarysystem.FinesLedger.format(balance) + ". Enter amount paid (e.g. 2.50): ");
+        long amountCents;
+        try {
+            amountCents = new java.math.BigDecimal(scanner.nextLine().trim()).movePointRight(2).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            System.out.println("Invalid amount."); return;
+        }
+        try {
+            long remaining = gateway.payFine(user, amountCents, currentDate());
+            accessManager.saveUsers();
+            System.out.println("Payment recorded. Remaining fines for " + user.getName() + ": " + com.librarysystem.FinesLedger.format(remaining));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println("Failed to record payment: " + e.getMessage());
+        }
+    }
+
+    private static void enrollUsersFromRoster() {
+        System.out.print("Enter path of roster file (Name;Surname;Email;Role;Password;BookLimit;CardExpiry per line): ");
+        String filePath = scanner.nextLine();
+        try (java.io.Reader roster = new java.io.InputStreamReader(new java.io.FileInputStream(filePath), java.nio.charset.StandardCharsets.UTF_8)) {
+            com.librarysystem.BatchResult<Integer> result = accessManager.enrollUsers(roster);
+            for (com.librarysystem.BatchResult.Failure<Integer> failure : result.getFailures()) {
+                System.out.println("Line " + failure.getItem() + ": " + failure.getReason());
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Could not read roster file: " + e.getMessage());
+        }
     }
 
     private static void addNewUserByAdmin() {
@@ -461,7 +686,7 @@ public class Main {
         System.out.print("Card expiry in months from now (e.g., 12): "); int expiryMonths = getIntInput();
 
         try {
-            accessManager.createUser(name, surname, email, role, password, limit, simulatedCurrentDate.addMonths(expiryMonths));
+            accessManager.createUser(name, surname, email, role, password, limit, currentDate().addMonths(expiryMonths));
         } catch (IllegalArgumentException e) {
             System.out.println("Failed to create user: " + e.getMessage());
         }
@@ -474,7 +699,7 @@ public class Main {
         }
         System.out.println("\n--- ALL USERS ---");
         for (com.librarysystem.User u : users) {
-            System.out.println(u.toString() + ", Card Valid Now: " + (u.getLibraryCard() != null ? u.getLibraryCard().isValid(simulatedCurrentDate) : "N/A"));
+            System.out.println(u.toString() + ", Card Valid Now: " + (u.getLibraryCard() != null ? u.getLibraryCard().isValid(currentDate()) : "N/A"));
         }
     }
 
@@ -527,7 +752,7 @@ public class Main {
             return;
         }
         boolean hasActiveReservations = gateway.getUserActiveReservations(userToRemove).stream()
-                .anyMatch(r -> "PENDING".equals(r.getStatus()) || "READY_FOR_PICKUP".equals(r.getStatus()));
+                .anyMatch(com.librarysystem.Reservation::isActive);
         if (hasActiveReservations) {
             System.out.println("Cannot remove user " + userToRemove.getName() + " (ID: " + userToRemove.getId() + "). They have active reservations.");
             return;
@@ -546,6 +771,19 @@ public class Main {
         gateway.addBook(newBook);
     }
 
+    private static void importBooks() {
+        System.out.print("Enter path of vendor file (Title;Author;Genre;Description;ISBN per line): ");
+        String filePath = scanner.nextLine();
+        try {
+            com.librarysystem.BookImporter.ImportReport report = gateway.importBooks(filePath);
+            for (java.util.Map.Entry<Long, String> rejection : report.getRejectionDetails().entrySet()) {
+                System.out.println("Line " + rejection.getKey() + ": " + rejection.getValue());
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Could not read import file: " + e.getMessage());
+        }
+    }
+
     private static void removeBook() {
         System.out.print("Enter ID of book to remove: ");
         int bookId = getIntInput();
@@ -567,7 +805,7 @@ public class Main {
     }
 
     private static void viewAllBorrows() {
-        List<com.librarysystem.Borrow> borrows = gateway.getAllBorrows(simulatedCurrentDate);
+        List<com.librarysystem.Borrow> borrows = gateway.getAllBorrows(currentDate());
         if (borrows.isEmpty()) {
             System.out.println("No active borrows in the system.");
             return;
@@ -577,11 +815,15 @@ public class Main {
             System.out.println("Book: '" + b.getBook().getTitle() + "' (ID: " + b.getBook().getId() + ")" +
                     ", User: " + b.getUser().getName() + " (ID: " + b.getUser().getId() + ")" +
                     ", Borrowed: " + b.getBorrowDate() + ", Due: " + b.getReturnDate() +
-                    (b.isOverdue(simulatedCurrentDate) ? " (OVERDUE)" : "") +
+                    (b.isOverdue(currentDate()) ? " (OVERDUE)" : "") +
                     (b.isReminderSentForThisPeriod() ? " (Reminder Sent)" : ""));
         }
     }
 
+    private static com.librarysystem.Date currentDate() {
+        return scheduler.getCurrentDate();
+    }
+
     private static int getIntInput() {
         while (true) {
             try {
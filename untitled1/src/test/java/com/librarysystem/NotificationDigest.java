@@ -0,0 +1,117 @@
+package com.librarysystem;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+public class NotificationDigest {
+    public static final int DEFAULT_WINDOW_DAYS = 1;
+    private static final int MAX_DIGEST_LINES = 50;
+
+    private final int windowDays;
+    private final Map<INotify, Accumulator> pending;
+    private final AtomicLong messagesReceived;
+    private final AtomicLong digestsSent;
+    private volatile Date lastFlushDate;
+
+    public NotificationDigest(int windowDays, Date startDate) {
+        if (windowDays <= 0) throw new IllegalArgumentException("Digest window must be at least one day.");
+        if (startDate == null) throw new IllegalArgumentException("Digest start date cannot be null.");
+        this.windowDays = windowDays;
+        this.pending = new ConcurrentHashMap<>();
+        this.messagesReceived = new AtomicLong();
+        this.digestsSent = new AtomicLong();
+        this.lastFlushDate = startDate;
+    }
+
+    public void add(INotify target, String message) {
+        if (target == null) return;
+        messagesReceived.incrementAndGet();
+        pending.compute(target, (key, accumulator) -> {
+            Accumulator current = accumulator != null ? accumulator : new Accumulator(lastFlushDate);
+            current.add(message);
+            return current;
+        });
+    }
+
+    public int flushDue(Date currentDate, BiConsumer<INotify, String> sink) {
+        List<Map.Entry<INotify, Accumulator>> ready = new ArrayList<>();
+        for (INotify target : pending.keySet()) {
+            pending.computeIfPresent(target, (key, accumulator) -> {
+                if (accumulator.windowStart.plusDays(windowDays - 1).isAfter(currentDate)) {
+                    return accumulator;
+                }
+                ready.add(new AbstractMap.SimpleEntry<>(key, accumulator));
+                return null;
+            });
+        }
+        lastFlushDate = currentDate;
+        return deliver(ready, sink);
+    }
+
+    public int flushAll(BiConsumer<INotify, String> sink) {
+        List<Map.Entry<INotify, Accumulator>> ready = new ArrayList<>();
+        for (INotify target : pending.keySet()) {
+            Accumulator accumulator = pending.remove(target);
+            if (accumulator != null) {
+                ready.add(new AbstractMap.SimpleEntry<>(target, accumulator));
+            }
+        }
+        return deliver(ready, sink);
+    }
+
+    public int getWindowDays() { return windowDays; }
+    public int getPendingRecipients() { return pending.size(); }
+    public long getMessagesReceived() { return messagesReceived.get(); }
+    public long getDigestsSent() { return digestsSent.get(); }
+
+    public double getReductionPercent() {
+        long received = messagesReceived.get();
+        return received == 0 ? 0 : 100.0 * (received - digestsSent.get()) / received;
+    }
+
+    private int deliver(List<Map.Entry<INotify, Accumulator>> ready, BiConsumer<INotify, String> sink) {
+        for (Map.Entry<INotify, Accumulator> entry : ready) {
+            sink.accept(entry.getKey(), entry.getValue().render(windowDays));
+        }
+        digestsSent.addAndGet(ready.size());
+        return ready.size();
+    }
+
+    private static class Accumulator {
+        private final Date windowStart;
+        private final List<String> lines;
+        private int count;
+
+        Accumulator(Date windowStart) {
+            this.windowStart = windowStart;
+            this.lines = new ArrayList<>();
+        }
+
+        void add(String message) {
+            count++;
+            if (lines.size() < MAX_DIGEST_LINES) {
+                lines.add(message);
+            }
+        }
+
+        String render(int windowDays) {
+            if (count == 1) {
+                return lines.get(0);
+            }
+            StringBuilder text = new StringBuilder(windowDays == 1 ? "Daily digest" : windowDays + "-day digest")
+                    .append(" (").append(count).append(" notifications since ").append(windowStart).append("):");
+            for (String line : lines) {
+                text.append("\n- ").append(line);
+            }
+            if (count > lines.size()) {
+                text.append("\n... and ").append(count - lines.size()).append(" more.");
+            }
+            return text.toString();
+        }
+    }
+}
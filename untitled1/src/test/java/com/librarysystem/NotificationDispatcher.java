@@ -0,0 +1,270 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class NotificationDispatcher {
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long POLL_MILLIS = 100;
+
+    public enum OverflowPolicy {
+        BLOCK,
+        // Delivers on the caller ahead of anything still queued for the same target, so per-target order is lost.
+        CALLER_RUNS,
+        DROP
+    }
+
+    private final BlockingQueue<Delivery> queue;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final List<Thread> consumers;
+    private final Object idleLock;
+    private final AtomicLong enqueued;
+    private final AtomicLong delivered;
+    private final AtomicLong deliveredByCaller;
+    private final AtomicLong dropped;
+    private final AtomicLong failed;
+    private final AtomicLong batches;
+    private final AtomicLong pending;
+    private final AtomicLong queueLatencyNanos;
+    private final AtomicLong maxQueueDepth;
+    private volatile boolean running;
+
+    public NotificationDispatcher() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, 1, OverflowPolicy.BLOCK);
+    }
+
+    public NotificationDispatcher(int queueCapacity, int batchSize, int consumerThreads, OverflowPolicy overflowPolicy) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive.");
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive.");
+        if (consumerThreads <= 0) throw new IllegalArgumentException("At least one consumer thread is required.");
+        if (overflowPolicy == null) throw new IllegalArgumentException("Overflow policy cannot be null.");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.consumers = new ArrayList<>();
+        this.idleLock = new Object();
+        this.enqueued = new AtomicLong();
+        this.delivered = new AtomicLong();
+        this.deliveredByCaller = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.batches = new AtomicLong();
+        this.pending = new AtomicLong();
+        this.queueLatencyNanos = new AtomicLong();
+        this.maxQueueDepth = new AtomicLong();
+        this.running = true;
+        for (int i = 0; i < consumerThreads; i++) {
+            Thread consumer = new Thread(this::consume, "notification-dispatcher-" + i);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+
+    public void dispatch(INotify target, String message) {
+        if (target == null) return;
+        if (!running) {
+            deliverInline(target, message);
+            return;
+        }
+        Delivery delivery = new Delivery(target, message, System.nanoTime());
+        pending.incrementAndGet();
+        boolean accepted = queue.offer(delivery);
+        if (!accepted) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    try {
+                        queue.put(delivery);
+                        accepted = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    break;
+                case DROP:
+                    dropped.incrementAndGet();
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (accepted) {
+            enqueued.incrementAndGet();
+            maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+            if (!running) {
+                drainLeftovers();
+            }
+        } else {
+            finishPending(1);
+            if (overflowPolicy != OverflowPolicy.DROP) {
+                deliverInline(target, message);
+            }
+        }
+    }
+
+    public boolean awaitIdle(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (idleLock) {
+            while (pending.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                try {
+                    idleLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        drainLeftovers();
+        System.out.println("NotificationDispatcher: Shut down. " + getMetrics());
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public DispatchMetrics getMetrics() {
+        return new DispatchMetrics(enqueued.get(), delivered.get(), deliveredByCaller.get(), dropped.get(),
+                failed.get(), batches.get(), queue.size(), maxQueueDepth.get(), queueLatencyNanos.get());
+    }
+
+    private void consume() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Delivery first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliverBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private synchronized void drainLeftovers() {
+        List<Delivery> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        deliverBatch(leftovers);
+    }
+
+    private void deliverBatch(List<Delivery> batch) {
+        if (batch.isEmpty()) return;
+        long now = System.nanoTime();
+        for (Delivery delivery : batch) {
+            queueLatencyNanos.addAndGet(now - delivery.enqueuedNanos);
+            try {
+                delivery.target.recieveMessage(delivery.message);
+                delivered.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                System.err.println("NotificationDispatcher: Delivery failed: " + e.getMessage());
+            }
+        }
+        batches.incrementAndGet();
+        finishPending(batch.size());
+    }
+
+    private void deliverInline(INotify target, String message) {
+        try {
+            target.recieveMessage(message);
+            deliveredByCaller.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("NotificationDispatcher: Delivery failed: " + e.getMessage());
+        }
+    }
+
+    private void finishPending(int count) {
+        if (pending.addAndGet(-count) == 0) {
+            synchronized (idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    private static class Delivery {
+        private final INotify target;
+        private final String message;
+        private final long enqueuedNanos;
+
+        Delivery(INotify target, String message, long enqueuedNanos) {
+            this.target = target;
+            this.message = message;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    public static class DispatchMetrics {
+        private final long enqueued;
+        private final long delivered;
+        private final long deliveredByCaller;
+        private final long dropped;
+        private final long failed;
+        private final long batches;
+        private final int queueDepth;
+        private final long maxQueueDepth;
+        private final long queueLatencyNanos;
+
+        DispatchMetrics(long enqueued, long delivered, long deliveredByCaller, long dropped, long failed,
+                        long batches, int queueDepth, long maxQueueDepth, long queueLatencyNanos) {
+            this.enqueued = enqueued;
+            this.delivered = delivered;
+            this.deliveredByCaller = deliveredByCaller;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.batches = batches;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.queueLatencyNanos = queueLatencyNanos;
+        }
+
+        public long getEnqueued() { return enqueued; }
+        public long getDelivered() { return delivered; }
+        public long getDeliveredByCaller() { return deliveredByCaller; }
+        public long getDropped() { return dropped; }
+        public long getFailed() { return failed; }
+        public long getBatches() { return batches; }
+        public int getQueueDepth() { return queueDepth; }
+        public long getMaxQueueDepth() { return maxQueueDepth; }
+
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0 : (double) delivered / batches;
+        }
+
+        public double getAverageQueueLatencyMillis() {
+            return delivered == 0 ? 0 : queueLatencyNanos / 1e6 / delivered;
+        }
+
+        @Override
+        public String toString() {
+            return enqueued + " queued, " + delivered + " delivered in " + batches + " batches (avg "
+                    + String.format("%.1f", getAverageBatchSize()) + "), " + deliveredByCaller + " delivered by caller, "
+                    + dropped + " dropped, " + failed + " failed, queue depth " + queueDepth + " (max " + maxQueueDepth
+                    + "), avg queue latency " + String.format("%.2f", getAverageQueueLatencyMillis()) + " ms";
+        }
+    }
+}
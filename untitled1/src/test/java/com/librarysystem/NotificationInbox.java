@@ -0,0 +1,233 @@
+package com.librarysystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NotificationInbox {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final FileHandleCache HANDLES = new FileHandleCache(FileHandleCache.DEFAULT_CAPACITY);
+
+    private final File logFile;
+    private final File indexFile;
+    private final File markerFile;
+    private final Notification[] ring;
+    private boolean closed;
+    private long logLength;
+    private long count;
+    private long readUpTo;
+
+    public NotificationInbox(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Inbox capacity must be positive.");
+        this.ring = new Notification[capacity];
+        this.logFile = null;
+        this.indexFile = null;
+        this.markerFile = null;
+    }
+
+    public NotificationInbox(File directory, int ownerId, int capacity) throws IOException {
+        if (capacity <= 0) throw new IllegalArgumentException("Inbox capacity must be positive.");
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create notification directory " + directory);
+        }
+        this.ring = new Notification[capacity];
+        this.logFile = new File(directory, ownerId + ".log");
+        this.indexFile = new File(directory, ownerId + ".idx");
+        this.markerFile = new File(directory, ownerId + ".read");
+        load();
+    }
+
+    public synchronized Notification append(String message) {
+        Notification notification = new Notification(count + 1, message);
+        if (logFile != null) {
+            persist(notification);
+        }
+        count++;
+        ring[slotOf(count)] = notification;
+        return notification;
+    }
+
+    public synchronized long getTotalCount() {
+        return count - oldestAvailable() + 1;
+    }
+
+    public synchronized long getUnreadCount() {
+        return count - Math.max(readUpTo, oldestAvailable() - 1);
+    }
+
+    public synchronized List<Notification> getUnread(int limit) {
+        List<Notification> unread = new ArrayList<>();
+        long from = Math.max(readUpTo, oldestAvailable() - 1) + 1;
+        for (long sequence = from; sequence <= count && unread.size() < limit; sequence++) {
+            unread.add(get(sequence));
+        }
+        return unread;
+    }
+
+    public synchronized List<Notification> getPage(int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) throw new IllegalArgumentException("Page must be >= 0 and page size positive.");
+        List<Notification> notifications = new ArrayList<>();
+        long newest = count - (long) page * pageSize;
+        for (long sequence = newest; sequence > newest - pageSize && sequence >= oldestAvailable(); sequence--) {
+            notifications.add(get(sequence));
+        }
+        return notifications;
+    }
+
+    public synchronized void markReadUpTo(long sequence) {
+        long marker = Math.min(sequence, count);
+        if (marker <= readUpTo) return;
+        readUpTo = marker;
+        if (markerFile != null) {
+            try (RandomAccessFile raf = new RandomAccessFile(markerFile, "rw")) {
+                raf.seek(0);
+                raf.writeLong(readUpTo);
+            } catch (IOException e) {
+                System.err.println("NotificationInbox: Could not save read marker: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void markAllRead() {
+        markReadUpTo(count);
+    }
+
+    public synchronized void close() {
+        if (closed || logFile == null) return;
+        closed = true;
+        HANDLES.forget(logFile);
+        HANDLES.forget(indexFile);
+    }
+
+    public synchronized void delete() {
+        if (logFile == null) return;
+        close();
+        for (File file : new File[] { logFile, indexFile, markerFile }) {
+            if (file.exists() && !file.delete()) {
+                System.err.println("NotificationInbox: Could not delete " + file);
+            }
+        }
+        java.util.Arrays.fill(ring, null);
+        count = 0;
+        readUpTo = 0;
+        logLength = 0;
+    }
+
+    private long oldestAvailable() {
+        return logFile != null ? 1 : Math.max(1, count - ring.length + 1);
+    }
+
+    private int slotOf(long sequence) {
+        return (int) ((sequence - 1) % ring.length);
+    }
+
+    private Notification get(long sequence) {
+        if (sequence > count - ring.length) {
+            Notification cached = ring[slotOf(sequence)];
+            if (cached != null && cached.getSequence() == sequence) {
+                return cached;
+            }
+        }
+        return readFromDisk(sequence);
+    }
+
+    private void persist(Notification notification) {
+        byte[] bytes = notification.getMessage().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(4 + bytes.length);
+        record.putInt(bytes.length).put(bytes);
+        ensureOpen("store notification " + notification.getSequence());
+        try (FileHandleCache.Handle logHandle = HANDLES.acquire(logFile);
+             FileHandleCache.Handle indexHandle = HANDLES.acquire(indexFile)) {
+            RandomAccessFile log = logHandle.file();
+            RandomAccessFile index = indexHandle.file();
+            log.seek(logLength);
+            log.write(record.array());
+            index.seek((notification.getSequence() - 1) * 8);
+            index.writeLong(logLength);
+            logLength += record.capacity();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not store notification: " + e.getMessage(), e);
+        }
+    }
+
+    private Notification readFromDisk(long sequence) {
+        ensureOpen("read notification " + sequence);
+        try (FileHandleCache.Handle log = HANDLES.acquire(logFile);
+             FileHandleCache.Handle index = HANDLES.acquire(indexFile)) {
+            return readRecord(log.file(), index.file(), sequence);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read notification " + sequence + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Notification readRecord(RandomAccessFile log, RandomAccessFile index, long sequence) throws IOException {
+        index.seek((sequence - 1) * 8);
+        log.seek(index.readLong());
+        byte[] bytes = new byte[log.readInt()];
+        log.readFully(bytes);
+        return new Notification(sequence, new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private void ensureOpen(String operation) {
+        if (closed) {
+            throw new IllegalStateException("Could not " + operation + ": inbox is closed.");
+        }
+    }
+
+    private void load() throws IOException {
+        try (RandomAccessFile log = new RandomAccessFile(logFile, "rw");
+             RandomAccessFile index = new RandomAccessFile(indexFile, "rw")) {
+            long length = log.length();
+            long entries = index.length() / 8;
+            long logEnd = 0;
+            while (entries > 0) {
+                index.seek((entries - 1) * 8);
+                long offset = index.readLong();
+                if (offset + 4 <= length) {
+                    log.seek(offset);
+                    long end = offset + 4 + log.readInt();
+                    if (end <= length) {
+                        logEnd = end;
+                        break;
+                    }
+                }
+                entries--;
+            }
+            index.setLength(entries * 8);
+            log.setLength(logEnd);
+            logLength = logEnd;
+            count = entries;
+            for (long sequence = Math.max(1, count - ring.length + 1); sequence <= count; sequence++) {
+                ring[slotOf(sequence)] = readRecord(log, index, sequence);
+            }
+        }
+        if (markerFile.exists() && markerFile.length() >= 8) {
+            try (RandomAccessFile marker = new RandomAccessFile(markerFile, "r")) {
+                readUpTo = Math.min(marker.readLong(), count);
+            }
+        }
+    }
+
+    public static class Notification {
+        private final long sequence;
+        private final String message;
+
+        Notification(long sequence, String message) {
+            this.sequence = sequence;
+            this.message = message;
+        }
+
+        public long getSequence() { return sequence; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+}
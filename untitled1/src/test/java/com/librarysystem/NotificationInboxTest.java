@@ -0,0 +1,119 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationInboxTest {
+
+    private static final File INBOX_DIR = new File("test_notification_inbox");
+
+    @Test
+    void testPagesAndPersistsReadMarkers() throws IOException {
+        System.out.println("Running testPagesAndPersistsReadMarkers...");
+        TestFixtures.deleteDirectory(INBOX_DIR);
+        User user = new User(1, "Inbox", "Reader", "inbox@example.com", "READER", "pass", 5, new Date(2030, 1, 1));
+        try {
+            user.attachInbox(INBOX_DIR);
+            for (int i = 1; i <= 150; i++) {
+                user.recieveMessage("Message " + i);
+            }
+            assertEquals(150, user.getUnreadNotificationCount());
+            List<NotificationInbox.Notification> firstUnread = user.getInbox().getUnread(10);
+            assertEquals("Message 1", firstUnread.get(0).getMessage(), "Oldest unread messages come from the on-disk segment.");
+            user.getInbox().markReadUpTo(firstUnread.get(9).getSequence());
+            assertEquals(140, user.getUnreadNotificationCount());
+
+            List<NotificationInbox.Notification> newest = user.getInbox().getPage(0, 5);
+            assertEquals("Message 150", newest.get(0).getMessage());
+            List<NotificationInbox.Notification> oldest = user.getInbox().getPage(14, 10);
+            assertEquals("Message 10", oldest.get(0).getMessage());
+            assertEquals("Message 1", oldest.get(9).getMessage());
+
+            NotificationInbox reopened = new NotificationInbox(INBOX_DIR, user.getId(), NotificationInbox.DEFAULT_CAPACITY);
+            assertEquals(150, reopened.getTotalCount());
+            assertEquals(140, reopened.getUnreadCount(), "Read marker should survive a restart.");
+            assertEquals("Message 11", reopened.getUnread(1).get(0).getMessage());
+            reopened.close();
+            user.clearNotifications();
+            assertEquals(0, user.getUnreadNotificationCount());
+            assertTrue(user.getUnreadNotifications().isEmpty());
+            List<String> recent = user.getNotifications();
+            assertEquals(NotificationInbox.DEFAULT_CAPACITY, recent.size(), "Read messages stay in the recent page.");
+            assertEquals("Message 150", recent.get(recent.size() - 1));
+        } finally {
+            user.getInbox().close();
+            TestFixtures.deleteDirectory(INBOX_DIR);
+        }
+        System.out.println("Finished testPagesAndPersistsReadMarkers.");
+    }
+
+    @Test
+    void testMemoryOnlyInboxKeepsRingCapacity() {
+        System.out.println("Running testMemoryOnlyInboxKeepsRingCapacity...");
+        NotificationInbox memoryOnly = new NotificationInbox(4);
+        for (int i = 1; i <= 6; i++) {
+            memoryOnly.append("Memory " + i);
+        }
+        assertEquals(4, memoryOnly.getTotalCount(), "An in-memory inbox keeps only its ring capacity.");
+        assertEquals("Memory 3", memoryOnly.getUnread(10).get(0).getMessage());
+        System.out.println("Finished testMemoryOnlyInboxKeepsRingCapacity.");
+    }
+
+    @Test
+    void testDeleteRemovesFilesSoTheIdStartsEmpty() throws IOException {
+        System.out.println("Running testDeleteRemovesFilesSoTheIdStartsEmpty...");
+        TestFixtures.deleteDirectory(INBOX_DIR);
+        try {
+            NotificationInbox inbox = new NotificationInbox(INBOX_DIR, 7, NotificationInbox.DEFAULT_CAPACITY);
+            inbox.append("Your hold is ready.");
+            inbox.markAllRead();
+            inbox.delete();
+            assertEquals(0, inbox.getTotalCount());
+
+            NotificationInbox reused = new NotificationInbox(INBOX_DIR, 7, NotificationInbox.DEFAULT_CAPACITY);
+            assertEquals(0, reused.getTotalCount(), "A new owner of the same ID must start with an empty inbox.");
+            reused.append("Welcome.");
+            assertEquals(1, reused.getUnreadCount());
+            reused.close();
+        } finally {
+            TestFixtures.deleteDirectory(INBOX_DIR);
+        }
+        System.out.println("Finished testDeleteRemovesFilesSoTheIdStartsEmpty.");
+    }
+
+    @Test
+    void testInboxesDoNotHoldFileHandlesBetweenOperations() throws IOException {
+        System.out.println("Running testInboxesDoNotHoldFileHandlesBetweenOperations...");
+        TestFixtures.deleteDirectory(INBOX_DIR);
+        File openHandles = new File("/proc/self/fd");
+        int before = openHandles.isDirectory() ? openHandles.list().length : 0;
+        List<NotificationInbox> inboxes = new java.util.ArrayList<>();
+        try {
+            for (int id = 1; id <= 300; id++) {
+                NotificationInbox inbox = new NotificationInbox(INBOX_DIR, id, 2);
+                inbox.append("First " + id);
+                inbox.append("Second " + id);
+                inbox.append("Third " + id);
+                inboxes.add(inbox);
+            }
+            if (openHandles.isDirectory()) {
+                assertTrue(openHandles.list().length - before <= FileHandleCache.DEFAULT_CAPACITY + 10,
+                        "Only the most recently used inbox files stay open.");
+            }
+            assertEquals("First 1", inboxes.get(0).getUnread(1).get(0).getMessage(), "An evicted inbox reopens its files.");
+            for (NotificationInbox inbox : inboxes) {
+                inbox.close();
+            }
+            if (openHandles.isDirectory()) {
+                assertTrue(openHandles.list().length - before < 10, "Closed inboxes must not keep file descriptors.");
+            }
+            assertThrows(IllegalStateException.class, () -> inboxes.get(0).append("After close"));
+        } finally {
+            TestFixtures.deleteDirectory(INBOX_DIR);
+        }
+        System.out.println("Finished testInboxesDoNotHoldFileHandlesBetweenOperations.");
+    }
+}
@@ -0,0 +1,254 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PopularityTracker {
+    public enum Window {
+        WEEK(7),
+        MONTH(30),
+        YEAR(365);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public int getDays() { return days; }
+    }
+
+    private static final int RETAINED_DAYS = Window.YEAR.getDays();
+
+    private final List<Map<Integer, Integer>> dailyCounts;
+    private final long[] bucketDays;
+    private final WindowCounts[] windows;
+    private long currentDay;
+
+    public PopularityTracker(Date startDate) {
+        if (startDate == null) throw new IllegalArgumentException("Start date cannot be null.");
+        this.dailyCounts = new ArrayList<>(RETAINED_DAYS);
+        this.bucketDays = new long[RETAINED_DAYS];
+        for (int i = 0; i < RETAINED_DAYS; i++) {
+            dailyCounts.add(new HashMap<>());
+            bucketDays[i] = Long.MIN_VALUE;
+        }
+        this.windows = new WindowCounts[Window.values().length];
+        for (Window window : Window.values()) {
+            windows[window.ordinal()] = new WindowCounts();
+        }
+        this.currentDay = startDate.toEpochDay();
+    }
+
+    public synchronized void recordBorrow(int bookId, Date borrowDate) {
+        long day = borrowDate.toEpochDay();
+        advanceTo(day);
+        if (day <= currentDay - RETAINED_DAYS) return;
+        int slot = slotOf(day);
+        if (bucketDays[slot] != day) {
+            dailyCounts.get(slot).clear();
+            bucketDays[slot] = day;
+        }
+        dailyCounts.get(slot).merge(bookId, 1, Integer::sum);
+        for (Window window : Window.values()) {
+            if (day > currentDay - window.getDays()) {
+                windows[window.ordinal()].add(bookId, 1);
+            }
+        }
+    }
+
+    public synchronized void advanceTo(Date date) {
+        advanceTo(date.toEpochDay());
+    }
+
+    public synchronized List<Ranking> topK(Window window, int k) {
+        List<Ranking> top = new ArrayList<>(Math.max(0, k));
+        windows[window.ordinal()].topK(k, top);
+        return top;
+    }
+
+    public synchronized long getCount(Window window, int bookId) {
+        return windows[window.ordinal()].count(bookId);
+    }
+
+    public synchronized int getTrackedBooks(Window window) {
+        return windows[window.ordinal()].byBook.size();
+    }
+
+    private void advanceTo(long day) {
+        if (day <= currentDay) return;
+        if (day - currentDay >= RETAINED_DAYS) {
+            for (int i = 0; i < RETAINED_DAYS; i++) {
+                dailyCounts.get(i).clear();
+                bucketDays[i] = Long.MIN_VALUE;
+            }
+            for (WindowCounts counts : windows) {
+                counts.clear();
+            }
+            currentDay = day;
+            return;
+        }
+        for (long next = currentDay + 1; next <= day; next++) {
+            for (Window window : Window.values()) {
+                long leaving = next - window.getDays();
+                int slot = slotOf(leaving);
+                if (bucketDays[slot] != leaving) continue;
+                WindowCounts counts = windows[window.ordinal()];
+                for (Map.Entry<Integer, Integer> entry : dailyCounts.get(slot).entrySet()) {
+                    counts.add(entry.getKey(), -entry.getValue());
+                }
+            }
+            int expired = slotOf(next - RETAINED_DAYS);
+            dailyCounts.get(expired).clear();
+            bucketDays[expired] = Long.MIN_VALUE;
+        }
+        currentDay = day;
+    }
+
+    private static int slotOf(long day) {
+        return (int) Math.floorMod(day, (long) RETAINED_DAYS);
+    }
+
+    private static class WindowCounts {
+        private final Map<Integer, Node> byBook = new HashMap<>();
+        private Bucket highest;
+        private Bucket lowest;
+
+        void add(int bookId, long delta) {
+            Node node = byBook.get(bookId);
+            if (node == null) {
+                if (delta <= 0) return;
+                node = new Node(bookId);
+                byBook.put(bookId, node);
+                place(node, delta, null);
+                return;
+            }
+            long count = node.bucket.count + delta;
+            Bucket previous = node.bucket;
+            previous.unlink(node);
+            if (count <= 0) {
+                byBook.remove(bookId);
+            } else {
+                place(node, count, previous);
+            }
+            if (previous.head == null) {
+                removeBucket(previous);
+            }
+        }
+
+        void topK(int k, List<Ranking> out) {
+            for (Bucket bucket = highest; bucket != null && out.size() < k; bucket = bucket.lower) {
+                for (Node node = bucket.head; node != null && out.size() < k; node = node.next) {
+                    out.add(new Ranking(node.bookId, bucket.count));
+                }
+            }
+        }
+
+        long count(int bookId) {
+            Node node = byBook.get(bookId);
+            return node == null ? 0 : node.bucket.count;
+        }
+
+        void clear() {
+            byBook.clear();
+            highest = null;
+            lowest = null;
+        }
+
+        private void place(Node node, long count, Bucket start) {
+            // Counts move by small deltas, so walking the neighbouring buckets is cheaper than a tree lookup.
+            Bucket higher = null;
+            Bucket lower = start != null ? start : lowest;
+            if (lower != null && lower.count > count) {
+                while (lower != null && lower.count > count) {
+                    higher = lower;
+                    lower = lower.lower;
+                }
+            } else {
+                higher = lower == null ? null : lower.higher;
+                while (higher != null && higher.count <= count) {
+                    lower = higher;
+                    higher = higher.higher;
+                }
+            }
+            Bucket target;
+            if (lower != null && lower.count == count) {
+                target = lower;
+            } else {
+                target = new Bucket(count);
+                target.lower = lower;
+                target.higher = higher;
+                if (lower != null) lower.higher = target;
+                else lowest = target;
+                if (higher != null) higher.lower = target;
+                else highest = target;
+            }
+            target.push(node);
+        }
+
+        private void removeBucket(Bucket bucket) {
+            if (bucket.lower != null) bucket.lower.higher = bucket.higher;
+            else lowest = bucket.higher;
+            if (bucket.higher != null) bucket.higher.lower = bucket.lower;
+            else highest = bucket.lower;
+        }
+    }
+
+    private static class Bucket {
+        private final long count;
+        private Bucket higher;
+        private Bucket lower;
+        private Node head;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+
+        void push(Node node) {
+            node.bucket = this;
+            node.previous = null;
+            node.next = head;
+            if (head != null) head.previous = node;
+            head = node;
+        }
+
+        void unlink(Node node) {
+            if (node.previous != null) node.previous.next = node.next;
+            else head = node.next;
+            if (node.next != null) node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+        }
+    }
+
+    private static class Node {
+        private final int bookId;
+        private Bucket bucket;
+        private Node previous;
+        private Node next;
+
+        Node(int bookId) {
+            this.bookId = bookId;
+        }
+    }
+
+    public static class Ranking {
+        private final int bookId;
+        private final long count;
+
+        Ranking(int bookId, long count) {
+            this.bookId = bookId;
+            this.count = count;
+        }
+
+        public int getBookId() { return bookId; }
+        public long getCount() { return count; }
+
+        @Override
+        public String toString() {
+            return "Book ID " + bookId + ": " + count + " borrows";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopularityTrackerTest {
+
+    private static final String TEST_BOOKS_FILE = "popularity_test_books.csv";
+    private static final File HISTORY_DIR = new File("test_popularity_history");
+
+    private final Date today = new Date(2025, 5, 9);
+    private TestFixtures fixtures;
+    private Executor executor;
+    private Book book1;
+    private Book book2;
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(TEST_BOOKS_FILE, today, HISTORY_DIR);
+        executor = fixtures.executor;
+        book1 = fixtures.addBook("Popular Book 1", "Author P1", "ISBN_P1");
+        book2 = fixtures.addBook("Popular Book 2", "Author P2", "ISBN_P2");
+        reader = fixtures.newReader(1, "Popular");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.cleanUp();
+    }
+
+    @Test
+    void testSlidesWindowsAndRanksTopBooks() {
+        System.out.println("Running testSlidesWindowsAndRanksTopBooks...");
+        PopularityTracker popularity = new PopularityTracker(today);
+        executor.attachPopularityTracker(popularity);
+        borrowAndReturn(book1, today, 3);
+        Date nextWeek = today.plusDays(8);
+        borrowAndReturn(book2, nextWeek, 1);
+        popularity.recordBorrow(99, nextWeek);
+        popularity.recordBorrow(99, nextWeek);
+
+        List<PopularityTracker.Ranking> week = executor.getMostBorrowed(PopularityTracker.Window.WEEK, 5, nextWeek);
+        assertEquals(2, week.size(), "Book1's borrows have left the seven-day window.");
+        assertEquals(99, week.get(0).getBookId());
+        assertEquals(2, week.get(0).getCount());
+        assertEquals(book2.getId(), week.get(1).getBookId());
+
+        List<PopularityTracker.Ranking> month = executor.getMostBorrowed(PopularityTracker.Window.MONTH, 1, nextWeek);
+        assertEquals(1, month.size());
+        assertEquals(book1.getId(), month.get(0).getBookId());
+        assertEquals(3, month.get(0).getCount());
+
+        assertTrue(executor.getMostBorrowed(PopularityTracker.Window.MONTH, 5, today.plusDays(40)).isEmpty());
+        assertEquals(3, popularity.getCount(PopularityTracker.Window.YEAR, book1.getId()));
+        assertEquals(0, executor.getMostBorrowed(PopularityTracker.Window.YEAR, 5, today.plusDays(400)).size());
+        System.out.println("Finished testSlidesWindowsAndRanksTopBooks.");
+    }
+
+    @Test
+    void testRebuildRestoresCountsFromCardHistoryAfterRestart() throws IOException {
+        System.out.println("Running testRebuildRestoresCountsFromCardHistoryAfterRestart...");
+        reader.getLibraryCard().attachHistory(HISTORY_DIR);
+        executor.attachPopularityTracker(new PopularityTracker(today.minusDays(400)));
+        borrowAndReturn(book2, today.minusDays(400), 2);
+        borrowAndReturn(book1, today.minusDays(20), 1);
+        borrowAndReturn(book2, today.minusDays(3), 1);
+        borrowAndReturn(book1, today.minusDays(2), 2);
+
+        User restarted = fixtures.newReader(1, "Popular");
+        restarted.getLibraryCard().attachHistory(HISTORY_DIR);
+        PopularityTracker rebuilt = executor.rebuildPopularity(Collections.singletonList(restarted), today);
+
+        assertEquals(3, rebuilt.getCount(PopularityTracker.Window.MONTH, book1.getId()));
+        assertEquals(2, rebuilt.getCount(PopularityTracker.Window.WEEK, book1.getId()));
+        assertEquals(1, rebuilt.getCount(PopularityTracker.Window.YEAR, book2.getId()), "Borrows older than a year are not counted.");
+        assertEquals(book1.getId(), executor.getMostBorrowed(PopularityTracker.Window.WEEK, 1, today).get(0).getBookId());
+        System.out.println("Finished testRebuildRestoresCountsFromCardHistoryAfterRestart.");
+    }
+
+    private void borrowAndReturn(Book book, Date day, int times) {
+        for (int i = 0; i < times; i++) {
+            fixtures.borrowAndReturn(reader, day, book);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryPlan {
+    private final CatalogQuery query;
+    private final List<Step> steps;
+
+    public QueryPlan(CatalogQuery query) {
+        this.query = query;
+        this.steps = new ArrayList<>();
+    }
+
+    public CatalogQuery getQuery() { return query; }
+    public List<Step> getSteps() { return new ArrayList<>(steps); }
+
+    void addStep(Step step) {
+        steps.add(step);
+    }
+
+    public String explain() {
+        StringBuilder sb = new StringBuilder("Plan for ").append(query).append('\n');
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            sb.append("  ").append(i + 1).append(". ").append(i == 0 ? "SCAN " : "INTERSECT ")
+                    .append(step.getName())
+                    .append(" (estimated=").append(step.getEstimatedRows())
+                    .append(", actual=").append(step.getActualRows() < 0 ? "n/a" : String.valueOf(step.getActualRows()))
+                    .append(")\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    public static class Step {
+        private final String name;
+        private long estimatedRows;
+        private long actualRows;
+
+        Step(String name, long estimatedRows) {
+            this.name = name;
+            this.estimatedRows = estimatedRows;
+            this.actualRows = -1;
+        }
+
+        public String getName() { return name; }
+        public long getEstimatedRows() { return estimatedRows; }
+        public long getActualRows() { return actualRows; }
+
+        void setEstimatedRows(long estimatedRows) { this.estimatedRows = estimatedRows; }
+        void setActualRows(long actualRows) { this.actualRows = actualRows; }
+    }
+}
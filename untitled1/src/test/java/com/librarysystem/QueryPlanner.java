@@ -0,0 +1,135 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+public class QueryPlanner {
+    private final IReadWrite readWrite;
+
+    public QueryPlanner(IReadWrite readWrite) {
+        this.readWrite = readWrite;
+    }
+
+    public QueryPlan plan(CatalogQuery query) {
+        QueryPlan plan = new QueryPlan(query);
+        List<Access> accesses = orderedAccesses(query);
+        if (accesses.isEmpty()) {
+            plan.addStep(new QueryPlan.Step("FULL_SCAN", readWrite.getCatalogIndex().size()));
+            return plan;
+        }
+
+        int total = Math.max(1, readWrite.getCatalogIndex().size());
+        Access driver = accesses.get(0);
+        plan.addStep(driver.step);
+        double estimate = driver.step.getEstimatedRows();
+        for (Access access : accesses.subList(1, accesses.size())) {
+            estimate = estimate * access.step.getEstimatedRows() / total;
+            access.step.setEstimatedRows(Math.round(estimate));
+            plan.addStep(access.step);
+        }
+        plan.addStep(new QueryPlan.Step("RESIDUAL_FILTER", Math.round(estimate)));
+        return plan;
+    }
+
+    public QueryResult execute(CatalogQuery query) {
+        QueryPlan plan = new QueryPlan(query);
+        List<Access> accesses = orderedAccesses(query);
+        List<Book> books = new ArrayList<>();
+
+        if (accesses.isEmpty()) {
+            QueryPlan.Step fullScan = new QueryPlan.Step("FULL_SCAN", readWrite.getCatalogIndex().size());
+            plan.addStep(fullScan);
+            for (Book book : readWrite.getAllBooks()) {
+                if (query.matches(book)) books.add(book);
+            }
+            books.sort(Comparator.comparingInt(Book::getId));
+            fullScan.setActualRows(books.size());
+            return new QueryResult(books, plan);
+        }
+
+        int total = Math.max(1, readWrite.getCatalogIndex().size());
+        Access driver = accesses.get(0);
+        Set<Integer> candidates = new TreeSet<>(driver.fetch.get());
+        driver.step.setActualRows(candidates.size());
+        plan.addStep(driver.step);
+
+        double estimate = driver.step.getEstimatedRows();
+        for (Access access : accesses.subList(1, accesses.size())) {
+            estimate = estimate * access.step.getEstimatedRows() / total;
+            access.step.setEstimatedRows(Math.round(estimate));
+            if (!candidates.isEmpty()) {
+                candidates.removeIf(id -> !access.probe.test(id));
+            }
+            access.step.setActualRows(candidates.size());
+            plan.addStep(access.step);
+        }
+
+        QueryPlan.Step residual = new QueryPlan.Step("RESIDUAL_FILTER", candidates.size());
+        for (int id : candidates) {
+            Book book = readWrite.findBookById(id);
+            if (query.matches(book)) books.add(book);
+        }
+        residual.setActualRows(books.size());
+        plan.addStep(residual);
+        return new QueryResult(books, plan);
+    }
+
+    private List<Access> orderedAccesses(CatalogQuery query) {
+        CatalogIndex index = readWrite.getCatalogIndex();
+        List<Access> accesses = new ArrayList<>();
+        if (query.isAvailableOnly()) {
+            accesses.add(new Access("AVAILABILITY_BITMAP", index.countAvailable(),
+                    index::getAvailableIds, index::isAvailable));
+        }
+        if (query.getGenre() != null) {
+            String genre = query.getGenre();
+            accesses.add(tokenAccess("GENRE_FACET[" + CatalogIndex.normalizeGenre(genre) + "]",
+                    index.countGenre(genre), () -> index.getGenreIds(genre)));
+        }
+        if (query.getAuthor() != null) {
+            for (String token : CatalogIndex.tokenize(query.getAuthor())) {
+                accesses.add(tokenAccess("AUTHOR_INDEX[" + token + "]",
+                        index.countAuthorToken(token), () -> index.getAuthorTokenIds(token)));
+            }
+        }
+        if (query.getText() != null) {
+            for (String token : CatalogIndex.tokenize(query.getText())) {
+                accesses.add(tokenAccess("TEXT_INDEX[" + token + "]",
+                        index.countTextToken(token), () -> index.getTextTokenIds(token)));
+            }
+        }
+        accesses.sort(Comparator.comparingLong(a -> a.step.getEstimatedRows()));
+        return accesses;
+    }
+
+    private Access tokenAccess(String name, int estimate, Supplier<Set<Integer>> fetch) {
+        Access access = new Access(name, estimate, fetch, null);
+        access.probe = id -> access.probeSet().contains(id);
+        return access;
+    }
+
+    private static final class Access {
+        private final QueryPlan.Step step;
+        private final Supplier<Set<Integer>> fetch;
+        private IntPredicate probe;
+        private Set<Integer> probeSet;
+
+        Access(String name, long estimate, Supplier<Set<Integer>> fetch, IntPredicate probe) {
+            this.step = new QueryPlan.Step(name, estimate);
+            this.fetch = fetch;
+            this.probe = probe;
+        }
+
+        private Set<Integer> probeSet() {
+            if (probeSet == null) {
+                probeSet = fetch.get();
+            }
+            return probeSet;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryResult {
+    private final List<Book> books;
+    private final QueryPlan plan;
+
+    public QueryResult(List<Book> books, QueryPlan plan) {
+        this.books = books;
+        this.plan = plan;
+    }
+
+    public List<Book> getBooks() { return new ArrayList<>(books); }
+    public QueryPlan getPlan() { return plan; }
+    public String explain() { return plan.explain(); }
+}
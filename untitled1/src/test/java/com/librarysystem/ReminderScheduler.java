@@ -0,0 +1,101 @@
+package com.librarysystem;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ReminderScheduler {
+    public static final int DEFAULT_REMINDER_DAYS_IN_ADVANCE = 7;
+    private static final long REAL_CLOCK_POLL_SECONDS = 60;
+
+    private final Executor executor;
+    private final int reminderDaysInAdvance;
+    private final ScheduledExecutorService sweeper;
+    private volatile Date currentDate;
+    private volatile boolean realClock;
+    private Date lastSweptDate;
+
+    public ReminderScheduler(Executor executor, Date startDate, int reminderDaysInAdvance) {
+        this.executor = executor;
+        this.reminderDaysInAdvance = reminderDaysInAdvance;
+        this.currentDate = startDate != null ? startDate : Date.getCurrentDate();
+        this.realClock = startDate == null;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::pollRealClock, REAL_CLOCK_POLL_SECONDS, REAL_CLOCK_POLL_SECONDS, TimeUnit.SECONDS);
+        sweeper.execute(this::sweepIfNewDay);
+    }
+
+    public Date getCurrentDate() {
+        return currentDate;
+    }
+
+    public void setCurrentDate(Date date) {
+        if (date == null) throw new IllegalArgumentException("Simulated date cannot be null.");
+        this.realClock = false;
+        this.currentDate = date;
+        sweeper.execute(this::sweepIfNewDay);
+    }
+
+    public void useRealClock() {
+        this.realClock = true;
+        this.currentDate = Date.getCurrentDate();
+        sweeper.execute(this::sweepIfNewDay);
+    }
+
+    public boolean isRealClock() {
+        return realClock;
+    }
+
+    public void awaitPendingSweeps() {
+        try {
+            sweeper.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("ReminderScheduler: Sweep failed: " + e.getCause().getMessage());
+        }
+    }
+
+    public void shutdown() {
+        sweeper.shutdown();
+        try {
+            if (!sweeper.awaitTermination(5, TimeUnit.SECONDS)) {
+                sweeper.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            sweeper.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void pollRealClock() {
+        if (realClock) {
+            currentDate = Date.getCurrentDate();
+            sweepIfNewDay();
+        }
+    }
+
+    private void sweepIfNewDay() {
+        Date day = currentDate;
+        if (lastSweptDate != null && lastSweptDate.isEqual(day)) {
+            return;
+        }
+        try {
+            executor.checkAndNotifyForUpcomingReturns(day, reminderDaysInAdvance);
+            executor.processOverdueLoans(day);
+            executor.processPickupExpirations(day);
+            executor.flushNotificationDigests(day);
+            lastSweptDate = day;
+        } catch (RuntimeException e) {
+            System.err.println("ReminderScheduler: Sweep for " + day + " failed: " + e.getMessage());
+        }
+    }
+}
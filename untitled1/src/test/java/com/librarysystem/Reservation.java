@@ -2,12 +2,17 @@ package com.librarysystem;
 
 public class Reservation implements IAction {
     private Date reservationDate;
-    private String status;
+    private ReservationStatus status;
     private Book book;
     private INotify notifyTarget;
     private User user;
+    private Date pickupDeadline;
 
     public Reservation(Book book, Date reservationDate, String status, User user) {
+        this(book, reservationDate, ReservationStatus.valueOf(status), user);
+    }
+
+    public Reservation(Book book, Date reservationDate, ReservationStatus status, User user) {
         this.book = book;
         this.reservationDate = reservationDate;
         this.status = status;
@@ -16,18 +21,30 @@ public class Reservation implements IAction {
     }
 
     public Date getReservationDate() { return reservationDate; }
-    public String getStatus() { return status; }
+    public String getStatus() { return status.name(); }
+    public ReservationStatus getState() { return status; }
     public Book getBook() { return book; }
     public INotify getNotifyTarget() { return notifyTarget; }
     public User getUser() { return user; }
 
+    public Date getPickupDeadline() { return pickupDeadline; }
+    public void setPickupDeadline(Date pickupDeadline) { this.pickupDeadline = pickupDeadline; }
+
+    public boolean isActive() { return status.isActive(); }
 
     public void setStatus(String status) {
-        this.status = status;
+        transitionTo(ReservationStatus.valueOf(status));
+    }
+
+    public void transitionTo(ReservationStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new IllegalStateException("Reservation cannot move from " + status + " to " + next + ".");
+        }
+        this.status = next;
     }
 
     @Override
     public void accept(Executor executor) {
         executor.executeReservation(this);
     }
-}
\ No newline at end of file
+}
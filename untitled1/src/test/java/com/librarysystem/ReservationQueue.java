@@ -0,0 +1,140 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReservationQueue {
+    private final List<Reservation> entries;
+    private final Map<Integer, Integer> pendingSequenceByUser;
+    private int[] pendingTree;
+    private int head;
+    private int pendingCount;
+    private final Map<Integer, Reservation> readyByUser;
+
+    public ReservationQueue() {
+        this.entries = new ArrayList<>();
+        this.pendingSequenceByUser = new HashMap<>();
+        this.pendingTree = new int[16];
+        this.readyByUser = new LinkedHashMap<>();
+    }
+
+    public void enqueue(Reservation reservation) {
+        if (reservation.getState() != ReservationStatus.PENDING) {
+            throw new IllegalArgumentException("Only PENDING reservations can be queued.");
+        }
+        Integer previous = pendingSequenceByUser.get(reservation.getUser().getId());
+        if (previous != null) {
+            dropFromPending(previous);
+        }
+        int sequence = entries.size();
+        entries.add(reservation);
+        ensureCapacity(sequence + 1);
+        addToTree(sequence, 1);
+        pendingSequenceByUser.put(reservation.getUser().getId(), sequence);
+        pendingCount++;
+    }
+
+    public Reservation peekPending() {
+        while (head < entries.size() && entries.get(head).getState() != ReservationStatus.PENDING) {
+            dropFromPending(head);
+            head++;
+        }
+        return head < entries.size() ? entries.get(head) : null;
+    }
+
+    public Reservation pollPending() {
+        Reservation next = peekPending();
+        if (next != null) {
+            dropFromPending(head);
+            head++;
+        }
+        return next;
+    }
+
+    public Reservation findActive(int userId) {
+        Reservation ready = readyByUser.get(userId);
+        if (ready != null) {
+            if (ready.isActive()) return ready;
+            readyByUser.remove(userId);
+        }
+        Integer sequence = pendingSequenceByUser.get(userId);
+        if (sequence == null) return null;
+        Reservation reservation = entries.get(sequence);
+        return reservation.getState() == ReservationStatus.PENDING ? reservation : null;
+    }
+
+    public void markReady(Reservation reservation) {
+        readyByUser.put(reservation.getUser().getId(), reservation);
+    }
+
+    public List<Reservation> getReadyForPickup() {
+        readyByUser.values().removeIf(reservation -> !reservation.isActive());
+        return new ArrayList<>(readyByUser.values());
+    }
+
+    public void release(Reservation reservation) {
+        if (readyByUser.remove(reservation.getUser().getId(), reservation)) {
+            return;
+        }
+        Integer sequence = pendingSequenceByUser.get(reservation.getUser().getId());
+        if (sequence != null && entries.get(sequence) == reservation) {
+            dropFromPending(sequence);
+        }
+    }
+
+    public int positionOf(int userId) {
+        Integer sequence = pendingSequenceByUser.get(userId);
+        if (sequence == null || entries.get(sequence).getState() != ReservationStatus.PENDING) return -1;
+        return prefixSum(sequence);
+    }
+
+    public int pendingSize() {
+        return pendingCount;
+    }
+
+    public boolean hasActive() {
+        return !getReadyForPickup().isEmpty() || peekPending() != null;
+    }
+
+    private void dropFromPending(int sequence) {
+        Reservation reservation = entries.get(sequence);
+        Integer tracked = pendingSequenceByUser.get(reservation.getUser().getId());
+        if (tracked != null && tracked == sequence) {
+            pendingSequenceByUser.remove(reservation.getUser().getId());
+            addToTree(sequence, -1);
+            pendingCount--;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size < pendingTree.length) return;
+        int[] counts = new int[pendingTree.length * 2];
+        for (int userSequence : pendingSequenceByUser.values()) {
+            counts[userSequence + 1] = 1;
+        }
+        for (int i = 1; i < counts.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < counts.length) {
+                counts[parent] += counts[i];
+            }
+        }
+        pendingTree = counts;
+    }
+
+    private void addToTree(int sequence, int delta) {
+        for (int i = sequence + 1; i < pendingTree.length; i += i & -i) {
+            pendingTree[i] += delta;
+        }
+    }
+
+    private int prefixSum(int sequence) {
+        int sum = 0;
+        for (int i = sequence + 1; i > 0; i -= i & -i) {
+            sum += pendingTree[i];
+        }
+        return sum;
+    }
+}
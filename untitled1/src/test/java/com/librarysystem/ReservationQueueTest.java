@@ -0,0 +1,39 @@
+package com.librarysystem;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationQueueTest {
+
+    @Test
+    void testEveryReadyHoldStaysFindableUntilReleased() {
+        Date today = new Date(2025, 5, 9);
+        Book book = new Book("Queue Book", "Author", "Genre", "Desc", "ISBN_Q1");
+        User first = new User(1, "First", "Reader", "first@example.com", "READER", "pass", 5, today.addMonths(6));
+        User second = new User(2, "Second", "Reader", "second@example.com", "READER", "pass", 5, today.addMonths(6));
+        ReservationQueue queue = new ReservationQueue();
+        Reservation firstHold = new Reservation(book, today, ReservationStatus.PENDING, first);
+        Reservation secondHold = new Reservation(book, today, ReservationStatus.PENDING, second);
+        queue.enqueue(firstHold);
+        queue.enqueue(secondHold);
+
+        for (int i = 0; i < 2; i++) {
+            Reservation promoted = queue.pollPending();
+            promoted.transitionTo(ReservationStatus.READY_FOR_PICKUP);
+            queue.markReady(promoted);
+        }
+        assertSame(firstHold, queue.findActive(first.getId()), "A second promotion must not hide the first READY hold.");
+        assertSame(secondHold, queue.findActive(second.getId()));
+        assertEquals(2, queue.getReadyForPickup().size());
+
+        firstHold.transitionTo(ReservationStatus.FULFILLED);
+        queue.release(firstHold);
+        assertNull(queue.findActive(first.getId()));
+        assertSame(secondHold, queue.findActive(second.getId()));
+        assertTrue(queue.hasActive());
+
+        secondHold.transitionTo(ReservationStatus.EXPIRED);
+        assertNull(queue.findActive(second.getId()), "Holds that are no longer active are not returned.");
+        assertFalse(queue.hasActive());
+    }
+}
@@ -0,0 +1,24 @@
+package com.librarysystem;
+
+public enum ReservationStatus {
+    PENDING,
+    READY_FOR_PICKUP,
+    FULFILLED,
+    CANCELLED,
+    EXPIRED;
+
+    public boolean isActive() {
+        return this == PENDING || this == READY_FOR_PICKUP;
+    }
+
+    public boolean canTransitionTo(ReservationStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == READY_FOR_PICKUP || next == FULFILLED || next == CANCELLED;
+            case READY_FOR_PICKUP:
+                return next == FULFILLED || next == CANCELLED || next == EXPIRED;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+public class SortedBookIndex {
+    private final ConcurrentSkipListMap<IndexKey, Book> sortedBooks;
+    private final Map<Integer, IndexKey> keysById;
+    private final Function<Book, String> keyExtractor;
+
+    public SortedBookIndex(Function<Book, String> keyExtractor) {
+        this.sortedBooks = new ConcurrentSkipListMap<>();
+        this.keysById = new ConcurrentHashMap<>();
+        this.keyExtractor = keyExtractor;
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public void add(Book book) {
+        if (book == null) return;
+        remove(book.getId());
+        IndexKey key = new IndexKey(normalize(keyExtractor.apply(book)), book.getId());
+        sortedBooks.put(key, book);
+        keysById.put(book.getId(), key);
+    }
+
+    public void remove(int bookId) {
+        IndexKey key = keysById.remove(bookId);
+        if (key != null) {
+            sortedBooks.remove(key);
+        }
+    }
+
+    public void clear() {
+        sortedBooks.clear();
+        keysById.clear();
+    }
+
+    public int size() {
+        return sortedBooks.size();
+    }
+
+    public List<Book> page(Book after, int limit) {
+        NavigableMap<IndexKey, Book> tail = sortedBooks;
+        if (after != null) {
+            IndexKey afterKey = keysById.get(after.getId());
+            if (afterKey == null) {
+                afterKey = new IndexKey(normalize(keyExtractor.apply(after)), after.getId());
+            }
+            tail = sortedBooks.tailMap(afterKey, false);
+        }
+        return take(tail, limit);
+    }
+
+    public List<Book> range(String fromInclusive, String toInclusive) {
+        IndexKey lower = new IndexKey(normalize(fromInclusive), Integer.MIN_VALUE);
+        IndexKey upper = new IndexKey(normalize(toInclusive) + Character.MAX_VALUE, Integer.MAX_VALUE);
+        if (lower.compareTo(upper) > 0) {
+            return new ArrayList<>();
+        }
+        return take(sortedBooks.subMap(lower, true, upper, true), Integer.MAX_VALUE);
+    }
+
+    private List<Book> take(NavigableMap<IndexKey, Book> view, int limit) {
+        List<Book> result = new ArrayList<>();
+        for (Book book : view.values()) {
+            if (result.size() >= limit) break;
+            result.add(book);
+        }
+        return result;
+    }
+
+    private static final class IndexKey implements Comparable<IndexKey> {
+        private final String value;
+        private final int bookId;
+
+        IndexKey(String value, int bookId) {
+            this.value = value;
+            this.bookId = bookId;
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int byValue = value.compareTo(other.value);
+            return byValue != 0 ? byValue : Integer.compare(bookId, other.bookId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IndexKey)) return false;
+            IndexKey other = (IndexKey) o;
+            return bookId == other.bookId && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * value.hashCode() + bookId;
+        }
+    }
+}
@@ -1,27 +1,40 @@
 package com.librarysystem;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 public class Storage implements com.librarysystem.IReadWrite {
     private Map<Integer, com.librarysystem.Book> bookListMap;
+    private SortedBookIndex titleIndex;
+    private SortedBookIndex authorIndex;
+    private CatalogIndex catalogIndex;
     private String booksFilePath = "books.csv";
 
 
     public Storage() { this("books.csv"); }
     public Storage(String booksFilePath) {
-        this.bookListMap = new HashMap<>();
+        this.bookListMap = new ConcurrentHashMap<>();
+        this.titleIndex = new SortedBookIndex(com.librarysystem.Book::getTitle);
+        this.authorIndex = new SortedBookIndex(com.librarysystem.Book::getAuthor);
+        this.catalogIndex = new CatalogIndex();
         this.booksFilePath = booksFilePath;
         loadBooks();
     }
 
     @Override
-    public void removeBook(int bookId) {
+    public synchronized void removeBook(int bookId) {
         if (bookListMap.containsKey(bookId)) {
             bookListMap.remove(bookId);
+            titleIndex.remove(bookId);
+            authorIndex.remove(bookId);
+            catalogIndex.remove(bookId);
             saveBooks();
             System.out.println("Book ID " + bookId + " removed from storage.");
         } else {
@@ -30,35 +43,132 @@ public class Storage implements com.librarysystem.IReadWrite {
     }
 
     @Override
-    public void registerBook(com.librarysystem.Book book) {
+    public synchronized void removeBooks(Collection<Integer> bookIds) {
+        List<com.librarysystem.Book> removed = new ArrayList<>();
+        for (int bookId : bookIds) {
+            com.librarysystem.Book book = bookListMap.remove(bookId);
+            if (book != null) {
+                titleIndex.remove(bookId);
+                authorIndex.remove(bookId);
+                catalogIndex.remove(bookId);
+                removed.add(book);
+            }
+        }
+        if (removed.isEmpty()) return;
+        if (!saveBooks()) {
+            for (com.librarysystem.Book book : removed) {
+                bookListMap.put(book.getId(), book);
+                indexBook(book);
+            }
+            throw new IllegalStateException("Could not persist removal of " + removed.size() + " book(s).");
+        }
+        System.out.println(removed.size() + " books removed from storage.");
+    }
+
+    @Override
+    public synchronized void registerBook(com.librarysystem.Book book) {
         if (book.getId() == -1) {
             int newId = bookListMap.keySet().stream().mapToInt(k -> k).max().orElse(0) + 1;
             book.setId(newId);
         }
         bookListMap.put(book.getId(), book);
+        indexBook(book);
         saveBooks();
         System.out.println("Book '" + book.getTitle() + "' (ID: " + book.getId() + ") registered in storage.");
     }
 
+    @Override
+    public synchronized void registerBooks(List<com.librarysystem.Book> books) {
+        if (books.isEmpty()) return;
+        int nextId = bookListMap.keySet().stream().mapToInt(k -> k).max().orElse(0) + 1;
+        for (com.librarysystem.Book book : books) {
+            if (book.getId() == -1) {
+                book.setId(nextId++);
+            } else if (bookListMap.containsKey(book.getId())) {
+                throw new IllegalArgumentException("Book ID " + book.getId() + " is already registered.");
+            }
+        }
+        if (!appendBooks(books)) {
+            throw new IllegalStateException("Could not persist batch of " + books.size() + " book(s).");
+        }
+        for (com.librarysystem.Book book : books) {
+            bookListMap.put(book.getId(), book);
+            indexBook(book);
+        }
+        System.out.println(books.size() + " books registered in storage.");
+    }
+
     @Override
     public List<com.librarysystem.Book> getAllBooks() {
         return new ArrayList<>(bookListMap.values());
     }
 
+    @Override
+    public java.util.stream.Stream<com.librarysystem.Book> streamAllBooks() {
+        return bookListMap.values().stream();
+    }
+
     @Override
     public com.librarysystem.Book findBookById(int bookId) {
         return bookListMap.get(bookId);
     }
 
     @Override
-    public void updateBookAvailability(int bookId, boolean available) {
-        com.librarysystem.Book book = bookListMap.get(bookId);
-        if (book != null) {
-            book.setAvailable(available);
-            saveBooks();
+    public synchronized void updateBookAvailability(int bookId, boolean available) {
+        updateBooksAvailability(java.util.Collections.singletonMap(bookId, available));
+    }
+
+    @Override
+    public synchronized void updateBooksAvailability(Map<Integer, Boolean> availabilityById) {
+        Map<Integer, Boolean> previous = new HashMap<>();
+        for (Map.Entry<Integer, Boolean> entry : availabilityById.entrySet()) {
+            com.librarysystem.Book book = bookListMap.get(entry.getKey());
+            if (book != null) {
+                previous.putIfAbsent(entry.getKey(), book.isAvailable());
+                book.setAvailable(entry.getValue());
+                catalogIndex.setAvailable(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!previous.isEmpty() && !saveBooks()) {
+            for (Map.Entry<Integer, Boolean> entry : previous.entrySet()) {
+                bookListMap.get(entry.getKey()).setAvailable(entry.getValue());
+                catalogIndex.setAvailable(entry.getKey(), entry.getValue());
+            }
+            throw new IllegalStateException("Could not persist availability for " + availabilityById.size() + " book(s).");
         }
     }
 
+    @Override
+    public List<com.librarysystem.Book> getBooksSortedByTitle(com.librarysystem.Book after, int limit) {
+        return titleIndex.page(after, limit);
+    }
+
+    @Override
+    public List<com.librarysystem.Book> getBooksSortedByAuthor(com.librarysystem.Book after, int limit) {
+        return authorIndex.page(after, limit);
+    }
+
+    @Override
+    public List<com.librarysystem.Book> getBooksInTitleRange(String fromTitle, String toTitle) {
+        return titleIndex.range(fromTitle, toTitle);
+    }
+
+    @Override
+    public List<com.librarysystem.Book> getBooksInAuthorRange(String fromAuthor, String toAuthor) {
+        return authorIndex.range(fromAuthor, toAuthor);
+    }
+
+    @Override
+    public CatalogIndex getCatalogIndex() {
+        return catalogIndex;
+    }
+
+    private void indexBook(com.librarysystem.Book book) {
+        titleIndex.add(book);
+        authorIndex.add(book);
+        catalogIndex.add(book);
+    }
+
     private void loadBooks() {
         File file = new File(booksFilePath);
         if (!file.exists()) {
@@ -80,6 +190,7 @@ public class Storage implements com.librarysystem.IReadWrite {
                     boolean available = Boolean.parseBoolean(parts[6]);
                     com.librarysystem.Book book = new com.librarysystem.Book(id, title, author, genre, description, isbn, available);
                     bookListMap.put(book.getId(), book);
+                    indexBook(book);
                 }
             }
             System.out.println("Loaded " + bookListMap.size() + " books.");
@@ -88,20 +199,57 @@ public class Storage implements com.librarysystem.IReadWrite {
         }
     }
 
-    private void saveBooks() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(booksFilePath))) {
+    private boolean appendBooks(List<com.librarysystem.Book> books) {
+        File target = new File(booksFilePath);
+        boolean writeHeader = !target.exists() || target.length() == 0;
+        try (FileOutputStream fos = new FileOutputStream(target, true);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos), 1 << 16)) {
+            if (writeHeader) {
+                bw.write("ID;Title;Author;Genre;Description;ISBN;Available\n");
+            }
+            for (com.librarysystem.Book book : books) {
+                writeBook(bw, book);
+            }
+            bw.flush();
+            fos.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving books: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeBook(BufferedWriter bw, com.librarysystem.Book book) throws IOException {
+        bw.write(book.getId() + ";");
+        bw.write(book.getTitle() + ";");
+        bw.write(book.getAuthor() + ";");
+        bw.write(book.getGenre() + ";");
+        bw.write(book.getDescription() + ";");
+        bw.write(book.getIsbn() + ";");
+        bw.write(book.isAvailable() + "\n");
+    }
+
+    private boolean saveBooks() {
+        File target = new File(booksFilePath);
+        File tempFile = new File(booksFilePath + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tempFile);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos))) {
             bw.write("ID;Title;Author;Genre;Description;ISBN;Available\n");
             for (com.librarysystem.Book book : bookListMap.values()) {
-                bw.write(book.getId() + ";");
-                bw.write(book.getTitle() + ";");
-                bw.write(book.getAuthor() + ";");
-                bw.write(book.getGenre() + ";");
-                bw.write(book.getDescription() + ";");
-                bw.write(book.getIsbn() + ";");
-                bw.write(book.isAvailable() + "\n");
+                writeBook(bw, book);
             }
+            bw.flush();
+            fos.getFD().sync();
+        } catch (IOException e) {
+            System.err.println("Error saving books: " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(tempFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
         } catch (IOException e) {
             System.err.println("Error saving books: " + e.getMessage());
+            return false;
         }
     }
 }
@@ -140,4 +140,34 @@ class StorageTest {
         assertFalse(reloadedBook2.isAvailable());
         System.out.println("Finished testPersistenceAcrossInstances.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSortedIndexesSupportPagingAndRanges() {
+        System.out.println("Running testSortedIndexesSupportPagingAndRanges...");
+        Book dune = new Book("Dune", "Frank Herbert", "Sci-Fi", "Desert", "D1");
+        Book anathem = new Book("Anathem", "Neal Stephenson", "Sci-Fi", "Monks", "A1");
+        Book clarissa = new Book("clarissa", "Samuel Richardson", "Novel", "Letters", "C1");
+        Book beowulf = new Book("Beowulf", "Anonymous", "Epic", "Monster", "B1");
+        storage.registerBook(dune);
+        storage.registerBook(anathem);
+        storage.registerBook(clarissa);
+        storage.registerBook(beowulf);
+
+        List<Book> firstPage = storage.getBooksSortedByTitle(null, 2);
+        assertEquals(2, firstPage.size());
+        assertEquals("Anathem", firstPage.get(0).getTitle());
+        assertEquals("Beowulf", firstPage.get(1).getTitle());
+        List<Book> secondPage = storage.getBooksSortedByTitle(firstPage.get(1), 2);
+        assertEquals("clarissa", secondPage.get(0).getTitle(), "Title ordering should ignore case.");
+        assertEquals("Dune", secondPage.get(1).getTitle());
+
+        List<Book> aToC = storage.getBooksInTitleRange("A", "C");
+        assertEquals(3, aToC.size(), "Range A..C should include titles starting with C.");
+
+        assertEquals("Anonymous", storage.getBooksSortedByAuthor(null, 1).get(0).getAuthor());
+
+        storage.removeBook(beowulf.getId());
+        assertEquals(2, storage.getBooksInTitleRange("A", "C").size(), "Removed book should leave the index.");
+        System.out.println("Finished testSortedIndexesSupportPagingAndRanges.");
+    }
+}
@@ -0,0 +1,58 @@
+package com.librarysystem;
+
+import java.io.File;
+
+final class TestFixtures {
+    final Date today;
+    final Storage storage;
+    final Executor executor;
+    private final String booksFile;
+    private final File[] scratch;
+
+    TestFixtures(String booksFile, Date today, File... scratch) {
+        this.booksFile = booksFile;
+        this.today = today;
+        this.scratch = scratch;
+        cleanUp();
+        this.storage = new Storage(booksFile);
+        this.executor = new Executor(new LookupArray(storage), storage);
+    }
+
+    Book addBook(String title, String author, String isbn) {
+        Book book = new Book(title, author, "Genre", "Desc " + title, isbn);
+        storage.registerBook(book);
+        return book;
+    }
+
+    User newReader(int id, String name) {
+        return new User(id, name, "Reader", name.toLowerCase() + id + "@example.com", "READER", "pass", 5, today.addMonths(6));
+    }
+
+    Storage reopenStorage() {
+        return new Storage(booksFile);
+    }
+
+    void borrowAndReturn(User user, Date day, Book... books) {
+        for (Book book : books) {
+            executor.createBorrow(book, user, day, day.addMonths(1));
+            executor.returnBook(book, user, day);
+        }
+    }
+
+    void cleanUp() {
+        new File(booksFile).delete();
+        for (File file : scratch) {
+            deleteDirectory(file);
+        }
+    }
+
+    static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,121 @@
+package com.librarysystem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimerWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final List<List<Entry<T>>> wheels;
+    private final List<Entry<T>> overflow;
+    private final List<Entry<T>> due;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(long startTick) {
+        this.wheels = new ArrayList<>();
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            wheels.add(null);
+        }
+        this.overflow = new ArrayList<>();
+        this.due = new ArrayList<>();
+        this.currentTick = startTick;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void schedule(long deadlineTick, T item) {
+        size++;
+        place(new Entry<>(deadlineTick, item));
+    }
+
+    public List<T> advanceTo(long tick) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+        while (currentTick < tick) {
+            currentTick++;
+            int index = (int) (currentTick & SLOT_MASK);
+            if (index == 0) {
+                cascade(1);
+                drain(due, expired);
+            }
+            List<Entry<T>> slot = wheels.get(index);
+            if (slot != null) {
+                wheels.set(index, null);
+                drain(slot, expired);
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            List<Entry<T>> pending = new ArrayList<>(overflow);
+            overflow.clear();
+            for (Entry<T> entry : pending) {
+                place(entry);
+            }
+            return;
+        }
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        List<Entry<T>> slot = wheels.get(level * SLOTS + index);
+        if (slot != null) {
+            wheels.set(level * SLOTS + index, null);
+            for (Entry<T> entry : slot) {
+                place(entry);
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadline - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int index = (int) ((entry.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+                int position = level * SLOTS + index;
+                List<Entry<T>> slot = wheels.get(position);
+                if (slot == null) {
+                    slot = new ArrayList<>();
+                    wheels.set(position, slot);
+                }
+                slot.add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private void drain(List<Entry<T>> entries, List<T> expired) {
+        for (Entry<T> entry : entries) {
+            expired.add(entry.item);
+            size--;
+        }
+        entries.clear();
+    }
+
+    private static final class Entry<T> {
+        private final long deadline;
+        private final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.librarysystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UnitOfWork {
+    private final IReadWrite readWrite;
+    private final IPresent present;
+    private final EventJournal journal;
+    private final Map<Integer, Book> touchedBooks;
+    private final Map<Integer, Boolean> originalAvailability;
+    private final Map<Integer, Boolean> stagedAvailability;
+    private final List<Book> presenceUpdates;
+    private final Deque<Runnable> undoLog;
+    private final List<Runnable> afterCommit;
+    private final List<LibraryEvent> events;
+    private final Map<IAction, LibraryCard> commands;
+    private boolean completed;
+
+    public UnitOfWork(IReadWrite readWrite, IPresent present) {
+        this(readWrite, present, null);
+    }
+
+    public UnitOfWork(IReadWrite readWrite, IPresent present, EventJournal journal) {
+        this.readWrite = readWrite;
+        this.present = present;
+        this.journal = journal;
+        this.touchedBooks = new LinkedHashMap<>();
+        this.originalAvailability = new LinkedHashMap<>();
+        this.stagedAvailability = new LinkedHashMap<>();
+        this.presenceUpdates = new ArrayList<>();
+        this.undoLog = new ArrayDeque<>();
+        this.afterCommit = new ArrayList<>();
+        this.events = new ArrayList<>();
+        this.commands = new LinkedHashMap<>();
+    }
+
+    public boolean claimAvailability(Book storedBook, boolean expected, boolean available) {
+        ensureOpen();
+        if (!storedBook.compareAndSetAvailable(expected, available)) {
+            return false;
+        }
+        rememberOriginal(storedBook, expected);
+        stagedAvailability.put(storedBook.getId(), available);
+        return true;
+    }
+
+    public void stageAvailability(Book storedBook, boolean available) {
+        ensureOpen();
+        rememberOriginal(storedBook, storedBook.isAvailable());
+        stagedAvailability.put(storedBook.getId(), available);
+    }
+
+    public void recordCommand(LibraryCard card, IAction action) {
+        ensureOpen();
+        card.cacheCommand(action);
+        commands.put(action, card);
+        undoLog.push(() -> card.removeCommand(action));
+    }
+
+    public void registerPresence(Book storedBook) {
+        ensureOpen();
+        presenceUpdates.add(storedBook);
+    }
+
+    public void onRollback(Runnable undo) {
+        ensureOpen();
+        undoLog.push(undo);
+    }
+
+    public void recordEvent(LibraryEvent event) {
+        ensureOpen();
+        events.add(event);
+    }
+
+    public void afterCommit(Runnable action) {
+        ensureOpen();
+        afterCommit.add(action);
+    }
+
+    public void commit() {
+        ensureOpen();
+        boolean persisted = false;
+        try {
+            if (!stagedAvailability.isEmpty()) {
+                readWrite.updateBooksAvailability(stagedAvailability);
+                persisted = true;
+                for (Map.Entry<Integer, Boolean> staged : stagedAvailability.entrySet()) {
+                    touchedBooks.get(staged.getKey()).setAvailable(staged.getValue());
+                }
+            }
+            for (Book book : presenceUpdates) {
+                present.registerBook(book);
+            }
+            for (Map.Entry<IAction, LibraryCard> command : commands.entrySet()) {
+                command.getValue().archiveCommand(command.getKey());
+            }
+            if (journal != null) {
+                journal.appendAll(events);
+            }
+        } catch (RuntimeException e) {
+            rollback();
+            if (persisted) {
+                restorePersisted();
+            }
+            throw e;
+        }
+        completed = true;
+        for (Runnable action : afterCommit) {
+            action.run();
+        }
+    }
+
+    public void rollback() {
+        if (completed) return;
+        completed = true;
+        while (!undoLog.isEmpty()) {
+            undoLog.pop().run();
+        }
+        for (Map.Entry<Integer, Boolean> original : originalAvailability.entrySet()) {
+            touchedBooks.get(original.getKey()).setAvailable(original.getValue());
+            readWrite.getCatalogIndex().setAvailable(original.getKey(), original.getValue());
+        }
+        System.out.println("UnitOfWork: Rolled back changes to " + touchedBooks.size() + " book(s).");
+    }
+
+    private void restorePersisted() {
+        try {
+            readWrite.updateBooksAvailability(originalAvailability);
+        } catch (RuntimeException e) {
+            System.err.println("UnitOfWork: Could not restore persisted availability: " + e.getMessage());
+        }
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void rememberOriginal(Book storedBook, boolean original) {
+        touchedBooks.put(storedBook.getId(), storedBook);
+        originalAvailability.putIfAbsent(storedBook.getId(), original);
+    }
+
+    private void ensureOpen() {
+        if (completed) {
+            throw new IllegalStateException("Unit of work has already been committed or rolled back.");
+        }
+    }
+}
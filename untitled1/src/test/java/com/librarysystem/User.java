@@ -1,6 +1,9 @@
 package com.librarysystem;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class User implements com.librarysystem.INotify {
@@ -10,7 +13,7 @@ public class User implements com.librarysystem.INotify {
     private String role;
     private com.librarysystem.LibraryCard libraryCard;
     private String password;
-    private List<String> notifications;
+    private volatile com.librarysystem.NotificationInbox inbox;
 
     private int id;
     private int bookLimit;
@@ -23,7 +26,7 @@ public class User implements com.librarysystem.INotify {
         this.email = email;
         this.role = role;
         this.password = password;
-        this.notifications = new ArrayList<>();
+        this.inbox = new NotificationInbox(NotificationInbox.DEFAULT_CAPACITY);
         this.bookLimit = bookLimit > 0 ? bookLimit : 5;
         this.libraryCard = new LibraryCard(id, cardExpiryDate);
     }
@@ -34,7 +37,25 @@ public class User implements com.librarysystem.INotify {
     public String getRole() { return role; }
     public com.librarysystem.LibraryCard getLibraryCard() { return libraryCard; }
     public String getPassword() { return password; }
-    public List<String> getNotifications() { return new ArrayList<>(notifications); }
+    public com.librarysystem.NotificationInbox getInbox() { return inbox; }
+    public long getUnreadNotificationCount() { return inbox.getUnreadCount(); }
+
+    public List<String> getNotifications() {
+        List<String> messages = new ArrayList<>();
+        for (NotificationInbox.Notification notification : inbox.getPage(0, NotificationInbox.DEFAULT_CAPACITY)) {
+            messages.add(notification.getMessage());
+        }
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    public List<String> getUnreadNotifications() {
+        List<String> messages = new ArrayList<>();
+        for (NotificationInbox.Notification notification : inbox.getUnread(Integer.MAX_VALUE)) {
+            messages.add(notification.getMessage());
+        }
+        return messages;
+    }
 
     public void setName(String name) { this.name = name; }
     public void setSurname(String surname) { this.surname = surname; }
@@ -57,7 +78,7 @@ public class User implements com.librarysystem.INotify {
 
     @Override
     public void recieveMessage(String message) {
-        this.notifications.add(message);
+        inbox.append(message);
         System.out.println("Notification for " + name + ": " + message);
     }
 
@@ -69,8 +90,20 @@ public class User implements com.librarysystem.INotify {
                 + "]";
     }
     public void clearNotifications() {
-        if (this.notifications != null) {
-            this.notifications.clear();
+        inbox.markAllRead();
+    }
+
+    public synchronized void discardInbox() {
+        inbox.delete();
+        this.inbox = new NotificationInbox(NotificationInbox.DEFAULT_CAPACITY);
+    }
+
+    public synchronized void attachInbox(File directory) throws IOException {
+        NotificationInbox persistent = new NotificationInbox(directory, id, NotificationInbox.DEFAULT_CAPACITY);
+        for (NotificationInbox.Notification pending : inbox.getUnread(Integer.MAX_VALUE)) {
+            persistent.append(pending.getMessage());
         }
+        inbox.close();
+        this.inbox = persistent;
     }
 }
\ No newline at end of file